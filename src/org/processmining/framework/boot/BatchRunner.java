@@ -0,0 +1,337 @@
+package org.processmining.framework.boot;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+
+import org.processmining.framework.plugin.GlobalContext;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginManager;
+import org.processmining.framework.plugin.PluginParameterBinding;
+import org.processmining.framework.plugin.PluginPipeline;
+import org.processmining.framework.plugin.ProMFuture;
+import org.processmining.framework.plugin.annotations.Bootable;
+import org.processmining.framework.plugin.annotations.CLI;
+import org.processmining.framework.plugin.impl.HeadlessGlobalContext;
+import org.processmining.framework.plugin.impl.HeadlessPluginContext;
+import org.processmining.framework.util.CommandLineArgumentList;
+import org.processmining.framework.util.Pair;
+
+/**
+ * Runs a script of plugin invocations without any user interface (see
+ * BatchScript for the syntax of scripts). Use
+ * 
+ * <pre>
+ * java org.processmining.framework.boot.BatchRunner script.txt
+ * </pre>
+ * 
+ * The statements of the script are submitted as one PluginPipeline, so
+ * statements that do not depend on each other are executed in parallel. A
+ * <code>write()</code> statement is executed by an exporter plugin for the
+ * type of the result and the extension of the file, so results are written as
+ * soon as they are available, and released as soon as no other statement needs
+ * them. Results that are not used by any statement become provided objects.
+ * 
+ * The process exits with EXIT_OK if all statements succeeded,
+ * EXIT_EXECUTION_FAILED if some statement failed or was cancelled, and
+ * EXIT_INVALID_SCRIPT if the script could not be read, parsed, or bound to
+ * plugins, for instance if no exporter is found for a <code>write()</code>.
+ * Every failed statement is reported.
+ */
+public class BatchRunner {
+
+	public static final int EXIT_OK = 0;
+	public static final int EXIT_EXECUTION_FAILED = 1;
+	public static final int EXIT_INVALID_SCRIPT = 2;
+
+	public static void main(String[] args) throws Exception {
+		// Keep AWT, the event dispatch thread, and dialogs out of the way
+		System.setProperty("java.awt.headless", "true");
+		ProMFuture.setDefaultDispatchOnEventThread(false);
+		Boot.boot(BatchRunner.class, HeadlessPluginContext.class, args);
+	}
+
+	@Bootable
+	public Object boot(CommandLineArgumentList args) {
+		if (args.size() != 1) {
+			System.err.println("Usage: java " + BatchRunner.class.getName() + " <script>");
+			System.exit(EXIT_INVALID_SCRIPT);
+		}
+		int exitCode;
+		try {
+			exitCode = run(new HeadlessGlobalContext(), new File(args.get(0)));
+		} catch (InterruptedException e) {
+			exitCode = EXIT_EXECUTION_FAILED;
+		}
+		System.exit(exitCode);
+		return null;
+	}
+
+	/**
+	 * Runs the given script in the given context, and waits until all its
+	 * statements are done.
+	 * 
+	 * @param context
+	 * @param script
+	 * @return the exit code.
+	 * @throws InterruptedException
+	 */
+	public int run(GlobalContext context, File script) throws InterruptedException {
+		BatchScript parsed;
+		try {
+			Reader reader = new InputStreamReader(new FileInputStream(script), "UTF-8");
+			try {
+				parsed = new BatchScript(reader);
+			} finally {
+				reader.close();
+			}
+		} catch (IOException e) {
+			System.err.println("Cannot read " + script + ": " + e.getMessage());
+			return EXIT_INVALID_SCRIPT;
+		} catch (ParseException e) {
+			System.err.println(script + ":" + e.getErrorOffset() + ": " + e.getMessage());
+			return EXIT_INVALID_SCRIPT;
+		}
+
+		PluginPipeline pipeline = new PluginPipeline();
+		// The statement of each node
+		List<BatchScript.Statement> nodes = new ArrayList<BatchScript.Statement>();
+		try {
+			build(context.getPluginManager(), context.getPluginContextType(), parsed, pipeline, nodes);
+		} catch (ParseException e) {
+			System.err.println(script + ":" + e.getErrorOffset() + ": " + e.getMessage());
+			return EXIT_INVALID_SCRIPT;
+		}
+
+		try {
+			context.invokePipeline(pipeline);
+		} catch (IllegalArgumentException e) {
+			System.err.println(script + ": " + e.getMessage());
+			return EXIT_INVALID_SCRIPT;
+		}
+
+		// Wait for all statements, including those without results
+		CompletableFuture<?>[] done = new CompletableFuture<?>[nodes.size()];
+		final boolean[] failed = new boolean[1];
+		for (int node = 0; node < nodes.size(); node++) {
+			final BatchScript.Statement statement = nodes.get(node);
+			final CompletableFuture<Object> reported = new CompletableFuture<Object>();
+			done[node] = reported;
+			pipeline.getCompletion(node).whenComplete(new BiConsumer<Object, Throwable>() {
+				public void accept(Object object, Throwable exception) {
+					if ((exception instanceof CompletionException) && (exception.getCause() != null)) {
+						exception = exception.getCause();
+					}
+					if (exception != null) {
+						synchronized (failed) {
+							System.err.println(statement + " failed: " + exception);
+							failed[0] = true;
+						}
+					}
+					reported.complete(null);
+				}
+			});
+		}
+		try {
+			CompletableFuture.allOf(done).get();
+		} catch (ExecutionException e) {
+			// Cannot happen, failures are handled per statement
+		}
+		synchronized (failed) {
+			return failed[0] ? EXIT_EXECUTION_FAILED : EXIT_OK;
+		}
+	}
+
+	/**
+	 * Adds a node to the pipeline for every statement of the script. Writes
+	 * invoke an exporter. The first result of a statement that is not used by
+	 * any other statement is marked as output, such that it is provided.
+	 */
+	private void build(PluginManager manager, Class<? extends PluginContext> contextType, BatchScript script,
+			PluginPipeline pipeline, List<BatchScript.Statement> nodes) throws ParseException {
+		Map<String, List<Pair<PluginDescriptor, Integer>>> functions = getFunctions(manager, contextType);
+		Map<String, List<Pair<PluginDescriptor, Integer>>> exporters = getExporters(manager, contextType);
+		// Maps each name to the node and result index it is assigned
+		Map<String, int[]> names = new HashMap<String, int[]>();
+		List<Boolean> used = new ArrayList<Boolean>();
+
+		for (BatchScript.Statement statement : script.getStatements()) {
+			List<BatchScript.Argument> arguments = statement.getArguments();
+			if (statement.getFunction().equals(BatchScript.WRITE)) {
+				if (!statement.getNames().isEmpty()) {
+					throw new ParseException(BatchScript.WRITE + " has no results", statement.getLine());
+				}
+				int[] source = resolve(names, arguments.get(0), statement);
+				File file = new File((String) arguments.get(1).getValue());
+				Class<?> type = pipeline.getBinding(source[0]).getPlugin().getReturnTypes().get(source[1]);
+				int node = pipeline.addNode(bindExporter(manager, exporters, statement, type, file));
+				nodes.add(statement);
+				used.add(true);
+				pipeline.connect(source[0], source[1], node, 0);
+				pipeline.setInput(node, 1, file);
+				used.set(source[0], true);
+				continue;
+			}
+
+			Class<?>[] types = new Class<?>[arguments.size()];
+			for (int i = 0; i < types.length; i++) {
+				if (arguments.get(i).getName() == null) {
+					types[i] = arguments.get(i).getValue().getClass();
+				} else {
+					int[] source = resolve(names, arguments.get(i), statement);
+					types[i] = pipeline.getBinding(source[0]).getPlugin().getReturnTypes().get(source[1]);
+				}
+			}
+			PluginParameterBinding binding = bind(manager, functions, statement, types);
+			int results = binding.getPlugin().getReturnTypes().size();
+			if (statement.getNames().size() > results) {
+				throw new ParseException(statement.getFunction() + " has " + results + " results",
+						statement.getLine());
+			}
+
+			int node = pipeline.addNode(binding);
+			nodes.add(statement);
+			used.add(false);
+			for (int i = 0; i < types.length; i++) {
+				if (arguments.get(i).getName() == null) {
+					pipeline.setInput(node, i, arguments.get(i).getValue());
+				} else {
+					int[] source = names.get(arguments.get(i).getName());
+					pipeline.connect(source[0], source[1], node, i);
+					used.set(source[0], true);
+				}
+			}
+			for (int r = 0; r < statement.getNames().size(); r++) {
+				names.put(statement.getNames().get(r), new int[] { node, r });
+			}
+		}
+
+		for (int node = 0; node < nodes.size(); node++) {
+			// Plugins that return nothing have no result to provide
+			if (!used.get(node) && !pipeline.getBinding(node).getPlugin().getReturnTypes().isEmpty()) {
+				pipeline.addOutput(node, 0);
+			}
+		}
+	}
+
+	private int[] resolve(Map<String, int[]> names, BatchScript.Argument argument, BatchScript.Statement statement)
+			throws ParseException {
+		int[] source = names.get(argument.getName());
+		if (source == null) {
+			throw new ParseException("Unknown name " + argument.getName(), statement.getLine());
+		}
+		return source;
+	}
+
+	/**
+	 * Returns the plugin methods annotated with <code>@CLI</code> that can be
+	 * invoked in the given context type, by function name.
+	 */
+	private Map<String, List<Pair<PluginDescriptor, Integer>>> getFunctions(PluginManager manager,
+			Class<? extends PluginContext> contextType) {
+		Map<String, List<Pair<PluginDescriptor, Integer>>> functions;
+		functions = new HashMap<String, List<Pair<PluginDescriptor, Integer>>>();
+		for (PluginDescriptor plugin : manager.getAllPlugins()) {
+			for (int i = 0; i < plugin.getNumberOfMethods(); i++) {
+				CLI cli = plugin.getAnnotation(CLI.class, i);
+				if ((cli == null) || !plugin.getContextType(i).isAssignableFrom(contextType)) {
+					continue;
+				}
+				List<Pair<PluginDescriptor, Integer>> methods = functions.get(cli.functionName());
+				if (methods == null) {
+					methods = new ArrayList<Pair<PluginDescriptor, Integer>>();
+					functions.put(cli.functionName(), methods);
+				}
+				methods.add(new Pair<PluginDescriptor, Integer>(plugin, i));
+			}
+		}
+		return functions;
+	}
+
+	/**
+	 * Returns the exporters that can be invoked in the given context type, by
+	 * lower case file extension.
+	 */
+	private Map<String, List<Pair<PluginDescriptor, Integer>>> getExporters(PluginManager manager,
+			Class<? extends PluginContext> contextType) {
+		Map<String, List<Pair<PluginDescriptor, Integer>>> exporters;
+		exporters = new HashMap<String, List<Pair<PluginDescriptor, Integer>>>();
+		for (PluginDescriptor plugin : manager.getAllPlugins()) {
+			for (int i = 0; i < plugin.getNumberOfMethods(); i++) {
+				CLI cli = plugin.getAnnotation(CLI.class, i);
+				if ((cli == null) || !plugin.getContextType(i).isAssignableFrom(contextType)) {
+					continue;
+				}
+				for (String extension : cli.exportExtensions()) {
+					List<Pair<PluginDescriptor, Integer>> methods = exporters.get(extension.toLowerCase());
+					if (methods == null) {
+						methods = new ArrayList<Pair<PluginDescriptor, Integer>>();
+						exporters.put(extension.toLowerCase(), methods);
+					}
+					methods.add(new Pair<PluginDescriptor, Integer>(plugin, i));
+				}
+			}
+		}
+		return exporters;
+	}
+
+	/**
+	 * Binds an exporter for the extension of the given file to an object of
+	 * the given type and the file. If several exporters fit, the first is
+	 * used.
+	 */
+	private PluginParameterBinding bindExporter(PluginManager manager,
+			Map<String, List<Pair<PluginDescriptor, Integer>>> exporters, BatchScript.Statement statement,
+			Class<?> type, File file) throws ParseException {
+		String name = file.getName();
+		String extension = name.lastIndexOf('.') < 0 ? "" : name.substring(name.lastIndexOf('.') + 1);
+		List<Pair<PluginDescriptor, Integer>> methods = exporters.get(extension.toLowerCase());
+		if (methods != null) {
+			for (Pair<PluginDescriptor, Integer> method : methods) {
+				List<PluginParameterBinding> bindings = PluginParameterBinding.Factory.tryToBind(manager,
+						method.getFirst(), method.getSecond(), true, true, type, File.class);
+				if (!bindings.isEmpty()) {
+					return bindings.get(0);
+				}
+			}
+		}
+		throw new ParseException("No exporter writes " + type.getName() + " to ." + extension + " files",
+				statement.getLine());
+	}
+
+	/**
+	 * Binds the function of the given statement to arguments of the given
+	 * types, in the given order. If several plugin methods carry the function
+	 * name, the first that can be bound is used.
+	 */
+	private PluginParameterBinding bind(PluginManager manager,
+			Map<String, List<Pair<PluginDescriptor, Integer>>> functions, BatchScript.Statement statement,
+			Class<?>[] types) throws ParseException {
+		List<Pair<PluginDescriptor, Integer>> methods = functions.get(statement.getFunction());
+		if (methods == null) {
+			throw new ParseException("Unknown function " + statement.getFunction(), statement.getLine());
+		}
+		for (Pair<PluginDescriptor, Integer> method : methods) {
+			List<PluginParameterBinding> bindings = PluginParameterBinding.Factory.tryToBind(manager,
+					method.getFirst(), method.getSecond(), true, true, types);
+			if (!bindings.isEmpty()) {
+				return bindings.get(0);
+			}
+		}
+		throw new ParseException("Function " + statement.getFunction() + " does not accept "
+				+ Arrays.toString(types), statement.getLine());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,274 @@
+package org.processmining.framework.boot;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A script for the BatchRunner. A script consists of one statement per line.
+ * Empty lines and lines starting with <code>#</code> are ignored. A statement
+ * calls a function, optionally assigning its results to names:
+ * 
+ * <pre>
+ * log = open_log("input.xes")
+ * net, marking = mine(log, 0.8)
+ * write(net, "net.pnml")
+ * </pre>
+ * 
+ * Functions are plugins carrying <code>@CLI(functionName = ...)</code>, except
+ * for the built-in function <code>write(name, "file")</code>, which writes a
+ * result to a file using an exporter for the type of the result and the
+ * extension of the file (see <code>CLI.exportExtensions()</code>). Arguments are names assigned
+ * earlier, string literals, integer and decimal numbers, <code>true</code>,
+ * <code>false</code>, or files given by <code>file("path")</code>.
+ */
+class BatchScript {
+
+	public static final String WRITE = "write";
+
+	/**
+	 * One statement of the script.
+	 */
+	static class Statement {
+
+		private final int line;
+		private final List<String> names;
+		private final String function;
+		private final List<Argument> arguments;
+
+		private Statement(int line, List<String> names, String function, List<Argument> arguments) {
+			this.line = line;
+			this.names = names;
+			this.function = function;
+			this.arguments = arguments;
+		}
+
+		public int getLine() {
+			return line;
+		}
+
+		/**
+		 * Returns the names assigned to the results of the function, in the
+		 * order of the results.
+		 * 
+		 * @return
+		 */
+		public List<String> getNames() {
+			return names;
+		}
+
+		public String getFunction() {
+			return function;
+		}
+
+		public List<Argument> getArguments() {
+			return arguments;
+		}
+
+		public String toString() {
+			return function + " (line " + line + ")";
+		}
+	}
+
+	/**
+	 * An argument of a statement, which is either a reference to a name or a
+	 * literal value.
+	 */
+	static class Argument {
+
+		private final String name;
+		private final Object value;
+
+		private Argument(String name, Object value) {
+			this.name = name;
+			this.value = value;
+		}
+
+		/**
+		 * Returns the name this argument refers to, or null if it is a literal.
+		 * 
+		 * @return
+		 */
+		public String getName() {
+			return name;
+		}
+
+		public Object getValue() {
+			return value;
+		}
+	}
+
+	private final List<Statement> statements = new ArrayList<Statement>();
+
+	/**
+	 * Parses the script read from the given reader.
+	 * 
+	 * @param reader
+	 * @throws IOException
+	 * @throws ParseException
+	 *             if the script is malformed. The error offset is the line
+	 *             number.
+	 */
+	BatchScript(Reader reader) throws IOException, ParseException {
+		BufferedReader lines = new BufferedReader(reader);
+		String text;
+		int line = 0;
+		while ((text = lines.readLine()) != null) {
+			line++;
+			text = text.trim();
+			if ((text.length() > 0) && !text.startsWith("#")) {
+				statements.add(new Parser(text, line).parseStatement());
+			}
+		}
+	}
+
+	public List<Statement> getStatements() {
+		return Collections.unmodifiableList(statements);
+	}
+
+	private static class Parser {
+
+		private final String text;
+		private final int line;
+		private int pos = 0;
+
+		private Parser(String text, int line) {
+			this.text = text;
+			this.line = line;
+		}
+
+		private Statement parseStatement() throws ParseException {
+			List<String> names = new ArrayList<String>();
+			String identifier = parseIdentifier();
+			skipWhitespace();
+			if (!peek('(')) {
+				names.add(identifier);
+				while (accept(',')) {
+					names.add(parseIdentifier());
+				}
+				expect('=');
+				identifier = parseIdentifier();
+			}
+			expect('(');
+			List<Argument> arguments = new ArrayList<Argument>();
+			if (!accept(')')) {
+				do {
+					arguments.add(parseArgument());
+				} while (accept(','));
+				expect(')');
+			}
+			skipWhitespace();
+			if (pos < text.length()) {
+				throw error("Unexpected '" + text.substring(pos) + "'");
+			}
+			if (identifier.equals(WRITE)
+					&& ((arguments.size() != 2) || (arguments.get(0).getName() == null) || !(arguments.get(1)
+							.getValue() instanceof String))) {
+				throw error("Expected " + WRITE + "(name, \"file\")");
+			}
+			return new Statement(line, names, identifier, arguments);
+		}
+
+		private Argument parseArgument() throws ParseException {
+			skipWhitespace();
+			if (peek('"')) {
+				return new Argument(null, parseString());
+			}
+			if ((pos < text.length()) && (Character.isDigit(text.charAt(pos)) || (text.charAt(pos) == '-'))) {
+				return new Argument(null, parseNumber());
+			}
+			String identifier = parseIdentifier();
+			if (identifier.equals("true") || identifier.equals("false")) {
+				return new Argument(null, Boolean.valueOf(identifier));
+			}
+			if (identifier.equals("file") && accept('(')) {
+				skipWhitespace();
+				File file = new File(parseString());
+				expect(')');
+				return new Argument(null, file);
+			}
+			return new Argument(identifier, null);
+		}
+
+		private String parseIdentifier() throws ParseException {
+			skipWhitespace();
+			int start = pos;
+			while ((pos < text.length())
+					&& (Character.isLetterOrDigit(text.charAt(pos)) || (text.charAt(pos) == '_'))) {
+				pos++;
+			}
+			if ((start == pos) || Character.isDigit(text.charAt(start))) {
+				throw error("Expected a name");
+			}
+			return text.substring(start, pos);
+		}
+
+		private String parseString() throws ParseException {
+			expect('"');
+			StringBuilder builder = new StringBuilder();
+			while (pos < text.length()) {
+				char c = text.charAt(pos++);
+				if (c == '"') {
+					return builder.toString();
+				}
+				if ((c == '\\') && (pos < text.length())) {
+					c = text.charAt(pos++);
+				}
+				builder.append(c);
+			}
+			throw error("Unterminated string");
+		}
+
+		private Object parseNumber() throws ParseException {
+			int start = pos;
+			pos++;
+			while ((pos < text.length())
+					&& (Character.isLetterOrDigit(text.charAt(pos)) || (text.charAt(pos) == '.'))) {
+				pos++;
+			}
+			String number = text.substring(start, pos);
+			try {
+				if ((number.indexOf('.') < 0) && (number.indexOf('e') < 0) && (number.indexOf('E') < 0)) {
+					return Integer.valueOf(number);
+				}
+				return Double.valueOf(number);
+			} catch (NumberFormatException e) {
+				throw error("Invalid number " + number);
+			}
+		}
+
+		private void skipWhitespace() {
+			while ((pos < text.length()) && Character.isWhitespace(text.charAt(pos))) {
+				pos++;
+			}
+		}
+
+		private boolean peek(char c) {
+			return (pos < text.length()) && (text.charAt(pos) == c);
+		}
+
+		private boolean accept(char c) {
+			skipWhitespace();
+			if (peek(c)) {
+				pos++;
+				return true;
+			}
+			return false;
+		}
+
+		private void expect(char c) throws ParseException {
+			if (!accept(c)) {
+				throw error("Expected '" + c + "'");
+			}
+		}
+
+		private ParseException error(String message) {
+			return new ParseException(message + " at column " + (pos + 1), line);
+		}
+	}
+}
@@ -52,6 +52,17 @@ public class Boot {
 	public static int OPENXES_SHADOW_SIZE;
 	public static int CONNECT_TIMEOUT;
 	public static int READ_TIMEOUT;
+	public static int RESULT_CACHE_SIZE;
+	public static int PROGRESS_UPDATES_PER_SECOND;
+	public static int MIN_FREE_HEAP_PERCENTAGE;
+	public static String TRACE_FILE;
+	public static int SPECULATIVE_CONSTRUCTIONS;
+	public static int MAX_RUNNING_PLUGINS;
+	public static boolean EXECUTION_HISTORY;
+	public static boolean COST_BASED_SELECTION;
+	public static int SOFT_TIME_BUDGET;
+	public static int HARD_TIME_BUDGET;
+	public static boolean CANCEL_ON_HARD_TIME_BUDGET;
 
 	public static boolean HIDE_OLD_PACKAGES;
 	public static boolean CHECK_PACKAGES;
@@ -93,6 +104,17 @@ public class Boot {
 		PLUGIN_LEVEL_THRESHOLD = PluginLevel.Local;
 		CONNECT_TIMEOUT = 100;
 		READ_TIMEOUT = 1000;
+		RESULT_CACHE_SIZE = 32;
+		PROGRESS_UPDATES_PER_SECOND = 25;
+		MIN_FREE_HEAP_PERCENTAGE = 0;
+		TRACE_FILE = "";
+		SPECULATIVE_CONSTRUCTIONS = 1;
+		MAX_RUNNING_PLUGINS = 0;
+		EXECUTION_HISTORY = false;
+		COST_BASED_SELECTION = false;
+		SOFT_TIME_BUDGET = 0;
+		HARD_TIME_BUDGET = 0;
+		CANCEL_ON_HARD_TIME_BUDGET = false;
 
 		Properties ini = new Properties();
 		FileInputStream is;
@@ -120,6 +142,18 @@ public class Boot {
 
 				CONNECT_TIMEOUT = Integer.parseInt(ini.getProperty("CONNECT_TIMEOUT", "100"));
 				READ_TIMEOUT = Integer.parseInt(ini.getProperty("READ_TIMEOUT", "1000"));
+				RESULT_CACHE_SIZE = Integer.parseInt(ini.getProperty("RESULT_CACHE_SIZE", "32"));
+				PROGRESS_UPDATES_PER_SECOND = Integer.parseInt(ini.getProperty("PROGRESS_UPDATES_PER_SECOND", "25"));
+				MIN_FREE_HEAP_PERCENTAGE = Integer.parseInt(ini.getProperty("MIN_FREE_HEAP_PERCENTAGE", "0"));
+				TRACE_FILE = ini.getProperty("TRACE_FILE", "").replace("/", File.separator);
+				SPECULATIVE_CONSTRUCTIONS = Integer.parseInt(ini.getProperty("SPECULATIVE_CONSTRUCTIONS", "1"));
+				MAX_RUNNING_PLUGINS = Integer.parseInt(ini.getProperty("MAX_RUNNING_PLUGINS", "0"));
+				EXECUTION_HISTORY = Boolean.parseBoolean(ini.getProperty("EXECUTION_HISTORY", "false"));
+				COST_BASED_SELECTION = Boolean.parseBoolean(ini.getProperty("COST_BASED_SELECTION", "false"));
+				SOFT_TIME_BUDGET = Integer.parseInt(ini.getProperty("SOFT_TIME_BUDGET", "0"));
+				HARD_TIME_BUDGET = Integer.parseInt(ini.getProperty("HARD_TIME_BUDGET", "0"));
+				CANCEL_ON_HARD_TIME_BUDGET = Boolean.parseBoolean(ini.getProperty("CANCEL_ON_HARD_TIME_BUDGET",
+						"false"));
 
 				try {
 					VERBOSE = Level.valueOf(ini.getProperty("VERBOSE", Level.ALL.name()));
@@ -19,6 +19,7 @@ import org.processmining.framework.plugin.PluginManager;
 import org.processmining.framework.plugin.PluginParameterBinding;
 import org.processmining.framework.plugin.events.ConnectionObjectListener;
 import org.processmining.framework.plugin.events.Logger.MessageLevel;
+import org.processmining.framework.plugin.impl.PluginCostSelector;
 import org.processmining.framework.util.Pair;
 
 public class ConnectionManagerImpl implements ConnectionManager {
@@ -133,7 +134,7 @@ public class ConnectionManagerImpl implements ConnectionManager {
 			throw new ConnectionCannotBeObtained("No plugin available to create connection", connectionType, objects);
 		}
 		PluginContext c2 = context.createChildContext("Creating connection of Type " + connectionType);
-		Pair<Integer, PluginParameterBinding> pair = plugins.iterator().next();
+		Pair<Integer, PluginParameterBinding> pair = PluginCostSelector.rank(plugins).get(0);
 		PluginParameterBinding binding = pair.getSecond();
 		try {
 
@@ -1,6 +1,10 @@
 package org.processmining.framework.plugin;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.processmining.framework.connections.ConnectionManager;
+import org.processmining.framework.providedobjects.ProvidedObjectID;
 import org.processmining.framework.providedobjects.ProvidedObjectManager;
 
 /**
@@ -78,6 +82,57 @@ public interface GlobalContext {
 	 */
 	void invokeBinding(PluginParameterBinding binding, Object... objects);
 
+	/**
+	 * This method invokes all nodes of the given pipeline, each in a context
+	 * which is a child of the main plugin context maintained by this
+	 * globalContext. Every node is executed as soon as its inputs are
+	 * available, hence independent nodes are executed in parallel. Results
+	 * which are not an output of the pipeline are released as soon as all
+	 * nodes that need them are executed. A result that is added as output
+	 * more than once is provided once. The completion of every node is
+	 * signalled through <code>pipeline.getCompletion()</code>.
+	 * 
+	 * Global contexts that do not support pipelines throw an
+	 * UnsupportedOperationException.
+	 * 
+	 * @param pipeline
+	 *            The pipeline that should be invoked by the framework
+	 * @return the IDs of the providedObjects created for the outputs of the
+	 *         pipeline, in the order of <code>pipeline.getOutputs()</code>.
+	 * @throws IllegalArgumentException
+	 *             if the pipeline is not valid, in which case no node is
+	 *             invoked.
+	 */
+	default List<ProvidedObjectID> invokePipeline(PluginPipeline pipeline) throws IllegalArgumentException {
+		throw new UnsupportedOperationException("Pipelines are not supported by " + getClass().getName());
+	}
+
+	/**
+	 * This method invokes the specified binding once for each of the given
+	 * argument tuples, in children of a new context which is a child of the
+	 * main plugin context maintained by this globalContext. At most
+	 * <code>parallelism</code> invocations are executed at the same time. The
+	 * results are not provided as providedObjects, but can be taken from the
+	 * returned batch in the order in which they complete.
+	 * 
+	 * When invoked on a PluginContext, the new context is a child of that
+	 * context instead, such that cancelling or suspending it reaches the batch.
+	 * Global contexts that do not support batches throw an
+	 * UnsupportedOperationException.
+	 * 
+	 * @param binding
+	 *            The binding that should be invoked by the framework
+	 * @param parallelism
+	 *            The maximal number of concurrent invocations. If not
+	 *            positive, the number of available processors is used.
+	 * @param arguments
+	 *            The argument tuples, each as accepted by the given binding.
+	 * @return the batch, which is started already.
+	 */
+	default PluginBatch invokeBatch(PluginParameterBinding binding, int parallelism, Collection<Object[]> arguments) {
+		throw new UnsupportedOperationException("Batches are not supported by " + getClass().getName());
+	}
+
 	/**
 	 * Returns the specific type of the PluginContext. This type is used to
 	 * instantiate new contexts in which to invoke plugins.
@@ -0,0 +1,73 @@
+package org.processmining.framework.plugin;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Splits an input of a plugin method into parts, on which the method can be
+ * executed independently (see the Partitioned annotation).
+ * 
+ * @param <T>
+ *            the type of the input.
+ */
+public interface InputPartitioner<T> {
+
+	/**
+	 * Splits the given input into at most the given number of parts, each of
+	 * which can be passed to the plugin method instead of the input. The order
+	 * of the parts is the order in which their results are merged.
+	 * 
+	 * @param input
+	 * @param maxParts
+	 * @return
+	 */
+	List<T> split(T input, int maxParts);
+
+	/**
+	 * Splits lists and arrays into consecutive ranges, and other collections
+	 * in iteration order. Collections other than lists are passed as
+	 * ArrayLists, arrays as arrays of the same type. Other inputs are not
+	 * split.
+	 */
+	public static class Default implements InputPartitioner<Object> {
+
+		public List<Object> split(Object input, int maxParts) {
+			int size;
+			if (input instanceof Collection<?>) {
+				size = ((Collection<?>) input).size();
+			} else if (input.getClass().isArray()) {
+				size = Array.getLength(input);
+			} else {
+				size = 1;
+			}
+			int parts = Math.max(1, Math.min(maxParts, size));
+			List<Object> result = new ArrayList<Object>(parts);
+			if (parts == 1) {
+				result.add(input);
+				return result;
+			}
+
+			List<?> list = null;
+			if (input instanceof List<?>) {
+				list = (List<?>) input;
+			} else if (input instanceof Collection<?>) {
+				list = new ArrayList<Object>((Collection<?>) input);
+			}
+			for (int i = 0; i < parts; i++) {
+				// Parts differ in size by at most one element
+				int from = (int) ((long) i * size / parts);
+				int to = (int) ((long) (i + 1) * size / parts);
+				if (list != null) {
+					result.add(list.subList(from, to));
+				} else {
+					Object part = Array.newInstance(input.getClass().getComponentType(), to - from);
+					System.arraycopy(input, from, part, 0, to - from);
+					result.add(part);
+				}
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package org.processmining.framework.plugin;
+
+/**
+ * A batch of invocations of one binding on many argument tuples, as created by
+ * <code>GlobalContext.invokeBatch()</code>.
+ * 
+ * At most a given number of invocations of the batch are executed at the same
+ * time. The results are made available in the order in which the invocations
+ * complete. All invocations are executed in children of one context, which
+ * reflects the progress of the batch as a whole and through which the batch
+ * can be cancelled.
+ */
+public interface PluginBatch {
+
+	/**
+	 * Returns the context in which the invocations of this batch are executed.
+	 * The progress of this context counts the completed invocations.
+	 * 
+	 * @return
+	 */
+	PluginContext getContext();
+
+	/**
+	 * Returns the number of invocations in this batch.
+	 * 
+	 * @return
+	 */
+	int getSize();
+
+	/**
+	 * Returns the result of the next invocation that completed, waiting for one
+	 * to complete if necessary. Results are returned in completion order. Note
+	 * that an invocation is also complete if it failed or was cancelled, in
+	 * which case <code>synchronize()</code> on the result throws an exception.
+	 * 
+	 * @return the next result, or null if all results have been returned.
+	 *         Invocations that were not started because the batch was
+	 *         cancelled do not produce a result.
+	 * @throws InterruptedException
+	 */
+	PluginExecutionResult take() throws InterruptedException;
+
+	/**
+	 * Returns whether all invocations of this batch are complete, or skipped
+	 * because the batch was cancelled.
+	 * 
+	 * @return
+	 */
+	boolean isDone();
+
+	/**
+	 * Cancels all running invocations of this batch. Invocations that have not
+	 * been started yet, are not started anymore.
+	 */
+	void cancel();
+}
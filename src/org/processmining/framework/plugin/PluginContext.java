@@ -1,7 +1,16 @@
 package org.processmining.framework.plugin;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
 
 import org.processmining.framework.connections.Connection;
 import org.processmining.framework.plugin.events.Logger;
@@ -31,6 +40,17 @@ public interface PluginContext extends GlobalContext, ObjectConstructor {
 	 */
 	Progress getProgress();
 
+	/**
+	 * Returns the resources used on behalf of this context, i.e. by the plugin
+	 * invoked in it, its subtasks, and the plugins it invoked. Contexts that
+	 * do not measure resources return a new, empty usage.
+	 * 
+	 * @return
+	 */
+	default ResourceUsage getResourceUsage() {
+		return new ResourceUsage();
+	}
+
 	/**
 	 * Returns the list of registered progress listeners
 	 * 
@@ -60,6 +80,29 @@ public interface PluginContext extends GlobalContext, ObjectConstructor {
 	 */
 	String getLabel();
 
+	/**
+	 * Returns the priority of the plugins invoked in this context. Unless set
+	 * otherwise, a context has the priority of its parent context, and a root
+	 * context has PluginPriority.NORMAL. Contexts that do not support
+	 * priorities return PluginPriority.NORMAL.
+	 * 
+	 * @return
+	 */
+	default PluginPriority getPriority() {
+		return PluginPriority.NORMAL;
+	}
+
+	/**
+	 * Sets the priority of the plugins invoked in this context, and in child
+	 * contexts created hereafter. Contexts that do not support priorities
+	 * throw an UnsupportedOperationException.
+	 * 
+	 * @param priority
+	 */
+	default void setPriority(PluginPriority priority) {
+		throw new UnsupportedOperationException("Priorities are not supported by " + getClass().getName());
+	}
+
 	/**
 	 * Return the plugin descriptor and method index of the plugin which is
 	 * invoked in this context. This descriptor is set by the
@@ -110,6 +153,23 @@ public interface PluginContext extends GlobalContext, ObjectConstructor {
 	 */
 	ProMFuture<?> getFutureResult(int i);
 
+	/**
+	 * Publishes a partial result for the i-th result of the plugin running in
+	 * this context, which listeners and subscribers of the corresponding
+	 * future receive while the plugin continues (see
+	 * ProMFuture.publishPartialResult()). This method should only be used by a
+	 * plugin, in the body of that plugin.
+	 * 
+	 * @param i
+	 * @param partialResult
+	 * @param delta
+	 *            if true, the partial result extends the ones published
+	 *            before. Otherwise, it is a snapshot, which replaces them.
+	 */
+	default void publishPartialResult(int i, Object partialResult, boolean delta) {
+		getFutureResult(i).publishPartialResult(partialResult, delta);
+	}
+
 	/**
 	 * Returns an executor which can be used to execute plugins in child
 	 * contexts.
@@ -118,6 +178,101 @@ public interface PluginContext extends GlobalContext, ObjectConstructor {
 	 */
 	Executor getExecutor();
 
+	/**
+	 * Executes the given body for all indices from <code>from</code>
+	 * (inclusive) to <code>to</code> (exclusive) in parallel, on the executor
+	 * of this context, and returns when all iterations are done. The
+	 * iterations are executed in a child context, whose progress counts the
+	 * completed iterations. If this context is cancelled, no new iterations
+	 * are started. Contexts that do not support parallel execution execute the
+	 * iterations in order, on the calling thread.
+	 * 
+	 * @param from
+	 * @param to
+	 * @param body
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 *             if an iteration failed, in which case no new iterations are
+	 *             started.
+	 * @throws CancellationException
+	 *             if iterations were skipped because this context was
+	 *             cancelled.
+	 */
+	default void parallelFor(int from, int to, IntConsumer body) throws InterruptedException, ExecutionException,
+			CancellationException {
+		for (int i = from; i < to; i++) {
+			if ((getProgress() != null) && getProgress().isCancelled()) {
+				throw new CancellationException();
+			}
+			try {
+				body.accept(i);
+			} catch (RuntimeException e) {
+				throw new ExecutionException(e);
+			}
+		}
+	}
+
+	/**
+	 * Maps all given items in parallel, on the executor of this context, and
+	 * reduces the results, in the order of the items, using the given
+	 * associative reducer. Progress and cancellation are as for
+	 * <code>parallelFor()</code>. Contexts that do not support parallel
+	 * execution map and reduce the items in order, on the calling thread.
+	 * 
+	 * @param items
+	 * @param mapper
+	 * @param identity
+	 *            the identity of the reducer, which is the result if there
+	 *            are no items.
+	 * @param reducer
+	 * @return
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws CancellationException
+	 */
+	default <T, R> R mapReduce(Collection<? extends T> items, Function<? super T, ? extends R> mapper, R identity,
+			BinaryOperator<R> reducer) throws InterruptedException, ExecutionException, CancellationException {
+		R result = identity;
+		for (T item : items) {
+			if ((getProgress() != null) && getProgress().isCancelled()) {
+				throw new CancellationException();
+			}
+			try {
+				result = reducer.apply(result, mapper.apply(item));
+			} catch (RuntimeException e) {
+				throw new ExecutionException(e);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Forks the given task as a subtask of the plugin running in this context.
+	 * The task runs on the executor of this context, and is skipped if this
+	 * context is cancelled before it starts. The plugin does not complete
+	 * before all its subtasks are done. Contexts that do not support subtasks
+	 * execute the task right away, on the calling thread.
+	 * 
+	 * @param task
+	 * @return the future result of the task. If the task has not started when
+	 *         its result is requested, it is executed by the requesting thread.
+	 */
+	default <T> Future<T> fork(Callable<T> task) {
+		FutureTask<T> future = new FutureTask<T>(task);
+		future.run();
+		return future;
+	}
+
+	/**
+	 * Waits until all subtasks forked in this context are done. This is called
+	 * by the framework when the plugin returns. Contexts that do not support
+	 * subtasks have nothing to wait for.
+	 * 
+	 * @throws InterruptedException
+	 */
+	default void joinSubtasks() throws InterruptedException {
+	}
+
 	/**
 	 * Returns true if this is a distant child of context, i.e. true if
 	 * getParent.getID().equals(context.getID()) ||
@@ -8,6 +8,7 @@ import java.util.Set;
 import javax.swing.ImageIcon;
 
 import org.processmining.framework.packages.PackageDescriptor;
+import org.processmining.framework.plugin.annotations.PluginWorkload;
 
 public interface PluginDescriptor extends Comparable<PluginDescriptor> {
 
@@ -310,6 +311,49 @@ public interface PluginDescriptor extends Comparable<PluginDescriptor> {
 	 */
 	boolean handlesCancel();
 
+	/**
+	 * Returns the kind of work this plugin predominantly performs, which
+	 * determines the executor it is run on. Descriptors that do not know
+	 * return PluginWorkload.Default.
+	 * 
+	 * @return
+	 */
+	default PluginWorkload getWorkload() {
+		return PluginWorkload.Default;
+	}
+
+	/**
+	 * Returns whether the plugin always produces the same results on the same
+	 * inputs, in which case its results may be reused. Descriptors that do not
+	 * know return false.
+	 * 
+	 * @return
+	 */
+	default boolean isDeterministic() {
+		return false;
+	}
+
+	/**
+	 * Returns the amount of heap memory (in megabytes) the plugin is expected
+	 * to need, or 0 if unknown.
+	 * 
+	 * @return
+	 */
+	default int getMemoryHint() {
+		return 0;
+	}
+
+	/**
+	 * Returns whether the plugin may be executed at the same time as other
+	 * plugins constructing the same object, and cancelled if one of those
+	 * succeeds first. Descriptors that do not know return false.
+	 * 
+	 * @return
+	 */
+	default boolean isSpeculative() {
+		return false;
+	}
+
 	/**
 	 * Returns the index in the result array of the most significant result for
 	 * this plugin
@@ -110,4 +110,16 @@ public interface PluginExecutionResult {
 	 */
 	public PluginDescriptor getPlugin();
 
+	/**
+	 * Returns the CPU time and heap allocation spent on the plugin execution,
+	 * including its subtasks and the plugins it invoked. The usage is complete
+	 * once synchronize() returns. Results that do not measure resources return
+	 * a new, empty usage.
+	 * 
+	 * @return
+	 */
+	public default ResourceUsage getResourceUsage() {
+		return new ResourceUsage();
+	}
+
 }
@@ -4,8 +4,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-import org.processmining.framework.util.ArrayUtils;
-
 /**
  * This class represents a binding between a method of a plugin and a set of
  * parameters. The semantics of this object are as follows.
@@ -82,18 +80,22 @@ public class PluginParameterBinding implements Comparable<PluginParameterBinding
 
 			List<PluginParameterBinding> result = new ArrayList<PluginParameterBinding>();
 
-			if (mustBeTotal && (parameterTypes.length < plugin.getParameterTypes(methodIndex).size())) {
+			// Both lists are immutable views, obtain them once.
+			List<Class<?>> methodTypes = plugin.getParameterTypes(methodIndex);
+			int parameterCount = plugin.getParameterNames(methodIndex).size();
+
+			if (mustBeTotal && (parameterTypes.length < methodTypes.size())) {
 				// Quick check. the result is empty if it should be total, but their
 				// are less provided parameters than required.
 				return result;
 			}
-			if (!mustBeTotal && (parameterTypes.length > 0) && (plugin.getParameterTypes(methodIndex).size() <= 1)) {
+			if (!mustBeTotal && (parameterTypes.length > 0) && (methodTypes.size() <= 1)) {
 				// Quick check. A partial mapping to one type is not possible, when
 				// having
 				// to assign all parameters
 				return result;
 			}
-			if (orderedParameters && (parameterTypes.length != plugin.getParameterTypes(methodIndex).size())) {
+			if (orderedParameters && (parameterTypes.length != methodTypes.size())) {
 				// can't do this, parameters.size should match required params
 
 				return result;
@@ -102,13 +104,13 @@ public class PluginParameterBinding implements Comparable<PluginParameterBinding
 			// We are dealing with multiple parameters, and we are sure that
 			// there are more parameters than types if the mapping needs to be
 			// total.
-			if ((parameterTypes.length == plugin.getParameterTypes(methodIndex).size())
+			if ((parameterTypes.length == methodTypes.size())
 					&& ((parameterTypes.length == 1) || orderedParameters)) {
 				// if ordered, or only 1 to match
 				int[] list = new int[parameterTypes.length];
 				for (int i = 0; i < parameterTypes.length; i++) {
 					// This single parameter matches the required type
-					Class<?> parType = plugin.getParameterTypes(methodIndex).get(i);
+					Class<?> parType = methodTypes.get(i);
 					//				if (parType.isAssignableFrom(parameters.get(i))
 					//						|| (parType.isArray() && parType.getComponentType().isAssignableFrom(parameters.get(i)))) {
 					if (manager.isParameterAssignable(parameterTypes[i], parType)) {
@@ -124,8 +126,8 @@ public class PluginParameterBinding implements Comparable<PluginParameterBinding
 				return result;
 			}
 
-			boolean[] fullyUsed = new boolean[plugin.getParameterNames(methodIndex).size()];
-			boolean[] used = new boolean[plugin.getParameterNames(methodIndex).size()];
+			boolean[] fullyUsed = new boolean[parameterCount];
+			boolean[] used = new boolean[parameterCount];
 			Arrays.fill(fullyUsed, false);
 			Arrays.fill(used, false);
 
@@ -136,11 +138,11 @@ public class PluginParameterBinding implements Comparable<PluginParameterBinding
 				int matchingIndex = -1;
 				Class<?> parType = null;
 				// First try to match to an unused input parameter
-				for (int j = 0; (j < plugin.getParameterNames(methodIndex).size()) && !done; j++) {
+				for (int j = 0; (j < parameterCount) && !done; j++) {
 					if (used[j]) {
 						continue;
 					}
-					parType = plugin.getParameterTypes(methodIndex).get(j);
+					parType = methodTypes.get(j);
 					boolean match = manager.isParameterAssignable(par, parType);
 					if (match) {
 						matchingIndex = j;
@@ -148,11 +150,11 @@ public class PluginParameterBinding implements Comparable<PluginParameterBinding
 					}
 				}
 				// Then, to a used, but not fully used parameter
-				for (int j = 0; (j < plugin.getParameterNames(methodIndex).size()) && !done; j++) {
+				for (int j = 0; (j < parameterCount) && !done; j++) {
 					if (fullyUsed[j]) {
 						continue;
 					}
-					parType = plugin.getParameterTypes(methodIndex).get(j);
+					parType = methodTypes.get(j);
 					boolean match = manager.isParameterAssignable(par, parType);
 					if (match) {
 						matchingIndex = j;
@@ -241,34 +243,40 @@ public class PluginParameterBinding implements Comparable<PluginParameterBinding
 	/**
 	 * Sorts the parameters according the ordering specified in the binding
 	 * array. Produces arrays if multiple objects are bound to the same
-	 * parameter.
+	 * parameter. Array parameters are sized up front, such that the arguments
+	 * are prepared in time linear in the number of objects.
 	 * 
 	 * @param parameterObjects
 	 * @return
 	 */
 	private Object[] prepareArguments(Object... parameterObjects) {
+		List<Class<?>> types = plugin.getParameterTypes(methodIndex);
 		Object[] args = new Object[plugin.getParameterNames(methodIndex).size()];
-		Arrays.fill(args, null);
+		// First count the objects bound to each array parameter
+		int[] sizes = new int[args.length];
+		for (int i = 0; i < parameterObjects.length; i++) {
+			if ((binding[i] >= 0) && types.get(binding[i]).isArray()) {
+				sizes[binding[i]]++;
+			}
+		}
+		for (int index = 0; index < args.length; index++) {
+			if (sizes[index] > 0) {
+				args[index] = new Object[sizes[index]];
+			}
+		}
+		// Then fill the arrays in order, reusing sizes as the next position
+		Arrays.fill(sizes, 0);
 		for (int i = 0; i < parameterObjects.length; i++) {
 			int index = binding[i];
 			if (index < 0) {
 				continue;
 			}
-			if (!plugin.getParameterTypes(methodIndex).get(index).isArray()) {
+			if (!types.get(index).isArray()) {
 				// Single parameter
 				args[index] = parameterObjects[i];
-				continue;
-			}
-			// Array Parameter (there might be more added to this array).
-			Object[] arg;
-			if (args[index] == null) {
-				arg = new Object[0];
 			} else {
-				arg = (Object[]) args[index];
+				((Object[]) args[index])[sizes[index]++] = parameterObjects[i];
 			}
-			Object[] newArg = ArrayUtils.copyOf(arg, arg.length + 1);
-			newArg[arg.length] = parameterObjects[i];
-			args[index] = newArg;
 		}
 		return args;
 	}
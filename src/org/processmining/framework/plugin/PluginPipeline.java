@@ -0,0 +1,284 @@
+package org.processmining.framework.plugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A pipeline is a directed acyclic graph of plugin invocations, which is
+ * submitted to the framework as a whole using
+ * <code>GlobalContext.invokePipeline()</code>.
+ * 
+ * Each node of the pipeline is a PluginParameterBinding. The inputs of a node
+ * correspond to the parameter types the binding was constructed for, i.e. a
+ * node has <code>getBinding().length</code> inputs, which are provided to
+ * <code>PluginParameterBinding.invoke()</code> in that order. Each input is
+ * either set to a given object, or connected to a result of another node.
+ * 
+ * Results of nodes are only kept as long as they are needed by downstream
+ * nodes, unless they are marked as output of the pipeline, in which case they
+ * become provided objects. The completion of every node can be observed
+ * through <code>getCompletion()</code>, which also covers nodes without
+ * results.
+ */
+public class PluginPipeline {
+
+	/**
+	 * Refers to a result of a node in the pipeline.
+	 */
+	public static class Source {
+
+		private final int node;
+		private final int resultIndex;
+
+		private Source(int node, int resultIndex) {
+			this.node = node;
+			this.resultIndex = resultIndex;
+		}
+
+		public int getNode() {
+			return node;
+		}
+
+		public int getResultIndex() {
+			return resultIndex;
+		}
+
+		public String toString() {
+			return "result " + resultIndex + " of node " + node;
+		}
+	}
+
+	private static final Object NOT_SET = new Object();
+
+	private final List<PluginParameterBinding> nodes = new ArrayList<PluginParameterBinding>();
+	private final List<Object[]> inputs = new ArrayList<Object[]>();
+	private final List<Source> outputs = new ArrayList<Source>();
+	private final List<CompletableFuture<Void>> completions = new ArrayList<CompletableFuture<Void>>();
+
+	/**
+	 * Adds a node invoking the given binding to this pipeline.
+	 * 
+	 * @param binding
+	 * @return the index of the new node.
+	 */
+	public int addNode(PluginParameterBinding binding) {
+		Object[] nodeInputs = new Object[binding.getBinding().length];
+		Arrays.fill(nodeInputs, NOT_SET);
+		nodes.add(binding);
+		inputs.add(nodeInputs);
+		completions.add(new CompletableFuture<Void>());
+		return nodes.size() - 1;
+	}
+
+	/**
+	 * Sets the given input of the given node to the given object. This object
+	 * can also be a ProMFuture.
+	 * 
+	 * @param node
+	 * @param inputIndex
+	 * @param object
+	 */
+	public void setInput(int node, int inputIndex, Object object) {
+		if (object instanceof Source) {
+			throw new IllegalArgumentException("Use connect() to connect nodes.");
+		}
+		inputs.get(node)[inputIndex] = object;
+	}
+
+	/**
+	 * Connects the given result of one node to the given input of another.
+	 * 
+	 * @param fromNode
+	 * @param resultIndex
+	 * @param toNode
+	 * @param inputIndex
+	 */
+	public void connect(int fromNode, int resultIndex, int toNode, int inputIndex) {
+		inputs.get(toNode)[inputIndex] = createSource(fromNode, resultIndex);
+	}
+
+	/**
+	 * Marks the given result of the given node as output of this pipeline.
+	 * 
+	 * @param node
+	 * @param resultIndex
+	 */
+	public void addOutput(int node, int resultIndex) {
+		outputs.add(createSource(node, resultIndex));
+	}
+
+	private Source createSource(int node, int resultIndex) {
+		int size = nodes.get(node).getPlugin().getReturnTypes().size();
+		if ((resultIndex < 0) || (resultIndex >= size)) {
+			throw new IndexOutOfBoundsException("Node " + node + " has no result " + resultIndex);
+		}
+		return new Source(node, resultIndex);
+	}
+
+	/**
+	 * Returns the number of nodes in this pipeline.
+	 * 
+	 * @return
+	 */
+	public int getNodeCount() {
+		return nodes.size();
+	}
+
+	/**
+	 * Returns the binding invoked by the given node.
+	 * 
+	 * @param node
+	 * @return
+	 */
+	public PluginParameterBinding getBinding(int node) {
+		return nodes.get(node);
+	}
+
+	/**
+	 * Returns the result the given input of the given node is connected to, or
+	 * null if the input is set to an object.
+	 * 
+	 * @param node
+	 * @param inputIndex
+	 * @return
+	 */
+	public Source getSource(int node, int inputIndex) {
+		Object input = inputs.get(node)[inputIndex];
+		return input instanceof Source ? (Source) input : null;
+	}
+
+	/**
+	 * Returns the object the given input of the given node is set to, or null
+	 * if the input is connected to a result of another node.
+	 * 
+	 * @param node
+	 * @param inputIndex
+	 * @return
+	 */
+	public Object getInput(int node, int inputIndex) {
+		Object input = inputs.get(node)[inputIndex];
+		return (input instanceof Source) || (input == NOT_SET) ? null : input;
+	}
+
+	/**
+	 * Returns the outputs of this pipeline, in the order in which they were
+	 * added.
+	 * 
+	 * @return
+	 */
+	public List<Source> getOutputs() {
+		return Collections.unmodifiableList(outputs);
+	}
+
+	/**
+	 * Returns a stage that completes once the given node is done, after the
+	 * pipeline is invoked. It completes exceptionally if the node failed or
+	 * was cancelled.
+	 * 
+	 * @param node
+	 * @return
+	 */
+	public CompletionStage<Void> getCompletion(int node) {
+		return completions.get(node);
+	}
+
+	/**
+	 * Marks the given node as done. This method is called by the global
+	 * context that invokes the pipeline.
+	 * 
+	 * @param node
+	 * @param exception
+	 *            the exception the node failed with, or null if it succeeded.
+	 */
+	public void setDone(int node, Throwable exception) {
+		if (exception == null) {
+			completions.get(node).complete(null);
+		} else {
+			completions.get(node).completeExceptionally(exception);
+		}
+	}
+
+	/**
+	 * Checks that all inputs of all nodes are set or connected, that all
+	 * connections are type correct and that the pipeline is acyclic.
+	 * 
+	 * @return the nodes in topological order, i.e. each node is preceded by
+	 *         all nodes it is connected to.
+	 * @throws IllegalArgumentException
+	 *             if the pipeline is not valid.
+	 */
+	public int[] validate() throws IllegalArgumentException {
+		int[] incoming = new int[nodes.size()];
+		List<List<Integer>> successors = new ArrayList<List<Integer>>(nodes.size());
+		for (int node = 0; node < nodes.size(); node++) {
+			successors.add(new ArrayList<Integer>());
+		}
+
+		for (int node = 0; node < nodes.size(); node++) {
+			PluginParameterBinding binding = nodes.get(node);
+			Object[] nodeInputs = inputs.get(node);
+			for (int i = 0; i < nodeInputs.length; i++) {
+				if (nodeInputs[i] == NOT_SET) {
+					throw new IllegalArgumentException("Input " + i + " of node " + node + " ("
+							+ binding.getPlugin().getName() + ") is not set.");
+				}
+				if (nodeInputs[i] instanceof Source) {
+					incoming[node]++;
+					successors.get(((Source) nodeInputs[i]).getNode()).add(node);
+				}
+				int parameterIndex = binding.getBinding()[i];
+				if (parameterIndex < 0) {
+					continue;
+				}
+				Class<?> parameterType = binding.getPlugin().getParameterTypes(binding.getMethodIndex())
+						.get(parameterIndex);
+				Class<?> type;
+				if (nodeInputs[i] instanceof Source) {
+					Source source = (Source) nodeInputs[i];
+					type = nodes.get(source.getNode()).getPlugin().getReturnTypes().get(source.getResultIndex());
+				} else if (nodeInputs[i] instanceof ProMFuture<?>) {
+					type = ((ProMFuture<?>) nodeInputs[i]).getReturnType();
+				} else {
+					type = nodeInputs[i] == null ? null : nodeInputs[i].getClass();
+				}
+				if ((type != null) && !accepts(parameterType, type)) {
+					throw new IllegalArgumentException("Input " + i + " of node " + node + " ("
+							+ binding.getPlugin().getName() + ") requires " + parameterType.getName()
+							+ ", but is given " + type.getName() + ".");
+				}
+			}
+		}
+
+		// Kahn's algorithm
+		int[] order = new int[nodes.size()];
+		int size = 0;
+		for (int node = 0; node < nodes.size(); node++) {
+			if (incoming[node] == 0) {
+				order[size++] = node;
+			}
+		}
+		for (int i = 0; i < size; i++) {
+			for (int successor : successors.get(order[i])) {
+				if (--incoming[successor] == 0) {
+					order[size++] = successor;
+				}
+			}
+		}
+		if (size < nodes.size()) {
+			throw new IllegalArgumentException("The pipeline contains a cycle.");
+		}
+		return order;
+	}
+
+	private static boolean accepts(Class<?> parameterType, Class<?> type) {
+		if (parameterType.isPrimitive() || parameterType.isAssignableFrom(type)) {
+			return true;
+		}
+		// Multiple objects can be bound to one array parameter
+		return parameterType.isArray() && parameterType.getComponentType().isAssignableFrom(type);
+	}
+}
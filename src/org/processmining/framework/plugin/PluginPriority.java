@@ -0,0 +1,21 @@
+package org.processmining.framework.plugin;
+
+/**
+ * The priority of the plugins invoked in a context. Plugins of lower priority
+ * can be suspended in favour of plugins of higher priority (see
+ * PluginScheduler).
+ */
+public enum PluginPriority {
+	/**
+	 * Background work, such as batch jobs, which can be postponed.
+	 */
+	LOW,
+	/**
+	 * The default priority.
+	 */
+	NORMAL,
+	/**
+	 * Interactive work, for which a user is waiting.
+	 */
+	HIGH
+}
@@ -1,42 +1,109 @@
 package org.processmining.framework.plugin;
 
+import java.awt.GraphicsEnvironment;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
 import java.util.concurrent.Future;
+import java.util.concurrent.SubmissionPublisher;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
-import javax.swing.SwingWorker;
+import javax.swing.SwingUtilities;
 
 import org.processmining.framework.plugin.events.FutureListener;
 import org.processmining.framework.plugin.events.NameChangeListener;
+import org.processmining.framework.plugin.events.PartialResultListener;
 
 /**
  * Class to represent a future on an object.
  * 
+ * The result is kept in a CompletableFuture. The computation itself is
+ * started by executing the Runnable returned by <code>getRunnable()</code> on
+ * any executor, or by calling <code>start(executor)</code>. Futures can be
+ * composed using <code>thenApply()</code> and <code>thenCompose()</code>,
+ * which do not block any thread while waiting.
+ * 
+ * While the result is computed, partial results can be published through
+ * <code>publishPartialResult()</code>, such that listeners can show or process
+ * them before the result is done. Alternatively, subscribers of
+ * <code>getPartialResultPublisher()</code> receive all partial results, and
+ * slow subscribers hold up the computation rather than miss partial results.
+ * 
  * @author bfvdonge
  * 
  * @param <T>
  */
 public abstract class ProMFuture<T> implements Future<T> {
 
+	private static volatile boolean defaultDispatchOnEventThread = !GraphicsEnvironment.isHeadless();
+
 	private final Class<?> classType;
-	private final SwingWorker<T, Void> worker;
+	private final CompletableFuture<T> result = new CompletableFuture<T>();
+	private final Runnable runnable;
+	private final AtomicBoolean started = new AtomicBoolean(false);
+	private final AtomicBoolean finished = new AtomicBoolean(false);
+	private volatile boolean dispatchOnEventThread = defaultDispatchOnEventThread;
+	private Thread runner = null;
 	private String label;
 	private final NameChangeListener.ListenerList nameChangeListeners = new NameChangeListener.ListenerList();
 	private final FutureListener.ListenerList futureListeners = new FutureListener.ListenerList();
+	private final PartialResultListener.ListenerList partialResultListeners = new PartialResultListener.ListenerList();
+	private final ConcurrentLinkedQueue<PartialResult> partialResults = new ConcurrentLinkedQueue<PartialResult>();
+	private final AtomicBoolean publishing = new AtomicBoolean(false);
+	private volatile Object latestPartialResult = null;
+	private SubmissionPublisher<PartialResult> partialResultPublisher = null;
+
+	/**
+	 * A partial result, as published by the computation of a future.
+	 */
+	public static final class PartialResult {
+		private final Object value;
+		private final boolean delta;
+
+		private PartialResult(Object value, boolean delta) {
+			this.value = value;
+			this.delta = delta;
+		}
+
+		public Object getValue() {
+			return value;
+		}
+
+		/**
+		 * Returns whether this partial result extends the ones published
+		 * before. Otherwise, it is a snapshot, which replaces them.
+		 * 
+		 * @return
+		 */
+		public boolean isDelta() {
+			return delta;
+		}
+	}
 
 	/**
 	 * Instantiates a ProMFuture object of the given type and with the given
 	 * label.
 	 * 
-	 * A SwingWorker is instantiated by the constructor. This SwingWorker is
-	 * provided through the <code>getRunnable()</code> method and once executed,
-	 * it will execute the <code>doInBackground()</code> method of this
-	 * ProMFuture.
+	 * A Runnable is instantiated by the constructor. This Runnable is provided
+	 * through the <code>getRunnable()</code> method and once executed, it will
+	 * execute the <code>doInBackground()</code> method of this ProMFuture.
 	 * 
 	 * When finished, the <code>done()</code> method is invoked, after which any
-	 * Future listeners are notified that this future is ready.
+	 * Future listeners are notified that this future is ready. If
+	 * <code>isDispatchOnEventThread()</code>, this notification takes place on
+	 * the event dispatch thread, otherwise on the thread that completed the
+	 * future.
 	 * 
 	 * @param resultClass
 	 *            Any type that extends T. However, no subtype of ProMFuture can
@@ -50,21 +117,27 @@ public abstract class ProMFuture<T> implements Future<T> {
 		}
 		this.classType = resultClass;
 		this.label = label;
-		this.worker = new SwingWorker<T, Void>() {
-			@Override
-			protected T doInBackground() throws Exception {
-				return ProMFuture.this.doInBackground();
-			}
-
-			@Override
-			protected void done() {
-				// invoke the setLabel() on getLabel() after finishing execution.
-				// this is necessary to fire name-changed events to any 
-				// listeners registered after the last call to setLabel();
-				ProMFuture.this.setLabel(ProMFuture.this.getLabel());
-
-				ProMFuture.this.done();
-				ProMFuture.this.getFutureListeners().fireFutureReady(ProMFuture.this);
+		this.runnable = new Runnable() {
+			public void run() {
+				if (result.isDone() || !started.compareAndSet(false, true)) {
+					// Cancelled before start, or started twice.
+					return;
+				}
+				synchronized (this) {
+					runner = Thread.currentThread();
+				}
+				T value = null;
+				Throwable exception = null;
+				try {
+					value = doInBackground();
+				} catch (Throwable t) {
+					exception = t;
+				} finally {
+					synchronized (this) {
+						runner = null;
+					}
+				}
+				settle(value, exception);
 			}
 		};
 	}
@@ -89,7 +162,50 @@ public abstract class ProMFuture<T> implements Future<T> {
 	 * @return
 	 */
 	public Runnable getRunnable() {
-		return worker;
+		return runnable;
+	}
+
+	/**
+	 * Starts the computation of this future on the given executor.
+	 * 
+	 * @param executor
+	 * @return this future
+	 */
+	public ProMFuture<T> start(Executor executor) {
+		executor.execute(runnable);
+		return this;
+	}
+
+	/**
+	 * Returns whether the <code>done()</code> method and the future listeners
+	 * are invoked on the event dispatch thread.
+	 * 
+	 * @return
+	 */
+	public boolean isDispatchOnEventThread() {
+		return dispatchOnEventThread;
+	}
+
+	/**
+	 * Sets whether the <code>done()</code> method and the future listeners are
+	 * invoked on the event dispatch thread, or directly on the thread that
+	 * completed this future.
+	 * 
+	 * @param dispatchOnEventThread
+	 */
+	public void setDispatchOnEventThread(boolean dispatchOnEventThread) {
+		this.dispatchOnEventThread = dispatchOnEventThread;
+	}
+
+	/**
+	 * Sets the default for <code>isDispatchOnEventThread()</code> of all
+	 * futures created hereafter. Defaults to true, unless the graphics
+	 * environment is headless.
+	 * 
+	 * @param dispatchOnEventThread
+	 */
+	public static void setDefaultDispatchOnEventThread(boolean dispatchOnEventThread) {
+		defaultDispatchOnEventThread = dispatchOnEventThread;
 	}
 
 	/**
@@ -107,7 +223,18 @@ public abstract class ProMFuture<T> implements Future<T> {
 	 * @see java.util.concurrent.Future#get()
 	 */
 	public boolean cancel(boolean mayInterruptIfRunning) {
-		return worker.cancel(mayInterruptIfRunning);
+		if (!result.cancel(false)) {
+			return false;
+		}
+		if (mayInterruptIfRunning) {
+			synchronized (runnable) {
+				if (runner != null) {
+					runner.interrupt();
+				}
+			}
+		}
+		finish();
+		return true;
 	}
 
 	/*
@@ -116,7 +243,7 @@ public abstract class ProMFuture<T> implements Future<T> {
 	 * @see java.util.concurrent.Future#get()
 	 */
 	public T get() throws InterruptedException, ExecutionException, CancellationException {
-		return worker.get();
+		return result.get();
 	}
 
 	/*
@@ -126,7 +253,7 @@ public abstract class ProMFuture<T> implements Future<T> {
 	 */
 	public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException,
 			CancellationException {
-		return worker.get(timeout, unit);
+		return result.get(timeout, unit);
 	}
 
 	/*
@@ -135,7 +262,7 @@ public abstract class ProMFuture<T> implements Future<T> {
 	 * @see java.util.concurrent.Future#isCancelled()
 	 */
 	public boolean isCancelled() {
-		return worker.isCancelled();
+		return result.isCancelled();
 	}
 
 	/*
@@ -144,7 +271,141 @@ public abstract class ProMFuture<T> implements Future<T> {
 	 * @see java.util.concurrent.Future#isDone()
 	 */
 	public boolean isDone() {
-		return worker.isDone();
+		return result.isDone();
+	}
+
+	/**
+	 * Returns a completion stage that completes with the result of this
+	 * future. The stage cannot be used to complete this future.
+	 * 
+	 * @return
+	 */
+	public CompletionStage<T> toCompletionStage() {
+		return result.thenApply(Function.<T>identity());
+	}
+
+	/**
+	 * Returns a new future, which is completed with the result of applying the
+	 * given function to the result of this future. The function is executed
+	 * on the thread that completes this future. If this future fails or is
+	 * cancelled, so is the returned future.
+	 * 
+	 * @param <U>
+	 * @param resultClass
+	 *            the type of the new future
+	 * @param label
+	 *            the label of the new future
+	 * @param fn
+	 * @return
+	 */
+	public <U> ProMFuture<U> thenApply(Class<? extends U> resultClass, String label,
+			Function<? super T, ? extends U> fn) {
+		return new DependentFuture<U>(resultClass, label, result.thenApply(fn));
+	}
+
+	/**
+	 * Same as <code>thenApply(resultClass, label, fn)</code>, but executes the
+	 * function on the given executor.
+	 * 
+	 * @param <U>
+	 * @param resultClass
+	 * @param label
+	 * @param fn
+	 * @param executor
+	 * @return
+	 */
+	public <U> ProMFuture<U> thenApply(Class<? extends U> resultClass, String label,
+			Function<? super T, ? extends U> fn, Executor executor) {
+		return new DependentFuture<U>(resultClass, label, result.thenApplyAsync(fn, executor));
+	}
+
+	/**
+	 * Returns a new future, which is completed with the result of the future
+	 * returned by the given function, when applied to the result of this
+	 * future. If either of both fails or is cancelled, so is the returned
+	 * future.
+	 * 
+	 * @param <U>
+	 * @param resultClass
+	 *            the type of the new future
+	 * @param label
+	 *            the label of the new future
+	 * @param fn
+	 * @return
+	 */
+	public <U> ProMFuture<U> thenCompose(Class<? extends U> resultClass, String label,
+			final Function<? super T, ? extends ProMFuture<U>> fn) {
+		return new DependentFuture<U>(resultClass, label, result.thenCompose(new Function<T, CompletionStage<U>>() {
+			public CompletionStage<U> apply(T t) {
+				return fn.apply(t).toCompletionStage();
+			}
+		}));
+	}
+
+	/**
+	 * Completes this future with the given value or exception, if it is not
+	 * completed yet, and notifies done() and the listeners.
+	 */
+	private void settle(T value, Throwable exception) {
+		if (exception == null) {
+			result.complete(value);
+		} else if (exception instanceof CancellationException) {
+			result.cancel(false);
+		} else {
+			result.completeExceptionally(exception);
+		}
+		finish();
+	}
+
+	private BiConsumer<T, Throwable> settler() {
+		return new BiConsumer<T, Throwable>() {
+			public void accept(T value, Throwable exception) {
+				if ((exception instanceof CompletionException) && (exception.getCause() != null)) {
+					exception = exception.getCause();
+				}
+				settle(value, exception);
+			}
+		};
+	}
+
+	/**
+	 * Invokes done() and notifies the listeners, exactly once.
+	 */
+	private void finish() {
+		if (!finished.compareAndSet(false, true)) {
+			return;
+		}
+		synchronized (partialResults) {
+			if (partialResultPublisher != null) {
+				close(partialResultPublisher);
+			}
+		}
+		Runnable notification = new Runnable() {
+			public void run() {
+				notifyFinished();
+			}
+		};
+		if (dispatchOnEventThread && !SwingUtilities.isEventDispatchThread()) {
+			SwingUtilities.invokeLater(notification);
+		} else {
+			notification.run();
+		}
+	}
+
+	/**
+	 * Invokes done() and notifies the future listeners that this future is
+	 * ready. This method is called exactly once, on the event dispatch thread
+	 * if <code>isDispatchOnEventThread()</code>. Subclasses may extend it, but
+	 * should call this implementation.
+	 */
+	protected void notifyFinished() {
+		// invoke the setLabel() on getLabel() after finishing execution.
+		// this is necessary to fire name-changed events to any
+		// listeners registered after the last call to setLabel();
+		setLabel(getLabel());
+
+		done();
+		getFutureListeners().fireFutureReady(this);
 	}
 
 	/**
@@ -208,4 +469,160 @@ public abstract class ProMFuture<T> implements Future<T> {
 		return futureListeners;
 	}
 
+	/**
+	 * Returns a ListenerList containing the registered partial result
+	 * listeners
+	 * 
+	 * @return
+	 */
+	public PartialResultListener.ListenerList getPartialResultListeners() {
+		return partialResultListeners;
+	}
+
+	/**
+	 * Publishes a partial result, i.e. either a snapshot of the result as far
+	 * as it is computed, or a delta that extends the partial results published
+	 * before. The listeners are notified on the event dispatch thread if this
+	 * future dispatches its notifications there, and on the calling thread
+	 * otherwise. If the listeners fall behind, snapshots that are superseded
+	 * by a later snapshot are skipped, whereas all deltas are delivered in
+	 * order. Subscribers of the partial result publisher receive all partial
+	 * results, and this method blocks while one of them has no room for more.
+	 * Partial results published after this future is done are ignored.
+	 * 
+	 * @param partialResult
+	 * @param delta
+	 */
+	public void publishPartialResult(Object partialResult, boolean delta) {
+		if (isDone()) {
+			return;
+		}
+		if (!delta) {
+			latestPartialResult = partialResult;
+		}
+		PartialResult published = new PartialResult(partialResult, delta);
+		SubmissionPublisher<PartialResult> publisher;
+		synchronized (partialResults) {
+			publisher = partialResultPublisher;
+		}
+		if (publisher != null) {
+			try {
+				// Blocks while a subscriber has no room for more partial results
+				publisher.submit(published);
+			} catch (IllegalStateException e) {
+				// Closed, as this future is done in the meantime
+				return;
+			}
+		}
+		partialResults.add(published);
+		if (!publishing.compareAndSet(false, true)) {
+			// The notification in progress picks up this partial result
+			return;
+		}
+		Runnable notification = new Runnable() {
+			public void run() {
+				do {
+					List<PartialResult> batch = new ArrayList<PartialResult>();
+					PartialResult partial;
+					while ((partial = partialResults.poll()) != null) {
+						batch.add(partial);
+					}
+					int lastSnapshot = -1;
+					for (int i = 0; i < batch.size(); i++) {
+						if (!batch.get(i).delta) {
+							lastSnapshot = i;
+						}
+					}
+					for (int i = 0; i < batch.size(); i++) {
+						if (batch.get(i).delta || (i == lastSnapshot)) {
+							partialResultListeners.firePartialResultPublished(ProMFuture.this, batch.get(i).value,
+									batch.get(i).delta);
+						}
+					}
+					publishing.set(false);
+				} while (!partialResults.isEmpty() && publishing.compareAndSet(false, true));
+			}
+		};
+		if (dispatchOnEventThread && !SwingUtilities.isEventDispatchThread()) {
+			SwingUtilities.invokeLater(notification);
+		} else {
+			notification.run();
+		}
+	}
+
+	/**
+	 * Returns the last snapshot published as partial result, or null if no
+	 * snapshot was published.
+	 * 
+	 * @return
+	 */
+	public Object getLatestPartialResult() {
+		return latestPartialResult;
+	}
+
+	/**
+	 * Returns a publisher of the partial results published hereafter. Unlike
+	 * the partial result listeners, its subscribers receive all partial
+	 * results, asynchronously and in order. A subscriber that does not request
+	 * more partial results blocks the computation when it publishes its next
+	 * partial result once the buffer of the subscriber is full, such that the
+	 * computation cannot outrun its subscribers. The publisher completes once
+	 * this future is done, exceptionally if it failed or was cancelled.
+	 * 
+	 * @return
+	 */
+	public Flow.Publisher<PartialResult> getPartialResultPublisher() {
+		synchronized (partialResults) {
+			if (partialResultPublisher == null) {
+				partialResultPublisher = new SubmissionPublisher<PartialResult>();
+				if (finished.get()) {
+					close(partialResultPublisher);
+				}
+			}
+			return partialResultPublisher;
+		}
+	}
+
+	private void close(SubmissionPublisher<PartialResult> publisher) {
+		if (result.isCancelled()) {
+			publisher.closeExceptionally(new CancellationException());
+		} else if (result.isCompletedExceptionally()) {
+			try {
+				result.join();
+			} catch (CompletionException e) {
+				publisher.closeExceptionally(e.getCause() == null ? e : e.getCause());
+			}
+		} else {
+			publisher.close();
+		}
+	}
+
+	/**
+	 * A future which is completed by the completable future it is built from,
+	 * rather than by executing its runnable. Executing the runnable has no
+	 * effect, as the future counts as started from the beginning.
+	 */
+	private static final class DependentFuture<U> extends ProMFuture<U> {
+
+		private final CompletableFuture<U> source;
+
+		private DependentFuture(Class<? extends U> resultClass, String label, CompletableFuture<U> source) {
+			super(resultClass, label);
+			this.source = source;
+			((ProMFuture<U>) this).started.set(true);
+			source.whenComplete(((ProMFuture<U>) this).settler());
+		}
+
+		protected U doInBackground() throws Exception {
+			try {
+				return source.get();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof Exception) {
+					throw (Exception) e.getCause();
+				}
+				throw e;
+			}
+		}
+	}
+
 }
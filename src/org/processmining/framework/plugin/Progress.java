@@ -33,4 +33,45 @@ public interface Progress {
 	boolean isCancelled();
 
 	void cancel();
+
+	/**
+	 * Returns whether the plugin is asked to suspend its work. Progresses that
+	 * do not support suspension are never suspended.
+	 * 
+	 * @return
+	 */
+	default boolean isSuspended() {
+		return false;
+	}
+
+	/**
+	 * Asks the plugin to suspend its work, as well as the plugins in all child
+	 * contexts. The plugin suspends at its next call to
+	 * <code>awaitResumed()</code>.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             if this progress does not support suspension.
+	 */
+	default void suspend() {
+		throw new UnsupportedOperationException("Suspension is not supported by " + getClass().getName());
+	}
+
+	/**
+	 * Resumes the plugin, as well as the plugins in all child contexts.
+	 * Progresses that do not support suspension have nothing to resume.
+	 */
+	default void resume() {
+	}
+
+	/**
+	 * The point at which a plugin suspends. If the plugin is suspended, this
+	 * blocks until the plugin is resumed or cancelled. Long-running plugins
+	 * should call this where they would check <code>isCancelled()</code>.
+	 * 
+	 * @return whether the plugin is cancelled.
+	 * @throws InterruptedException
+	 */
+	default boolean awaitResumed() throws InterruptedException {
+		return isCancelled();
+	}
 }
@@ -0,0 +1,189 @@
+package org.processmining.framework.plugin;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The CPU time and heap allocation spent on behalf of a plugin context, as
+ * measured on the threads doing the work. Work done by plugins invoked in
+ * child contexts is added to the usage of the parent context once these
+ * plugins are done, such that the usage of a context covers everything done on
+ * its behalf.
+ * 
+ * Work is measured between <code>begin()</code> and <code>end()</code> on the
+ * same thread. Measurements on one thread may be nested, in which case the
+ * inner measurement is not counted by the outer one.
+ * 
+ * If the Java runtime cannot measure CPU time or allocation per thread, the
+ * corresponding values remain 0.
+ */
+public class ResourceUsage {
+
+	private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	private static final boolean cpuTimeSupported;
+	private static final com.sun.management.ThreadMXBean allocations;
+
+	static {
+		boolean cpu = false;
+		try {
+			if (threads.isThreadCpuTimeSupported()) {
+				if (!threads.isThreadCpuTimeEnabled()) {
+					threads.setThreadCpuTimeEnabled(true);
+				}
+				cpu = true;
+			}
+		} catch (UnsupportedOperationException e) {
+			// Not measured
+		} catch (SecurityException e) {
+			// Not measured
+		}
+		cpuTimeSupported = cpu;
+
+		com.sun.management.ThreadMXBean bean = null;
+		try {
+			if ((threads instanceof com.sun.management.ThreadMXBean)
+					&& ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+				bean = (com.sun.management.ThreadMXBean) threads;
+				if (!bean.isThreadAllocatedMemoryEnabled()) {
+					bean.setThreadAllocatedMemoryEnabled(true);
+				}
+			}
+		} catch (UnsupportedOperationException e) {
+			bean = null;
+		} catch (SecurityException e) {
+			bean = null;
+		}
+		allocations = bean;
+	}
+
+	private static final ThreadLocal<Measurement> current = new ThreadLocal<Measurement>();
+
+	private static class Measurement {
+		private final ResourceUsage usage;
+		private final Measurement outer;
+		private final long cpuTime = getThreadCpuTime();
+		private final long allocatedBytes = getThreadAllocatedBytes();
+		private long innerCpuTime = 0;
+		private long innerAllocatedBytes = 0;
+
+		private Measurement(ResourceUsage usage, Measurement outer) {
+			this.usage = usage;
+			this.outer = outer;
+		}
+	}
+
+	private final LongAdder ownCpuTime = new LongAdder();
+	private final LongAdder ownAllocatedBytes = new LongAdder();
+	private final LongAdder childCpuTime = new LongAdder();
+	private final LongAdder childAllocatedBytes = new LongAdder();
+
+	/**
+	 * Returns whether CPU time can be measured per thread.
+	 * 
+	 * @return
+	 */
+	public static boolean isCpuTimeSupported() {
+		return cpuTimeSupported;
+	}
+
+	/**
+	 * Returns whether heap allocation can be measured per thread.
+	 * 
+	 * @return
+	 */
+	public static boolean isAllocationSupported() {
+		return allocations != null;
+	}
+
+	private static long getThreadCpuTime() {
+		return cpuTimeSupported ? threads.getCurrentThreadCpuTime() : 0;
+	}
+
+	private static long getThreadAllocatedBytes() {
+		return allocations == null ? 0 : allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Starts measuring the work done on the current thread on behalf of this
+	 * usage. Every call should be followed by a call to <code>end()</code> on
+	 * the same thread, in a finally block.
+	 */
+	public void begin() {
+		current.set(new Measurement(this, current.get()));
+	}
+
+	/**
+	 * Stops the measurement started by the last call to <code>begin()</code>
+	 * on the current thread, and adds the work done since to this usage.
+	 */
+	public void end() {
+		Measurement measurement = current.get();
+		assert (measurement != null) && (measurement.usage == this);
+		long cpuTime = getThreadCpuTime() - measurement.cpuTime;
+		long allocatedBytes = getThreadAllocatedBytes() - measurement.allocatedBytes;
+		ownCpuTime.add(cpuTime - measurement.innerCpuTime);
+		ownAllocatedBytes.add(allocatedBytes - measurement.innerAllocatedBytes);
+		if (measurement.outer == null) {
+			current.remove();
+		} else {
+			measurement.outer.innerCpuTime += cpuTime;
+			measurement.outer.innerAllocatedBytes += allocatedBytes;
+			current.set(measurement.outer);
+		}
+	}
+
+	/**
+	 * Adds the usage of a child context to this usage.
+	 * 
+	 * @param child
+	 */
+	public void add(ResourceUsage child) {
+		childCpuTime.add(child.getCpuTime());
+		childAllocatedBytes.add(child.getAllocatedBytes());
+	}
+
+	/**
+	 * Returns the CPU time in nanoseconds spent on behalf of the context,
+	 * including the plugins invoked in its child contexts.
+	 * 
+	 * @return
+	 */
+	public long getCpuTime() {
+		return ownCpuTime.sum() + childCpuTime.sum();
+	}
+
+	/**
+	 * Returns the number of bytes allocated on behalf of the context,
+	 * including the plugins invoked in its child contexts.
+	 * 
+	 * @return
+	 */
+	public long getAllocatedBytes() {
+		return ownAllocatedBytes.sum() + childAllocatedBytes.sum();
+	}
+
+	/**
+	 * Returns the CPU time in nanoseconds spent by the plugin in the context
+	 * itself, excluding the plugins invoked in its child contexts.
+	 * 
+	 * @return
+	 */
+	public long getOwnCpuTime() {
+		return ownCpuTime.sum();
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the plugin in the context
+	 * itself, excluding the plugins invoked in its child contexts.
+	 * 
+	 * @return
+	 */
+	public long getOwnAllocatedBytes() {
+		return ownAllocatedBytes.sum();
+	}
+
+	public String toString() {
+		return (getCpuTime() / 1000000) + " ms CPU, " + (getAllocatedBytes() / 1024) + " KB allocated";
+	}
+}
@@ -0,0 +1,29 @@
+package org.processmining.framework.plugin;
+
+import java.util.List;
+
+/**
+ * Merges the results of a plugin method on the parts of a partitioned input
+ * into the result on the whole input (see the Partitioned annotation).
+ * 
+ * For a method with multiple results, the merger receives the raw Object[]
+ * returned by the method on each part, holding the results in the order of
+ * the returnTypes of the plugin, and it should return such an array for the
+ * whole input. All results are merged at once, such that a merger can combine
+ * results that depend on each other.
+ * 
+ * @param <R>
+ *            the return type of the plugin method, i.e. Object[] for methods
+ *            with multiple results.
+ */
+public interface ResultMerger<R> {
+
+	/**
+	 * Merges the given results, which are in the order of the parts.
+	 * 
+	 * @param results
+	 * @return
+	 */
+	R merge(List<R> results);
+
+}
@@ -9,4 +9,14 @@ import java.lang.annotation.Target;
 @Target(ElementType.METHOD)
 public @interface CLI {
 	String functionName();
+
+	/**
+	 * The extensions (without dot) of the files this plugin method writes, if
+	 * it is an exporter. An exporter takes the object to export and the File to
+	 * write it to, in that order, and returns nothing. BatchRunner uses
+	 * exporters to execute <code>write()</code> statements.
+	 * 
+	 * @return Defaults to no extensions, i.e. the method is not an exporter.
+	 */
+	String[] exportExtensions() default {};
 }
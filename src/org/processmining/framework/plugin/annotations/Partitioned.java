@@ -0,0 +1,62 @@
+package org.processmining.framework.plugin.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.processmining.framework.plugin.InputPartitioner;
+import org.processmining.framework.plugin.ResultMerger;
+
+/**
+ * Declares that a plugin method can be executed on parts of one of its
+ * inputs, after which the results on the parts are merged into the result on
+ * the whole input. The framework then splits the input, executes the method
+ * on the parts in parallel on the executor of the context, and merges the
+ * results. Each part is executed in its own child context, and the progress
+ * of the context counts the parts that are done.
+ * 
+ * As the method is executed in child contexts, it should not use the results
+ * or the plugin descriptor of its context.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Partitioned {
+
+	/**
+	 * The index of the input to split, among the parameters of the method,
+	 * not counting the context.
+	 * 
+	 * @return
+	 */
+	int parameter();
+
+	/**
+	 * The class that splits the input. The class should have a public
+	 * constructor without arguments. The default splits collections and
+	 * arrays.
+	 * 
+	 * @return
+	 */
+	@SuppressWarnings("rawtypes")
+	Class<? extends InputPartitioner> partitioner() default InputPartitioner.Default.class;
+
+	/**
+	 * The class that merges the results on the parts, i.e. the return values
+	 * of the method, which are Object[] arrays for a method with multiple
+	 * results. The class should have a public constructor without arguments.
+	 * 
+	 * @return
+	 */
+	@SuppressWarnings("rawtypes")
+	Class<? extends ResultMerger> merger();
+
+	/**
+	 * The maximal number of parts. The default, 0, uses one part per
+	 * available processor.
+	 * 
+	 * @return
+	 */
+	int partitions() default 0;
+
+}
@@ -122,4 +122,47 @@ public @interface Plugin {
 	
 	String icon() default "";
 	String url() default "";
+
+	/**
+	 * The kind of work this plugin predominantly performs. This is used by the
+	 * framework to select the executor the plugin is run on.
+	 * 
+	 * @return Defaults to PluginWorkload.Default, i.e. the plugin is run on the
+	 *         executor of the context it is invoked from.
+	 */
+	PluginWorkload workload() default PluginWorkload.Default;
+
+	/**
+	 * Indication whether this plugin is deterministic, i.e. whether it always
+	 * produces the same results when invoked on the same inputs, without side
+	 * effects. The results of deterministic plugins are cached by the
+	 * framework, and reused when the plugin is invoked again on identical
+	 * (not merely equal) inputs. Hence, a deterministic plugin should neither
+	 * change its inputs, nor expect its results to be fresh objects. An
+	 * invocation that reuses results also reuses the provided objects created
+	 * for them, and thereby the connections between these objects.
+	 * 
+	 * @return Defaults to false.
+	 */
+	boolean deterministic() default false;
+
+	/**
+	 * The amount of heap memory (in megabytes) this plugin is expected to need
+	 * on top of its inputs. The plugin is only started if that much memory is
+	 * available, on top of the free heap kept by the admission control.
+	 * 
+	 * @return Defaults to 0, i.e. no memory needs are known.
+	 */
+	int memoryHint() default 0;
+
+	/**
+	 * Indication whether this plugin may be executed speculatively, i.e. at
+	 * the same time as other plugins that can construct the same object, after
+	 * which all but the first to succeed are cancelled (see
+	 * Boot.SPECULATIVE_CONSTRUCTIONS). Plugins with side effects should set
+	 * this to false, such that they are only tried on their own.
+	 * 
+	 * @return Defaults to true.
+	 */
+	boolean speculative() default true;
 }
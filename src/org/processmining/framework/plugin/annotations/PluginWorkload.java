@@ -0,0 +1,37 @@
+package org.processmining.framework.plugin.annotations;
+
+/**
+ * The kind of work a plugin predominantly performs. The framework uses this to
+ * select the executor a plugin is run on, such that bursts of I/O-bound
+ * plugins (like importers) do not starve CPU-bound plugins (like miners), and
+ * vice versa.
+ */
+public enum PluginWorkload {
+	/**
+	 * No workload declared. The plugin is run on the executor of the context
+	 * it is invoked from.
+	 */
+	Default( //
+			"Default"), //
+	/**
+	 * The plugin mostly waits for I/O, for example when reading files or
+	 * accessing the network.
+	 */
+	IO( //
+			"I/O"), //
+	/**
+	 * The plugin mostly computes.
+	 */
+	CPU( //
+			"CPU");
+
+	private final String name;
+
+	private PluginWorkload(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+}
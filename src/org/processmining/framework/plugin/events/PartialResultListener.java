@@ -0,0 +1,34 @@
+package org.processmining.framework.plugin.events;
+
+import java.util.EventListener;
+
+import org.processmining.framework.plugin.ProMFuture;
+
+/**
+ * Listener for the partial results a plugin publishes for one of its results
+ * while it is still computing.
+ */
+public interface PartialResultListener extends EventListener {
+
+	public class ListenerList extends ProMEventListenerList<PartialResultListener> {
+		public void firePartialResultPublished(ProMFuture<? extends Object> future, Object partialResult,
+				boolean delta) {
+			for (PartialResultListener listener : getListeners()) {
+				listener.partialResultPublished(future, partialResult, delta);
+			}
+		}
+	}
+
+	/**
+	 * Called when the computation of the given future publishes a partial
+	 * result.
+	 * 
+	 * @param future
+	 * @param partialResult
+	 * @param delta
+	 *            if true, the partial result extends the ones published
+	 *            before. Otherwise, it is a snapshot, which replaces them.
+	 */
+	public void partialResultPublished(ProMFuture<? extends Object> future, Object partialResult, boolean delta);
+
+}
@@ -24,20 +24,24 @@ public interface PluginLifeCycleEventListener extends EventListener {
 	public void pluginStarted(PluginContext context);
 
 	/**
-	 * This method is invoked on a context, if it is suspended
+	 * This method is invoked on a context, if it is suspended. Listeners that
+	 * are not interested in suspension need not implement it.
 	 * 
 	 * @param context
 	 *            the context
 	 */
-	public void pluginSuspended(PluginContext context);
+	public default void pluginSuspended(PluginContext context) {
+	}
 
 	/**
-	 * This method is invoked on a context, if it is resumed
+	 * This method is invoked on a context, if it is resumed. Listeners that are
+	 * not interested in suspension need not implement it.
 	 * 
 	 * @param context
 	 *            the context
 	 */
-	public void pluginResumed(PluginContext context);
+	public default void pluginResumed(PluginContext context) {
+	}
 
 	/**
 	 * This method is invoked on a context, if it is completed
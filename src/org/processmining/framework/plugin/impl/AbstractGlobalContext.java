@@ -1,14 +1,26 @@
 package org.processmining.framework.plugin.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
 import org.processmining.framework.connections.ConnectionManager;
 import org.processmining.framework.connections.impl.ConnectionManagerImpl;
 import org.processmining.framework.plugin.GlobalContext;
+import org.processmining.framework.plugin.PluginBatch;
 import org.processmining.framework.plugin.PluginContext;
 import org.processmining.framework.plugin.PluginContextID;
 import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginExecutionResult;
 import org.processmining.framework.plugin.PluginManager;
 import org.processmining.framework.plugin.PluginParameterBinding;
+import org.processmining.framework.plugin.PluginPipeline;
+import org.processmining.framework.plugin.ProMFuture;
 import org.processmining.framework.plugin.events.Logger;
+import org.processmining.framework.providedobjects.ProvidedObjectID;
 import org.processmining.framework.providedobjects.ProvidedObjectManager;
 import org.processmining.framework.providedobjects.impl.ProvidedObjectManagerImpl;
 
@@ -86,6 +98,100 @@ public abstract class AbstractGlobalContext implements GlobalContext {
 
 	}
 
+	public List<ProvidedObjectID> invokePipeline(final PluginPipeline pipeline) throws IllegalArgumentException {
+		int[] order = pipeline.validate();
+
+		// For each node, count the number of inputs connected to it that still
+		// need its results.
+		final AtomicInteger[] consumers = new AtomicInteger[pipeline.getNodeCount()];
+		final boolean[] isOutput = new boolean[pipeline.getNodeCount()];
+		for (int node = 0; node < pipeline.getNodeCount(); node++) {
+			consumers[node] = new AtomicInteger(0);
+		}
+		for (int node = 0; node < pipeline.getNodeCount(); node++) {
+			for (int i = 0; i < pipeline.getBinding(node).getBinding().length; i++) {
+				PluginPipeline.Source source = pipeline.getSource(node, i);
+				if (source != null) {
+					consumers[source.getNode()].incrementAndGet();
+				}
+			}
+		}
+		for (PluginPipeline.Source output : pipeline.getOutputs()) {
+			isOutput[output.getNode()] = true;
+		}
+
+		final PluginExecutionResult[] results = new PluginExecutionResult[pipeline.getNodeCount()];
+		ProvidedObjectID[] ids = new ProvidedObjectID[pipeline.getOutputs().size()];
+		for (final int node : order) {
+			PluginParameterBinding binding = pipeline.getBinding(node);
+			Object[] objects = new Object[binding.getBinding().length];
+			final List<PluginPipeline.Source> sources = new ArrayList<PluginPipeline.Source>();
+			boolean consumesIntermediate = false;
+			for (int i = 0; i < objects.length; i++) {
+				PluginPipeline.Source source = pipeline.getSource(node, i);
+				if (source == null) {
+					objects[i] = pipeline.getInput(node, i);
+				} else {
+					// Either the future on the result, or the result itself
+					objects[i] = results[source.getNode()].getResult(source.getResultIndex());
+					sources.add(source);
+					consumesIntermediate |= !isOutput[source.getNode()];
+				}
+			}
+
+			PluginContext c2 = getMainPluginContext().createChildContext(binding.getPlugin().getName());
+			try {
+				getMainPluginContext().getPluginLifeCycleEventListeners().firePluginCreated(c2);
+				results[node] = binding.invoke(c2, objects);
+				for (int o = 0; o < ids.length; o++) {
+					PluginPipeline.Source output = pipeline.getOutputs().get(o);
+					if (output.getNode() == node) {
+						// A result is provided once, even if it is added as output
+						// more than once, or reused from an earlier execution
+						int index = output.getResultIndex();
+						ids[o] = results[node].getProvidedObjectID(index);
+						if (ids[o] == null) {
+							ids[o] = getProvidedObjectManager().createProvidedObject(
+									results[node].getResultName(index), results[node].getResult(index),
+									results[node].getType(index), c2);
+							results[node].setProvidedObjectID(index, ids[o]);
+						}
+					}
+				}
+			} finally {
+				c2.getParentContext().deleteChild(c2);
+			}
+
+			final PluginExecutionResult result = results[node];
+			final boolean forgetInput = consumesIntermediate;
+			final BiConsumer<Object, Throwable> release = new BiConsumer<Object, Throwable>() {
+				public void accept(Object object, Throwable exception) {
+					if (forgetInput && (result instanceof PluginExecutionResultImpl)) {
+						// Intermediate results are not recorded as input
+						((PluginExecutionResultImpl) result).setInput(null);
+					}
+					for (PluginPipeline.Source source : sources) {
+						if ((consumers[source.getNode()].decrementAndGet() == 0) && !isOutput[source.getNode()]) {
+							results[source.getNode()] = null;
+						}
+					}
+					pipeline.setDone(node, exception);
+				}
+			};
+			Object main = result.getResult(0);
+			if (main instanceof ProMFuture<?>) {
+				((ProMFuture<?>) main).toCompletionStage().whenComplete(release);
+			} else {
+				release.accept(main, null);
+			}
+		}
+		return Arrays.asList(ids);
+	}
+
+	public PluginBatch invokeBatch(PluginParameterBinding binding, int parallelism, Collection<Object[]> arguments) {
+		return PluginBatchImpl.invoke(getMainPluginContext(), binding, parallelism, arguments);
+	}
+
 	protected abstract PluginContext getMainPluginContext();
 
 	public abstract Class<? extends PluginContext> getPluginContextType();
@@ -8,27 +8,41 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
-
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+import org.processmining.framework.boot.Boot;
 import org.processmining.framework.connections.Connection;
 import org.processmining.framework.connections.ConnectionCannotBeObtained;
 import org.processmining.framework.connections.ConnectionManager;
 import org.processmining.framework.plugin.GlobalContext;
+import org.processmining.framework.plugin.PluginBatch;
 import org.processmining.framework.plugin.PluginContext;
 import org.processmining.framework.plugin.PluginContextID;
 import org.processmining.framework.plugin.PluginDescriptor;
 import org.processmining.framework.plugin.PluginExecutionResult;
 import org.processmining.framework.plugin.PluginManager;
 import org.processmining.framework.plugin.PluginParameterBinding;
+import org.processmining.framework.plugin.PluginPipeline;
+import org.processmining.framework.plugin.PluginPriority;
 import org.processmining.framework.plugin.ProMFuture;
 import org.processmining.framework.plugin.Progress;
 import org.processmining.framework.plugin.RecursiveCallException;
+import org.processmining.framework.plugin.ResourceUsage;
 import org.processmining.framework.plugin.annotations.Plugin;
 import org.processmining.framework.plugin.events.Logger;
 import org.processmining.framework.plugin.events.Logger.MessageLevel;
 import org.processmining.framework.plugin.events.PluginLifeCycleEventListener;
 import org.processmining.framework.plugin.events.ProgressEventListener;
+import org.processmining.framework.providedobjects.ProvidedObjectID;
 import org.processmining.framework.providedobjects.ProvidedObjectManager;
 import org.processmining.framework.util.Cast;
 import org.processmining.framework.util.Pair;
@@ -44,11 +58,15 @@ public abstract class AbstractPluginContext implements PluginContext {
 
 	protected Progress progress;
 	private PluginDescriptor descriptor;
-	private final java.util.List<PluginContext> childContexts = new ArrayList<PluginContext>(0);
+	private final java.util.List<PluginContext> childContexts = Collections
+			.synchronizedList(new ArrayList<PluginContext>(0));
 	private PluginExecutionResult futures = null;
 	private final PluginContextID id;
 	private String label = "";
 	private int methodIndex = -1;
+	private volatile PluginPriority priority;
+	private final PluginTaskScope tasks = new PluginTaskScope(this);
+	private final ResourceUsage resourceUsage = new ResourceUsage();
 
 	/**
 	 * Create a new root plugin instance context.
@@ -62,6 +80,7 @@ public abstract class AbstractPluginContext implements PluginContext {
 		id = context.createNewPluginContextID();
 		this.label = label;
 		parentPluginContext = null;
+		priority = PluginPriority.NORMAL;
 		progress = new ProgressBarImpl(this);
 	}
 
@@ -71,6 +90,7 @@ public abstract class AbstractPluginContext implements PluginContext {
 		id = this.context.createNewPluginContextID();
 		this.label = label;
 		parentPluginContext = context;
+		priority = context.getPriority();
 		progress = new ProgressBarImpl(this);
 	}
 
@@ -94,6 +114,10 @@ public abstract class AbstractPluginContext implements PluginContext {
 		return progress;
 	}
 
+	public ResourceUsage getResourceUsage() {
+		return resourceUsage;
+	}
+
 	public PluginContextID getID() {
 		return id;
 	}
@@ -106,6 +130,14 @@ public abstract class AbstractPluginContext implements PluginContext {
 		return label;
 	}
 
+	public PluginPriority getPriority() {
+		return priority;
+	}
+
+	public void setPriority(PluginPriority priority) {
+		this.priority = priority;
+	}
+
 	public boolean hasPluginDescriptorInPath(PluginDescriptor plugin, int methodIndex) {
 		return ((methodIndex == this.methodIndex) && (plugin == descriptor))
 				|| (getParentContext() == null ? false : getParentContext().hasPluginDescriptorInPath(plugin,
@@ -127,8 +159,11 @@ public abstract class AbstractPluginContext implements PluginContext {
 	}
 
 	public PluginContext createChildContext(String label) {
+		long start = PluginTracer.start();
 		PluginContext context = createTypedChildContext(label);
 		childContexts.add(context);
+		PluginTracer.beginContext(context);
+		PluginTracer.complete("create context", context, start);
 		return context;
 	}
 
@@ -167,9 +202,42 @@ public abstract class AbstractPluginContext implements PluginContext {
 		return futures.<ProMFuture<?>>getResult(i);
 	}
 
+	public void publishPartialResult(int i, Object partialResult, boolean delta) {
+		if ((futures != null) && (futures.getResult(i) instanceof ProMFuture<?>)) {
+			futures.<ProMFuture<?>>getResult(i).publishPartialResult(partialResult, delta);
+		}
+	}
+
 	public void setFuture(PluginExecutionResult futureToBe) {
 		assert (futures == null);
 		futures = futureToBe;
+		// Cancelling a future cancels the progress of this context and, through
+		// it, all child contexts. Vice versa, the futures of a context which was
+		// cancelled before are cancelled right away.
+		for (int i = 0; i < futureToBe.getSize(); i++) {
+			Object o = futureToBe.getResult(i);
+			if (o instanceof ProMFuture<?>) {
+				final ProMFuture<?> future = (ProMFuture<?>) o;
+				final boolean main = (i == 0);
+				if ((getProgress() != null) && getProgress().isCancelled()) {
+					future.cancel(true);
+				}
+				future.toCompletionStage().whenComplete(new BiConsumer<Object, Throwable>() {
+					public void accept(Object result, Throwable exception) {
+						if (future.isCancelled() && (getProgress() != null)) {
+							getProgress().cancel();
+						}
+						if (getProgress() instanceof ProgressBarImpl) {
+							// Make sure the final progress is published
+							((ProgressBarImpl) getProgress()).flush();
+						}
+						if (main) {
+							PluginTracer.endContext(AbstractPluginContext.this);
+						}
+					}
+				});
+			}
+		}
 	}
 
 	public boolean equals(Object o) {
@@ -281,6 +349,19 @@ public abstract class AbstractPluginContext implements PluginContext {
 		context.invokeBinding(binding, objects);
 	}
 
+	public java.util.List<ProvidedObjectID> invokePipeline(PluginPipeline pipeline) throws IllegalArgumentException {
+		return context.invokePipeline(pipeline);
+	}
+
+	/**
+	 * Invokes the batch in a child of this context, such that cancelling or
+	 * suspending this context reaches the batch, and the progress of the batch
+	 * is shown below this context.
+	 */
+	public PluginBatch invokeBatch(PluginParameterBinding binding, int parallelism, Collection<Object[]> arguments) {
+		return PluginBatchImpl.invoke(this, binding, parallelism, arguments);
+	}
+
 	public Logger.ListenerList getLoggingListeners() {
 		return loggers;
 	}
@@ -293,9 +374,26 @@ public abstract class AbstractPluginContext implements PluginContext {
 		}
 	}
 
+	public void parallelFor(int from, int to, IntConsumer body) throws InterruptedException, ExecutionException,
+			CancellationException {
+		tasks.parallelFor(from, to, body);
+	}
+
+	public <T, R> R mapReduce(Collection<? extends T> items, Function<? super T, ? extends R> mapper, R identity,
+			BinaryOperator<R> reducer) throws InterruptedException, ExecutionException, CancellationException {
+		return tasks.mapReduce(items, mapper, identity, reducer);
+	}
+
+	public <T> Future<T> fork(Callable<T> task) {
+		return tasks.fork(task);
+	}
+
+	public void joinSubtasks() throws InterruptedException {
+		tasks.join();
+	}
+
 	public boolean deleteChild(PluginContext child) {
-		if (childContexts.contains(child)) {
-			childContexts.remove(child);
+		if (childContexts.remove(child)) {
 			for (PluginContext context : new ArrayList<PluginContext>(child.getChildContexts())) {
 				child.deleteChild(context);
 			}
@@ -412,34 +510,33 @@ public abstract class AbstractPluginContext implements PluginContext {
 		plugins.addAll(set);
 
 		Collection<T> result = new ArrayList<T>(stopAtFirst ? 1 : plugins.size());
+		// Equivalent plugins are tried in the order of their expected cost
+		java.util.List<Pair<Integer, PluginParameterBinding>> candidates = PluginCostSelector.rank(plugins);
 
 		// get the first available plugin
 		ExecutionException ex = null;
-		for (Pair<Integer, PluginParameterBinding> pair : plugins) {
-			PluginParameterBinding binding = pair.getSecond();
-			// create a context to execute this plugin in
-			PluginContext child = createChildContext("Computing: " + type.toString());
-			getPluginLifeCycleEventListeners().firePluginCreated(child);
-
-			// Invoke the binding
-			PluginExecutionResult pluginResult = binding.invoke(child, input);
-
-			// synchronize on the required result and continue
+		int next = 0;
+		while ((next < candidates.size()) && !(stopAtFirst && !result.isEmpty())) {
+			// If only the first object is needed, up to SPECULATIVE_CONSTRUCTIONS
+			// consecutive candidates that allow speculation are tried at once.
+			int end = next + 1;
+			if (stopAtFirst && candidates.get(next).getSecond().getPlugin().isSpeculative()) {
+				while ((end < candidates.size()) && (end - next < Boot.SPECULATIVE_CONSTRUCTIONS)
+						&& candidates.get(end).getSecond().getPlugin().isSpeculative()) {
+					end++;
+				}
+			}
 			try {
-				pluginResult.synchronize();
-
-				// get all results and pass them to the framework as provided objects
-				getProvidedObjectManager().createProvidedObjects(child);
-				result.add(pluginResult.<T>getResult(pair.getFirst()));
-				if (stopAtFirst) {
-					break;
+				if (end - next == 1) {
+					result.add(constructObject(type, candidates.get(next), input));
+				} else {
+					result.add(constructFirstObject(type, candidates.subList(next, end), input));
 				}
 			} catch (ExecutionException e) {
-				// Try next plugin if stop at first, otherwise rethrow
+				// Try next plugin
 				ex = e;
-			} finally {
-				child.getParentContext().deleteChild(child);
 			}
+			next = end;
 		}
 		if (result.isEmpty()) {
 			assert (ex != null);
@@ -448,6 +545,88 @@ public abstract class AbstractPluginContext implements PluginContext {
 		return result;
 	}
 
+	private <T> T constructObject(Class<T> type, Pair<Integer, PluginParameterBinding> pair, Object... input)
+			throws CancellationException, InterruptedException, ExecutionException {
+		PluginParameterBinding binding = pair.getSecond();
+		// create a context to execute this plugin in
+		PluginContext child = createChildContext("Computing: " + type.toString());
+		getPluginLifeCycleEventListeners().firePluginCreated(child);
+
+		try {
+			// Invoke the binding
+			PluginExecutionResult pluginResult = binding.invoke(child, input);
+
+			// synchronize on the required result and continue
+			pluginResult.synchronize();
+
+			// get all results and pass them to the framework as provided objects
+			getProvidedObjectManager().createProvidedObjects(child);
+			return pluginResult.<T>getResult(pair.getFirst());
+		} finally {
+			child.getParentContext().deleteChild(child);
+		}
+	}
+
+	/**
+	 * Invokes all given candidates at once, each in its own child context, and
+	 * returns the result of the first one that succeeds. The other candidates
+	 * are cancelled. If all candidates fail, the exception of the last one to
+	 * fail is thrown.
+	 */
+	private <T> T constructFirstObject(Class<T> type,
+			java.util.List<Pair<Integer, PluginParameterBinding>> candidates, Object... input)
+			throws CancellationException, InterruptedException, ExecutionException {
+		final BlockingQueue<Integer> completed = new LinkedBlockingQueue<Integer>();
+		PluginContext[] children = new PluginContext[candidates.size()];
+		PluginExecutionResult[] results = new PluginExecutionResult[candidates.size()];
+		int winner = -1;
+		try {
+			for (int i = 0; i < candidates.size(); i++) {
+				children[i] = createChildContext("Computing: " + type.toString());
+				getPluginLifeCycleEventListeners().firePluginCreated(children[i]);
+				results[i] = candidates.get(i).getSecond().invoke(children[i], input);
+
+				final Integer index = i;
+				Object main = results[i].getResult(0);
+				if (main instanceof ProMFuture<?>) {
+					((ProMFuture<?>) main).toCompletionStage().whenComplete(new BiConsumer<Object, Throwable>() {
+						public void accept(Object object, Throwable exception) {
+							completed.add(index);
+						}
+					});
+				} else {
+					completed.add(index);
+				}
+			}
+
+			ExecutionException ex = null;
+			for (int i = 0; i < candidates.size(); i++) {
+				int index = completed.take();
+				try {
+					results[index].synchronize();
+				} catch (ExecutionException e) {
+					// Wait for the next candidate
+					ex = e;
+					continue;
+				}
+				winner = index;
+				// get all results and pass them to the framework as provided objects
+				getProvidedObjectManager().createProvidedObjects(children[index]);
+				return results[index].<T>getResult(candidates.get(index).getFirst());
+			}
+			throw ex;
+		} finally {
+			for (int i = 0; i < children.length; i++) {
+				if (children[i] != null) {
+					if (i != winner) {
+						children[i].getProgress().cancel();
+					}
+					deleteChild(children[i]);
+				}
+			}
+		}
+	}
+
 	private <T, C extends Connection> Collection<T> findOrConstructAllObjects(boolean stopAtFirst, Class<T> type,
 			String name, Class<C> connectionType, String role, Object... input) throws ConnectionCannotBeObtained {
 
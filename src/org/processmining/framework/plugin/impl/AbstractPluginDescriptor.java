@@ -3,12 +3,15 @@ package org.processmining.framework.plugin.impl;
 import java.awt.GraphicsEnvironment;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import javax.swing.JOptionPane;
 
@@ -18,95 +21,199 @@ import org.processmining.framework.plugin.PluginDescriptor;
 import org.processmining.framework.plugin.PluginExecutionResult;
 import org.processmining.framework.plugin.ProMFuture;
 import org.processmining.framework.plugin.RecursiveCallException;
+import org.processmining.framework.plugin.ResourceUsage;
 import org.processmining.framework.plugin.events.Logger.MessageLevel;
+import org.processmining.framework.providedobjects.ProvidedObjectDeletedException;
+import org.processmining.framework.providedobjects.ProvidedObjectID;
 
 public abstract class AbstractPluginDescriptor implements PluginDescriptor {
 
-	@SuppressWarnings( { "unchecked" })
+	/**
+	 * Unwraps all futures in the given arguments and correctly types any array
+	 * arguments. As the plugin is only scheduled once all futures among its
+	 * arguments are done (see scheduleWhenReady()), the get() calls in this
+	 * method normally return immediately. Any exception of an input is
+	 * forwarded.
+	 */
 	private Object[] prepareAndWaitForArgs(PluginContext context, int methodIndex, List<Class<?>> parameterTypes,
 			Object... args) throws CancellationException, InterruptedException, ExecutionException, FieldSetException,
 			RecursiveCallException {
+		// A failed input is forwarded before waiting for any of the others
+		for (Object arg : args) {
+			if (arg instanceof Object[]) {
+				for (Object element : (Object[]) arg) {
+					forwardFailure(element);
+				}
+			} else {
+				forwardFailure(arg);
+			}
+		}
 		Object[] result = new Object[args.length + 1];
 		// copy the args to result
 		System.arraycopy(args, 0, result, 1, args.length);
-		boolean[] done = new boolean[result.length];
-		Arrays.fill(done, false);
-		boolean timeoutOccurred = false;
-		do {
-			timeoutOccurred = false;
-			for (int i = 1; i < result.length; i++) {
-				if (done[i]) {
-					continue;
-				}
-				if (result[i] == null) {
-					throw new IllegalArgumentException("Cannot pass <null> as a parameter to a plugin");
-				}
-				if ((result[i] instanceof ProMFuture)) {
-					// synchronize on this get() method
-					// any exception is forwarded.
-					try {
-						// try to get the result within 100 millisecond
-						result[i] = ((ProMFuture) result[i]).get(100L, TimeUnit.MILLISECONDS);
-						done[i] = true;
-					} catch (TimeoutException e) {
-						// A timeout exception occurred, no big deal,
-						// just wait longer
-						timeoutOccurred = true;
-					}
-				}
-				if (result[i] instanceof Object[]) {
-					// This array can contain a combination of rightly typed
-					// objects, or futures on
-					// rightly types objects, or futures on other arrays.
-					Object[] array = (Object[]) result[i];
-					boolean futureLeft = false;
-					for (int j = 0; j < array.length; j++) {
-						if (array[j] instanceof ProMFuture) {
-							try {
-								// try to get the result within 1 second
-								array[j] = ((ProMFuture) array[j]).get(100L, TimeUnit.MILLISECONDS);
-							} catch (TimeoutException e) {
-								// A timeout exception occurred, no big deal,
-								// just wait longer
-								timeoutOccurred = true;
-								futureLeft |= true;
-							}
-						}
-					}
-					if (!futureLeft) {
-						List<Object> list = new ArrayList<Object>();
-						for (int j = 0; j < array.length; j++) {
-							if (array[j].getClass().isArray()) {
-								for (int k = 0; k < ((Object[]) array[j]).length; k++) {
-									list.add(((Object[]) array[j])[k]);
-								}
-							} else {
-								list.add(array[j]);
-							}
-						}
-
-						result[i] = list.toArray((Object[]) Array.newInstance(parameterTypes.get(i - 1)
-								.getComponentType(), 0));
-						done[i] = true;
-					}
-
-				}
+		for (int i = 1; i < result.length; i++) {
+			if (result[i] == null) {
+				throw new IllegalArgumentException("Cannot pass <null> as a parameter to a plugin");
+			}
+			if (result[i] instanceof ProMFuture<?>) {
+				// any exception is forwarded.
+				result[i] = ((ProMFuture<?>) result[i]).get();
 			}
-			if (timeoutOccurred) {
-				// At least one of my input objects is not ready yet
-				// try again in 2 seconds.
-				Thread.sleep(2000);
+			if (result[i] instanceof Object[]) {
+				result[i] = prepareArrayArg((Object[]) result[i], parameterTypes.get(i - 1).getComponentType());
 			}
-		} while (timeoutOccurred);
+		}
 
 		context.setPluginDescriptor(this, methodIndex);
 		result[0] = context;
 
 		return result;
 	}
-	
 
-	public PluginExecutionResult invoke(final int methodIndex, final PluginContext context, final Object... args) {
+	/**
+	 * Unwraps the futures in the given array argument in place, and returns an
+	 * array of the given component type holding its elements, where arrays
+	 * among the elements are flattened. The array can contain a combination
+	 * of rightly typed objects, futures on rightly typed objects, and (futures
+	 * on) other arrays. If it is already rightly typed and flat, it is passed
+	 * on as is; otherwise, it is copied once into an array of the right size.
+	 */
+	private static Object[] prepareArrayArg(Object[] array, Class<?> componentType) throws CancellationException,
+			InterruptedException, ExecutionException {
+		int size = 0;
+		boolean flat = true;
+		for (int j = 0; j < array.length; j++) {
+			if (array[j] instanceof ProMFuture<?>) {
+				array[j] = ((ProMFuture<?>) array[j]).get();
+			}
+			if (array[j] == null) {
+				throw new IllegalArgumentException("Cannot pass <null> as a parameter to a plugin");
+			}
+			if (array[j] instanceof Object[]) {
+				size += ((Object[]) array[j]).length;
+				flat = false;
+			} else {
+				size++;
+			}
+		}
+		if (flat && (array.getClass().getComponentType() == componentType)) {
+			return array;
+		}
+
+		Object[] result = (Object[]) Array.newInstance(componentType, size);
+		int k = 0;
+		for (Object object : array) {
+			if (object instanceof Object[]) {
+				Object[] nested = (Object[]) object;
+				System.arraycopy(nested, 0, result, k, nested.length);
+				k += nested.length;
+			} else {
+				result[k++] = object;
+			}
+		}
+		return result;
+	}
+
+	private static boolean hasFailed(ProMFuture<?> future) {
+		return future.isCancelled() || future.toCompletionStage().toCompletableFuture().isCompletedExceptionally();
+	}
+
+	/**
+	 * Throws the exception of the given argument, if it is a future that
+	 * failed or was cancelled.
+	 */
+	private static void forwardFailure(Object arg) throws CancellationException, InterruptedException,
+			ExecutionException {
+		if ((arg instanceof ProMFuture<?>) && hasFailed((ProMFuture<?>) arg)) {
+			((ProMFuture<?>) arg).get();
+		}
+	}
+
+	/**
+	 * Executes the given runnable on the given executor as soon as all futures
+	 * among the given arguments (including those inside array arguments) are
+	 * done. No thread is blocked while waiting. If one of the futures fails or
+	 * is cancelled, the runnable is executed immediately, such that the
+	 * failure is forwarded without waiting for the other arguments.
+	 */
+	private static void scheduleWhenReady(final Executor executor, final Runnable runnable, Object... args) {
+		List<ProMFuture<?>> futures = new ArrayList<ProMFuture<?>>();
+		for (Object arg : args) {
+			if (arg instanceof ProMFuture<?>) {
+				futures.add((ProMFuture<?>) arg);
+			} else if (arg instanceof Object[]) {
+				for (Object element : (Object[]) arg) {
+					if (element instanceof ProMFuture<?>) {
+						futures.add((ProMFuture<?>) element);
+					}
+				}
+			}
+		}
+		List<ProMFuture<?>> pending = new ArrayList<ProMFuture<?>>(futures.size());
+		for (ProMFuture<?> future : futures) {
+			if (!future.isDone()) {
+				pending.add(future);
+			} else if (hasFailed(future)) {
+				// An input failed already, there is no need to wait for the others
+				pending.clear();
+				break;
+			}
+		}
+		if (pending.isEmpty()) {
+			executor.execute(runnable);
+			return;
+		}
+
+		final AtomicInteger remaining = new AtomicInteger(pending.size());
+		final AtomicBoolean scheduled = new AtomicBoolean(false);
+		BiConsumer<Object, Throwable> callback = new BiConsumer<Object, Throwable>() {
+			public void accept(Object value, Throwable exception) {
+				boolean ready = (exception != null) || (remaining.decrementAndGet() == 0);
+				if (ready && scheduled.compareAndSet(false, true)) {
+					executor.execute(runnable);
+				}
+			}
+		};
+		for (ProMFuture<?> future : pending) {
+			future.toCompletionStage().whenComplete(callback);
+		}
+	}
+
+	/**
+	 * Lets the given result refer to the provided objects created for the
+	 * cached results it reuses, as far as these still hold the same objects.
+	 * Along with these objects, the connections between them are reused.
+	 */
+	private static void reuseProvidedObjects(PluginContext context, PluginExecutionResultImpl result,
+			Object[] cached, ProvidedObjectID[] ids) {
+		if (ids == null) {
+			return;
+		}
+		for (int i = 0; i < Math.min(ids.length, Math.min(cached.length, result.getSize())); i++) {
+			if (ids[i] == null) {
+				continue;
+			}
+			try {
+				Object object = context.getProvidedObjectManager().getProvidedObjectObject(ids[i], false);
+				if ((object instanceof ProMFuture<?>) && ((ProMFuture<?>) object).isDone()) {
+					object = ((ProMFuture<?>) object).get();
+				}
+				if (object == cached[i]) {
+					result.setProvidedObjectID(i, ids[i]);
+				}
+			} catch (ProvidedObjectDeletedException e) {
+				// A new provided object is created for the result
+			} catch (ExecutionException e) {
+				// Idem
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (CancellationException e) {
+				// Idem
+			}
+		}
+	}
+
+	public PluginExecutionResult invoke(final int methodIndex, final PluginContext context, Object... args) {
 
 		ProMFuture<?>[] futures = new ProMFuture[Math.max(1, getReturnTypes().size())];
 
@@ -124,15 +231,42 @@ public abstract class AbstractPluginDescriptor implements PluginDescriptor {
 					new String[0]), this);
 		}
 
+		// Deterministic plugins are not executed again on identical inputs, if
+		// these are available already. The results of the earlier execution are
+		// reused, together with their provided objects.
+		Object[] cachedResult = null;
+		if (isDeterministic()) {
+			PluginResultCache.Key key = PluginResultCache.createKey(context, this, methodIndex, args);
+			if (key != null) {
+				cachedResult = PluginResultCache.getInstance().get(key);
+				if (cachedResult != null) {
+					reuseProvidedObjects(context, lock, cachedResult, PluginResultCache.getInstance()
+							.getProvidedObjectIDs(key));
+				}
+			}
+		}
+		final Object[] cached = cachedResult;
+
+		// The arguments are released once they are unwrapped, such that this
+		// invocation does not keep the results of the plugins it depends on alive.
+		final AtomicReference<Object[]> arguments = new AtomicReference<Object[]>(args);
+		final long invoked = PluginTracer.start();
+
 		futures[0] = new ProMFuture<Object>(returnType, name) {
 
+			private volatile boolean started = false;
+
 			@Override
 			protected Object doInBackground() throws Exception {
+				started = true;
 				context.getPluginLifeCycleEventListeners().firePluginStarted(context);
+				PluginScheduler.getInstance().started(context);
 				synchronized (lock) {
 					// First, do a get on all Future objects in the args list
-
-					Object[] allArgs = prepareAndWaitForArgs(context, methodIndex, getParameterTypes(methodIndex), args);
+					Object[] input = arguments.getAndSet(null);
+					Object[] allArgs = prepareAndWaitForArgs(context, methodIndex, getParameterTypes(methodIndex),
+							input);
+					PluginTracer.completeAsync("wait for arguments", context, invoked);
 
 					// copy the result back into parameters, i.e. all futures
 					// are unwrapped at this point and arrays are correctly typed.
@@ -144,12 +278,49 @@ public abstract class AbstractPluginDescriptor implements PluginDescriptor {
 					// are forwarded, so start the computation of
 					// this plugin
 					try {
-						System.out.println("Start plug-in " + getName());
-						long time = -System.currentTimeMillis();
-						Object[] result = execute(context, methodIndex, allArgs);
-						time += System.currentTimeMillis();
-						System.out.println("End plug-in " + getName() + ", took " + time + " milliseconds");
+						PluginResultCache.Key key = null;
+						Object[] result = null;
+						if (cached != null) {
+							System.out.println("Reusing cached result of plug-in " + getName());
+							result = cached.clone();
+						} else {
+							if (isDeterministic()) {
+								key = PluginResultCache.createKey(context, AbstractPluginDescriptor.this, methodIndex,
+										input);
+							}
+							// A suspended plugin does not start until it is resumed
+							context.getProgress().awaitResumed();
+							System.out.println("Start plug-in " + getName());
+							long time = -System.currentTimeMillis();
+							long start = PluginTracer.start();
+							PluginExecutionHistory.Outcome outcome = PluginExecutionHistory.Outcome.FAILED;
+							ResourceUsage usage = context.getResourceUsage();
+							usage.begin();
+							PluginWatchdog.getInstance().started(context);
+							try {
+								result = execute(context, methodIndex, allArgs);
+								outcome = PluginExecutionHistory.Outcome.COMPLETED;
+							} finally {
+								// The plugin is not done before its subtasks are
+								context.joinSubtasks();
+								PluginWatchdog.getInstance().finished(context);
+								usage.end();
+								time += System.currentTimeMillis();
+								if ((outcome != PluginExecutionHistory.Outcome.COMPLETED)
+										&& context.getProgress().isCancelled()) {
+									outcome = PluginExecutionHistory.Outcome.CANCELLED;
+								}
+								getExecutionHistory(context).record(AbstractPluginDescriptor.this,
+										methodIndex, parameters, time, outcome, usage.getOwnCpuTime(),
+										usage.getOwnAllocatedBytes());
+							}
+							if (PluginTracer.isEnabled()) {
+								PluginTracer.complete("execute " + getName(), context, start);
+							}
+							System.out.println("End plug-in " + getName() + ", took " + time + " milliseconds");
+						}
 
+						long start = PluginTracer.start();
 						if ((result == null) && !getReturnType().equals(void.class)) {
 							throw new InSufficientResultException(getName(), lock.getExpectedSize(), 0);
 						} else if (result.length < lock.getExpectedSize()) {
@@ -161,7 +332,10 @@ public abstract class AbstractPluginDescriptor implements PluginDescriptor {
 						}
 
 						lock.setResult(result);
-						lock.notifyAll();
+						PluginTracer.complete("validate results", context, start);
+						if ((key != null) && (result != null)) {
+							PluginResultCache.getInstance().put(key, result.clone(), lock.getProvidedObjectIDs());
+						}
 						Object object = lock.getObject(0);
 						return object;
 					} catch (Exception ex) {
@@ -169,7 +343,6 @@ public abstract class AbstractPluginDescriptor implements PluginDescriptor {
 							ex = (Exception) ex.getCause();
 						}
 						lock.setException(ex);
-						lock.notifyAll();
 						//						context.getPluginLifeCycleEventListeners().firePluginTerminatedWithError(context, ex);
 						//						context.log(ex);
 						throw ex;
@@ -177,9 +350,27 @@ public abstract class AbstractPluginDescriptor implements PluginDescriptor {
 				}
 			}
 
+			@Override
+			protected void notifyFinished() {
+				long start = PluginTracer.start();
+				super.notifyFinished();
+				if (PluginTracer.isEnabled()) {
+					PluginTracer.complete("notify listeners of " + getLabel(), context, start);
+				}
+			}
+
 			@Override
 			protected void done() {
+				PluginScheduler.getInstance().finished(context);
 				if (context != null) {
+					// Account the resources used by the plugin to its caller
+					if (context.getParentContext() != null) {
+						context.getParentContext().getResourceUsage().add(context.getResourceUsage());
+					}
+					// Plugins cancelled before they started did not use any
+					if (started) {
+						getResourceReport(context).record(AbstractPluginDescriptor.this, context.getResourceUsage());
+					}
 					if (isCancelled()) {
 						context.getPluginLifeCycleEventListeners().firePluginCancelled(context);
 					} else {
@@ -204,39 +395,70 @@ public abstract class AbstractPluginDescriptor implements PluginDescriptor {
 
 		for (int i = 1; i < getReturnTypes().size(); i++) {
 			final int j = i;
-			returnType = getReturnTypes().get(i);
-			name = getReturnNames().get(i);
-
-			futures[i] = new ProMFuture<Object>(returnType, name) {
-				@Override
-				protected Object doInBackground() throws Exception {
-					synchronized (lock) {
-						while ((lock.getObject(j) instanceof ProMFuture<?>) && (lock.getException() == null)) {
-							lock.wait();
-						}
-						Object object = lock.getObject(j);
-						if ((object != null) && (lock.getException() == null)) {
-							return object;
+			// The other results are completed by the main future, such that no
+			// thread is needed to wait for them.
+			futures[i] = futures[0].thenApply(getReturnTypes().get(i), getReturnNames().get(i),
+					new Function<Object, Object>() {
+						public Object apply(Object object) {
+							return lock.getObject(j);
 						}
-						throw (lock.getException());
-					}
-
-				}
-			};
+					});
 		}
 
 		lock.setResult(futures);
+		lock.setResourceUsage(context.getResourceUsage());
 
 		context.setFuture(lock);
 		context.getPluginLifeCycleEventListeners().firePluginFutureCreated(context);
 		assert (context.getParentContext() != null);
-		for (int i = 0; i < futures.length; i++) {
-			context.getParentContext().getExecutor().execute(futures[i].getRunnable());
+		Executor executor = PluginScheduler.getInstance().getExecutor(this, context.getParentContext());
+		// Only plugins that are not invoked from within a running plugin are
+		// queued by priority and subject to admission control, as the running
+		// plugin may wait for them.
+		Executor mainExecutor = executor;
+		if (context.getParentContext().getPluginDescriptor().getFirst() == null) {
+			mainExecutor = AdmissionController.getInstance().getExecutor(this, executor);
+			mainExecutor = PluginScheduler.getInstance().getPriorityExecutor(context.getPriority(), mainExecutor,
+					executor);
+			if (context instanceof TenantPluginContext) {
+				mainExecutor = ((TenantPluginContext) context).getTenant().getExecutor(this, futures[0], mainExecutor);
+			}
+		}
+		if (cached != null) {
+			// Reusing the results takes no time, and completes the futures before
+			// the caller provides them, such that plugins invoked on them next can
+			// reuse their results as well
+			futures[0].getRunnable().run();
+		} else {
+			// The main future is only scheduled once all its inputs are available
+			scheduleWhenReady(mainExecutor, futures[0].getRunnable(), args);
 		}
 
 		return lock;
 	}
 
+	/**
+	 * Returns the report in which the resources used by a plugin executed in
+	 * the given context are recorded, i.e. that of its tenant, if any.
+	 */
+	private static PluginResourceReport getResourceReport(PluginContext context) {
+		if (context instanceof TenantPluginContext) {
+			return ((TenantPluginContext) context).getTenant().getResourceReport();
+		}
+		return PluginResourceReport.getInstance();
+	}
+
+	/**
+	 * Returns the history in which a plugin executed in the given context is
+	 * recorded, i.e. that of its tenant, if any.
+	 */
+	private static PluginExecutionHistory getExecutionHistory(PluginContext context) {
+		if (context instanceof TenantPluginContext) {
+			return ((TenantPluginContext) context).getTenant().getExecutionHistory();
+		}
+		return PluginExecutionHistory.getInstance();
+	}
+
 	/**
 	 * In this method, the pluginDescriptor should do the actual work of
 	 * concstructing the result. Note that no objects passed in the allArgs
@@ -0,0 +1,282 @@
+package org.processmining.framework.plugin.impl;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+
+import org.processmining.framework.boot.Boot;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.util.OsUtil;
+
+/**
+ * The admission controller postpones the execution of plugins while the free
+ * heap is below a threshold, i.e. below Boot.MIN_FREE_HEAP_PERCENTAGE percent
+ * of the maximal heap size (or of the physical memory, if the heap size is not
+ * bounded). Admission control is disabled by default. A plugin can declare how
+ * much memory it expects to need, using <code>@Plugin(memoryHint = ...)</code>,
+ * in which case it is only admitted if that much memory is available on top of
+ * the threshold.
+ * 
+ * The free heap is based on the heap usage after the last garbage collection,
+ * as the current usage includes garbage that is not collected yet.
+ * 
+ * Postponed executions are queued in FIFO order and reconsidered after every
+ * garbage collection, whenever an admitted execution finishes, and
+ * periodically. If no admitted execution is running, the first queued
+ * execution is admitted regardless of the free heap, as waiting would not help.
+ */
+public class AdmissionController {
+
+	private static final long MEGABYTE = 1024 * 1024;
+	private static final long RECHECK_INTERVAL = 500;
+
+	private static AdmissionController instance = null;
+
+	private static class Pending {
+		private final long memoryHint;
+		private final Executor executor;
+		private final Runnable runnable;
+		private final long queued = System.nanoTime();
+
+		private Pending(long memoryHint, Executor executor, Runnable runnable) {
+			this.memoryHint = memoryHint;
+			this.executor = executor;
+			this.runnable = runnable;
+		}
+	}
+
+	private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+	private final List<MemoryPoolMXBean> heapPools = new ArrayList<MemoryPoolMXBean>();
+	private final int minFreePercentage;
+	private final LinkedList<Pending> queue = new LinkedList<Pending>();
+	private int running = 0;
+	private long admitted = 0;
+	private long postponed = 0;
+	private long totalWaitingTime = 0;
+	private long maximumWaitingTime = 0;
+
+	private AdmissionController(int minFreePercentage) {
+		this.minFreePercentage = minFreePercentage;
+		if (minFreePercentage <= 0) {
+			return;
+		}
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				heapPools.add(pool);
+			}
+		}
+		NotificationListener listener = new NotificationListener() {
+			public void handleNotification(Notification notification, Object handback) {
+				admit();
+			}
+		};
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if (collector instanceof NotificationEmitter) {
+				((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+			}
+		}
+		ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "ProM admission controller");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		timer.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				admit();
+			}
+		}, RECHECK_INTERVAL, RECHECK_INTERVAL, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns the singleton instance of the admission controller.
+	 * 
+	 * @return
+	 */
+	public static synchronized AdmissionController getInstance() {
+		if (instance == null) {
+			instance = new AdmissionController(Boot.MIN_FREE_HEAP_PERCENTAGE);
+		}
+		return instance;
+	}
+
+	/**
+	 * Returns an executor that executes tasks of the given plugin on the given
+	 * executor, as soon as they are admitted.
+	 * 
+	 * @param plugin
+	 * @param executor
+	 * @return
+	 */
+	public Executor getExecutor(PluginDescriptor plugin, final Executor executor) {
+		if (minFreePercentage <= 0) {
+			return executor;
+		}
+		final long memoryHint = plugin.getMemoryHint() * MEGABYTE;
+		return new Executor() {
+			public void execute(Runnable runnable) {
+				synchronized (AdmissionController.this) {
+					queue.add(new Pending(memoryHint, executor, runnable));
+				}
+				admit();
+			}
+		};
+	}
+
+	/**
+	 * Admits queued executions, as long as there is enough free heap.
+	 */
+	private void admit() {
+		while (true) {
+			Pending next;
+			synchronized (this) {
+				next = queue.peek();
+				if (next == null) {
+					return;
+				}
+				if ((running > 0) && !hasFreeHeap(next.memoryHint)) {
+					return;
+				}
+				queue.poll();
+				running++;
+				admitted++;
+				long waitingTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - next.queued);
+				if (waitingTime > 0) {
+					postponed++;
+				}
+				totalWaitingTime += waitingTime;
+				maximumWaitingTime = Math.max(maximumWaitingTime, waitingTime);
+			}
+			final Runnable runnable = next.runnable;
+			try {
+				next.executor.execute(new Runnable() {
+					public void run() {
+						try {
+							runnable.run();
+						} finally {
+							finished();
+						}
+					}
+				});
+			} catch (RuntimeException e) {
+				finished();
+				throw e;
+			}
+		}
+	}
+
+	private void finished() {
+		synchronized (this) {
+			running--;
+		}
+		admit();
+	}
+
+	private boolean hasFreeHeap(long memoryHint) {
+		MemoryUsage heap = memory.getHeapMemoryUsage();
+		long max = heap.getMax() < 0 ? OsUtil.getPhysicalMemory() : heap.getMax();
+		return max - getUsedAfterCollection() - memoryHint >= (max / 100) * minFreePercentage;
+	}
+
+	/**
+	 * Returns the heap usage after the last garbage collection. For memory
+	 * pools that do not report this, the current usage is taken instead.
+	 */
+	private long getUsedAfterCollection() {
+		long used = 0;
+		for (MemoryPoolMXBean pool : heapPools) {
+			MemoryUsage usage = pool.getCollectionUsage();
+			if (usage == null) {
+				usage = pool.getUsage();
+			}
+			if (usage != null) {
+				used += usage.getUsed();
+			}
+		}
+		return used;
+	}
+
+	/**
+	 * Returns the number of executions waiting to be admitted.
+	 * 
+	 * @return
+	 */
+	public synchronized int getQueueLength() {
+		return queue.size();
+	}
+
+	/**
+	 * Returns the number of admitted executions that are still running.
+	 * 
+	 * @return
+	 */
+	public synchronized int getRunningCount() {
+		return running;
+	}
+
+	/**
+	 * Returns the number of executions admitted so far.
+	 * 
+	 * @return
+	 */
+	public synchronized long getAdmittedCount() {
+		return admitted;
+	}
+
+	/**
+	 * Returns the number of executions admitted so far, which had to wait for
+	 * admission.
+	 * 
+	 * @return
+	 */
+	public synchronized long getPostponedCount() {
+		return postponed;
+	}
+
+	/**
+	 * Returns the average time in milliseconds admitted executions waited for
+	 * admission.
+	 * 
+	 * @return
+	 */
+	public synchronized long getAverageWaitingTime() {
+		return admitted == 0 ? 0 : totalWaitingTime / admitted;
+	}
+
+	/**
+	 * Returns the maximal time in milliseconds an admitted execution waited
+	 * for admission.
+	 * 
+	 * @return
+	 */
+	public synchronized long getMaximumWaitingTime() {
+		return maximumWaitingTime;
+	}
+
+	/**
+	 * Returns the time in milliseconds the first queued execution is waiting
+	 * already, or 0 if the queue is empty.
+	 * 
+	 * @return
+	 */
+	public synchronized long getCurrentWaitingTime() {
+		Pending first = queue.peek();
+		return first == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - first.queued);
+	}
+}
@@ -0,0 +1,24 @@
+package org.processmining.framework.plugin.impl;
+
+import org.processmining.framework.plugin.PluginContext;
+
+/**
+ * A global context without any user interface, for running plugins in batch.
+ * All plugins are invoked in children of one main HeadlessPluginContext.
+ */
+public class HeadlessGlobalContext extends AbstractGlobalContext {
+
+	private final HeadlessPluginContext mainPluginContext;
+
+	public HeadlessGlobalContext() {
+		mainPluginContext = new HeadlessPluginContext(this, "Main Plugin Context");
+	}
+
+	protected PluginContext getMainPluginContext() {
+		return mainPluginContext;
+	}
+
+	public Class<? extends PluginContext> getPluginContextType() {
+		return HeadlessPluginContext.class;
+	}
+}
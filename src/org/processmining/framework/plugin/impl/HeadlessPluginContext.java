@@ -0,0 +1,71 @@
+package org.processmining.framework.plugin.impl;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.processmining.framework.boot.Boot;
+import org.processmining.framework.plugin.GlobalContext;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginContextID;
+import org.processmining.framework.plugin.events.Logger;
+
+/**
+ * A plugin context without any user interface, for running plugins in batch.
+ * Plugins are executed on a shared pool of daemon threads, and messages logged
+ * by plugins are printed to the console.
+ */
+public class HeadlessPluginContext extends AbstractPluginContext {
+
+	private static final ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
+		private final AtomicInteger count = new AtomicInteger(0);
+
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "ProM headless worker " + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	private static final Logger console = new Logger() {
+		public void log(String message, PluginContextID contextID, MessageLevel messageLevel) {
+			switch (messageLevel) {
+				case NORMAL :
+					System.out.println(message);
+					break;
+				case WARNING :
+				case ERROR :
+					System.err.println(messageLevel.getLongName() + ": " + message);
+					break;
+				default :
+					if (Boot.VERBOSE == Boot.Level.ALL) {
+						System.out.println(messageLevel.getLongName() + ": " + message);
+					}
+			}
+		}
+
+		public void log(Throwable t, PluginContextID contextID) {
+			// AbstractPluginContext already prints the stack trace
+		}
+	};
+
+	public HeadlessPluginContext(GlobalContext context, String label) {
+		super(context, label);
+		getLoggingListeners().add(console);
+	}
+
+	protected HeadlessPluginContext(HeadlessPluginContext context, String label) {
+		super(context, label);
+		getLoggingListeners().add(console);
+	}
+
+	protected PluginContext createTypedChildContext(String label) {
+		return new HeadlessPluginContext(this, label);
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+}
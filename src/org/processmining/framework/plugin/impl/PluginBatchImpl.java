@@ -0,0 +1,197 @@
+package org.processmining.framework.plugin.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.processmining.framework.plugin.PluginBatch;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginExecutionResult;
+import org.processmining.framework.plugin.PluginParameterBinding;
+import org.processmining.framework.plugin.ProMFuture;
+
+public class PluginBatchImpl implements PluginBatch {
+
+	// Marks the end of the results in the queue
+	private static final Object END = new Object();
+
+	private final PluginContext context;
+	private final PluginParameterBinding binding;
+	private final int size;
+	private final Iterator<Object[]> arguments;
+	private int launched = 0;
+	private final AtomicInteger remaining;
+	private final AtomicInteger launchRequests = new AtomicInteger(0);
+	private final BlockingQueue<Object> completed = new LinkedBlockingQueue<Object>();
+
+	/**
+	 * Creates a batch invoking the given binding on each of the given argument
+	 * tuples, in children of the given context. Call <code>start()</code> to
+	 * start the invocations.
+	 * 
+	 * @param context
+	 * @param binding
+	 * @param arguments
+	 */
+	public PluginBatchImpl(PluginContext context, PluginParameterBinding binding, Collection<Object[]> arguments) {
+		this.context = context;
+		this.binding = binding;
+		this.arguments = new ArrayList<Object[]>(arguments).iterator();
+		size = arguments.size();
+		remaining = new AtomicInteger(size);
+		context.getProgress().setMinimum(0);
+		context.getProgress().setMaximum(size);
+		context.getProgress().setValue(0);
+		context.getProgress().setIndeterminate(false);
+	}
+
+	/**
+	 * Creates and starts a batch invoking the given binding on each of the
+	 * given argument tuples, in children of a new context which is a child of
+	 * the given context.
+	 * 
+	 * @param parent
+	 * @param binding
+	 * @param parallelism
+	 *            The maximal number of concurrent invocations. If not
+	 *            positive, the number of available processors is used.
+	 * @param arguments
+	 * @return the started batch.
+	 */
+	public static PluginBatch invoke(PluginContext parent, PluginParameterBinding binding, int parallelism,
+			Collection<Object[]> arguments) {
+		PluginContext c2 = parent.createChildContext("Batch of " + arguments.size() + " x "
+				+ binding.getPlugin().getName());
+		parent.getPluginLifeCycleEventListeners().firePluginCreated(c2);
+		PluginBatchImpl batch = new PluginBatchImpl(c2, binding, arguments);
+		batch.start(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+		return batch;
+	}
+
+	/**
+	 * Starts the given number of invocations. Each time one of them completes,
+	 * the next one is started.
+	 * 
+	 * @param parallelism
+	 */
+	public void start(int parallelism) {
+		if (size == 0) {
+			finish();
+			return;
+		}
+		for (int i = 0; i < parallelism; i++) {
+			requestLaunch();
+		}
+	}
+
+	public PluginContext getContext() {
+		return context;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public PluginExecutionResult take() throws InterruptedException {
+		Object result = completed.take();
+		if (result == END) {
+			// Leave the end marker for subsequent calls
+			completed.add(END);
+			return null;
+		}
+		return (PluginExecutionResult) result;
+	}
+
+	public boolean isDone() {
+		return remaining.get() == 0;
+	}
+
+	public void cancel() {
+		context.getProgress().cancel();
+		// Skip the invocations that are not started yet.
+		requestLaunch();
+	}
+
+	/**
+	 * Launches the next invocation. Launches requested while launching are
+	 * handled by the thread that is launching, such that invocations that
+	 * complete immediately do not lead to deep recursion.
+	 */
+	private void requestLaunch() {
+		if (launchRequests.getAndIncrement() > 0) {
+			return;
+		}
+		do {
+			launchNext();
+		} while (launchRequests.decrementAndGet() > 0);
+	}
+
+	private void launchNext() {
+		Object[] args;
+		int index;
+		synchronized (this) {
+			if (context.getProgress().isCancelled()) {
+				while (arguments.hasNext()) {
+					arguments.next();
+					finished(null);
+				}
+				return;
+			}
+			if (!arguments.hasNext()) {
+				return;
+			}
+			args = arguments.next();
+			index = ++launched;
+		}
+
+		final PluginContext child = context.createChildContext(binding.getPlugin().getName() + " (" + index + "/"
+				+ size + ")");
+		final PluginExecutionResult result;
+		try {
+			context.getPluginLifeCycleEventListeners().firePluginCreated(child);
+			result = binding.invoke(child, args);
+		} catch (RuntimeException e) {
+			context.log(e);
+			context.deleteChild(child);
+			finished(null);
+			requestLaunch();
+			return;
+		}
+
+		Object main = result.getResult(0);
+		if (main instanceof ProMFuture<?>) {
+			((ProMFuture<?>) main).toCompletionStage().whenComplete(new BiConsumer<Object, Throwable>() {
+				public void accept(Object object, Throwable exception) {
+					context.deleteChild(child);
+					finished(result);
+					requestLaunch();
+				}
+			});
+		} else {
+			context.deleteChild(child);
+			finished(result);
+			requestLaunch();
+		}
+	}
+
+	private void finished(PluginExecutionResult result) {
+		if (result != null) {
+			completed.add(result);
+		}
+		context.getProgress().inc();
+		if (remaining.decrementAndGet() == 0) {
+			finish();
+		}
+	}
+
+	private void finish() {
+		if (context.getParentContext() != null) {
+			context.getParentContext().deleteChild(context);
+		}
+		completed.add(END);
+	}
+}
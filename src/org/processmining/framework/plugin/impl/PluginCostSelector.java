@@ -0,0 +1,127 @@
+package org.processmining.framework.plugin.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.processmining.framework.boot.Boot;
+import org.processmining.framework.plugin.PluginParameterBinding;
+import org.processmining.framework.util.Pair;
+
+/**
+ * Ranks equivalent candidate bindings by their expected cost, as derived from
+ * the PluginExecutionHistory of this installation. Ranking is enabled by
+ * Boot.COST_BASED_SELECTION; if it is disabled, candidates keep the order in
+ * which they are given.
+ * 
+ * Candidates are equivalent if their plugins produce the same number of
+ * results. The expected cost of a candidate is its median runtime divided by
+ * the fraction of its executions that did not fail, such that an unreliable
+ * plugin has to be much faster to be preferred. Candidates with fewer than
+ * MIN_EXECUTIONS finished executions are ranked before the others, such that
+ * every candidate is measured before the framework settles on the cheapest.
+ */
+public class PluginCostSelector {
+
+	/**
+	 * The number of finished executions of a plugin method before its cost is
+	 * taken into account.
+	 */
+	public static final int MIN_EXECUTIONS = 3;
+
+	// The lowest success rate taken into account, to keep costs finite
+	private static final double MIN_SUCCESS_RATE = 0.01;
+
+	private PluginCostSelector() {
+	}
+
+	/**
+	 * Returns the expected cost of invoking the given binding in milliseconds,
+	 * or 0 if the binding was not measured often enough.
+	 * 
+	 * @param binding
+	 * @return
+	 */
+	public static double getExpectedCost(PluginParameterBinding binding) {
+		return getExpectedCost(binding, PluginExecutionHistory.getInstance());
+	}
+
+	/**
+	 * Returns the expected cost of invoking the given binding in milliseconds
+	 * according to the given history, or 0 if the binding was not measured
+	 * often enough.
+	 * 
+	 * @param binding
+	 * @param history
+	 * @return
+	 */
+	public static double getExpectedCost(PluginParameterBinding binding, PluginExecutionHistory history) {
+		PluginExecutionHistory.Statistics statistics = history.getStatistics(binding.getPlugin().getID(),
+				binding.getMethodIndex());
+		int finished = statistics.getCompletedCount() + statistics.getFailureCount();
+		if (finished < MIN_EXECUTIONS) {
+			return 0;
+		}
+		double successRate = Math.max(MIN_SUCCESS_RATE, (double) statistics.getCompletedCount() / finished);
+		long median = statistics.getRuntimePercentile(50);
+		// A plugin that never completed costs as much as a very slow one
+		return (median < 0 ? Long.MAX_VALUE : median + 1) / successRate;
+	}
+
+	/**
+	 * Returns the given candidates in the order in which they should be tried.
+	 * If cost-based selection is enabled, they are ordered by the number of
+	 * results of their plugins and then by expected cost, and candidates that
+	 * are equal in both respects keep their relative order. Otherwise, the
+	 * given order is kept.
+	 * 
+	 * @param candidates
+	 *            pairs of the result index and the binding to invoke.
+	 * @return
+	 */
+	public static List<Pair<Integer, PluginParameterBinding>> rank(
+			Collection<Pair<Integer, PluginParameterBinding>> candidates) {
+		return rank(candidates, PluginExecutionHistory.getInstance());
+	}
+
+	/**
+	 * Returns the given candidates in the order in which they should be tried,
+	 * according to the costs in the given history.
+	 * 
+	 * @param candidates
+	 *            pairs of the result index and the binding to invoke.
+	 * @param history
+	 * @return
+	 * @see #rank(Collection)
+	 */
+	public static List<Pair<Integer, PluginParameterBinding>> rank(
+			Collection<Pair<Integer, PluginParameterBinding>> candidates, PluginExecutionHistory history) {
+		List<Pair<Integer, PluginParameterBinding>> ranked;
+		ranked = new ArrayList<Pair<Integer, PluginParameterBinding>>(candidates);
+		if (!Boot.COST_BASED_SELECTION || (ranked.size() < 2)) {
+			return ranked;
+		}
+		// Costs are determined once, as the history changes concurrently
+		final Map<PluginParameterBinding, Double> costs = new HashMap<PluginParameterBinding, Double>();
+		for (Pair<Integer, PluginParameterBinding> candidate : ranked) {
+			if (!costs.containsKey(candidate.getSecond())) {
+				costs.put(candidate.getSecond(), getExpectedCost(candidate.getSecond(), history));
+			}
+		}
+		Collections.sort(ranked, new Comparator<Pair<Integer, PluginParameterBinding>>() {
+			public int compare(Pair<Integer, PluginParameterBinding> arg0, Pair<Integer, PluginParameterBinding> arg1) {
+				int c = arg0.getSecond().getPlugin().getReturnNames().size()
+						- arg1.getSecond().getPlugin().getReturnNames().size();
+				if (c == 0) {
+					c = Double.compare(costs.get(arg0.getSecond()), costs.get(arg1.getSecond()));
+				}
+				return c;
+			}
+		});
+		return ranked;
+	}
+}
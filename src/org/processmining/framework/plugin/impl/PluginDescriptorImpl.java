@@ -15,20 +15,27 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.IntConsumer;
 
 import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 
 import org.processmining.framework.boot.Boot;
 import org.processmining.framework.packages.PackageDescriptor;
+import org.processmining.framework.plugin.InputPartitioner;
 import org.processmining.framework.plugin.PluginContext;
 import org.processmining.framework.plugin.PluginDescriptor;
 import org.processmining.framework.plugin.PluginDescriptorID;
+import org.processmining.framework.plugin.ResultMerger;
+import org.processmining.framework.plugin.annotations.Partitioned;
 import org.processmining.framework.plugin.annotations.Plugin;
 import org.processmining.framework.plugin.annotations.PluginCategory;
 import org.processmining.framework.plugin.annotations.PluginLevel;
 import org.processmining.framework.plugin.annotations.PluginQuality;
 import org.processmining.framework.plugin.annotations.PluginVariant;
+import org.processmining.framework.plugin.annotations.PluginWorkload;
+import org.processmining.framework.plugin.events.Logger.MessageLevel;
 
 public class PluginDescriptorImpl extends AbstractPluginDescriptor {
 
@@ -54,6 +61,21 @@ public class PluginDescriptorImpl extends AbstractPluginDescriptor {
 	private ImageIcon icon;
 	private URL url;
 
+	// Per-method metadata derived from the PluginVariant annotations. The
+	// binding factory and the UI query these in tight loops, so they are
+	// computed once by initializeMethodMetadata(). For methods without a
+	// PluginVariant annotation, the requiredParameterLabels entry is null.
+	private int[][] requiredParameterLabels;
+	private int[][] indicesInMethod;
+	private Class<?>[][] parameterTypeArrays;
+	private List<List<String>> methodParameterNames;
+	private String[] methodLabels;
+	private String[] methodHelps;
+	private List<List<Class<?>>> parameterTypesView;
+	private List<String> parameterNamesView;
+	private List<Class<?>> returnTypesView;
+	private List<String> returnNamesView;
+
 	private final static Map<String, ImageIcon> icons = new HashMap<String, ImageIcon>();
 	private final static Map<String, URL> urls = new HashMap<String, URL>();
 
@@ -117,6 +139,8 @@ public class PluginDescriptorImpl extends AbstractPluginDescriptor {
 		returnTypes = Arrays.asList(getAnnotation(Plugin.class).returnTypes());
 		assert (getAnnotation(Plugin.class).returnLabels().length == returnTypes.size());
 		returnNames = Arrays.asList(getAnnotation(Plugin.class).returnLabels());
+
+		initializeMethodMetadata();
 	}
 
 	PluginDescriptorImpl(Class<?> type, Class<? extends PluginContext> acceptedContext, PackageDescriptor pack)
@@ -135,7 +159,8 @@ public class PluginDescriptorImpl extends AbstractPluginDescriptor {
 		int max = -1;
 		for (Method method : type.getMethods()) {
 			if (method.isAnnotationPresent(PluginVariant.class)) {
-				if (method.getParameterTypes()[0].isAssignableFrom(acceptedContext)) {
+				if (method.getParameterTypes()[0].isAssignableFrom(acceptedContext)
+						&& hasValidParameterLabels(method, pls.length)) {
 					methods.add(method);
 				}
 
@@ -219,12 +244,86 @@ public class PluginDescriptorImpl extends AbstractPluginDescriptor {
 		returnTypes = Arrays.asList(type.getAnnotation(Plugin.class).returnTypes());
 		assert (getAnnotation(Plugin.class).returnLabels().length == returnTypes.size());
 		returnNames = Arrays.asList(type.getAnnotation(Plugin.class).returnLabels());
+
+		initializeMethodMetadata();
 	}
 
 	PluginDescriptorImpl(String className, String name, Class<?>[] parTypes, PackageDescriptor pack) throws Exception {
 		this(Class.forName(className).getMethod(name, parTypes), pack);
 	}
 
+	/**
+	 * Returns whether the required parameter labels of the given variant are
+	 * valid indices in the parameter labels of the plugin, without duplicates.
+	 * The plugin manager reports variants that violate this, and they are not
+	 * added to the plugin.
+	 */
+	private static boolean hasValidParameterLabels(Method method, int parameterCount) {
+		int[] required = method.getAnnotation(PluginVariant.class).requiredParameterLabels();
+		Set<Integer> set = new HashSet<Integer>();
+		for (int i : required) {
+			if ((i < 0) || (i >= parameterCount) || !set.add(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Computes the per-method metadata once, such that none of the getters
+	 * needs to access the annotations of the methods, or rebuild lists.
+	 */
+	private void initializeMethodMetadata() {
+		int size = methods.size();
+		requiredParameterLabels = new int[size][];
+		indicesInMethod = new int[size][];
+		parameterTypeArrays = new Class<?>[size][];
+		methodLabels = new String[size];
+		methodHelps = new String[size];
+
+		List<List<Class<?>>> typesView = new ArrayList<List<Class<?>>>(size);
+		List<List<String>> namesPerMethod = new ArrayList<List<String>>(size);
+		List<String> namesView = Collections.unmodifiableList(parameterNames);
+
+		for (int m = 0; m < size; m++) {
+			List<Class<?>> types = parameterTypes.get(m);
+			typesView.add(Collections.unmodifiableList(types));
+			parameterTypeArrays[m] = types.toArray(new Class<?>[types.size()]);
+
+			PluginVariant variant = methods.get(m).getAnnotation(PluginVariant.class);
+			if (variant == null) {
+				methodLabels[m] = name;
+				methodHelps[m] = name;
+				namesPerMethod.add(namesView);
+				continue;
+			}
+
+			methodLabels[m] = variant.variantLabel().equals("") ? name : variant.variantLabel();
+			methodHelps[m] = variant.help().equals("") ? name : variant.help();
+
+			int[] req = variant.requiredParameterLabels().clone();
+			requiredParameterLabels[m] = req;
+
+			// Variants with invalid labels are not registered, so every label
+			// is a distinct index in parameterNames
+			int[] indices = new int[parameterNames.size()];
+			Arrays.fill(indices, -1);
+			List<String> list = new ArrayList<String>(req.length);
+			for (int j = 0; j < req.length; j++) {
+				indices[req[j]] = j;
+				list.add(parameterNames.get(req[j]));
+			}
+			indicesInMethod[m] = indices;
+			namesPerMethod.add(Collections.unmodifiableList(list));
+		}
+
+		parameterTypesView = Collections.unmodifiableList(typesView);
+		methodParameterNames = namesPerMethod;
+		parameterNamesView = namesView;
+		returnTypesView = Collections.unmodifiableList(returnTypes);
+		returnNamesView = Collections.unmodifiableList(returnNames);
+	}
+
 	public PackageDescriptor getPackage() {
 		return pack;
 	}
@@ -313,26 +412,96 @@ public class PluginDescriptorImpl extends AbstractPluginDescriptor {
 
 	protected Object[] execute(PluginContext context, int methodIndex, Object... allArgs) throws Exception {
 		Method method = getMethod(methodIndex);
+		Partitioned partitioned = method.getAnnotation(Partitioned.class);
+		Object result;
+		if (partitioned == null) {
+			result = invoke(method, allArgs);
+		} else {
+			result = executePartitioned(context, method, partitioned, allArgs);
+		}
 		if (returnTypes.size() > 1) { // method.getReturnType().isArray())
 			// {
-			Object[] result;
-			if ((method.getModifiers() & Modifier.STATIC) == Modifier.STATIC) {
-				result = (Object[]) method.invoke(null, allArgs);
-			} else {
-				result = (Object[]) method.invoke(declaringClass.newInstance(), allArgs);
-			}
+			return (Object[]) result;
+		} else {
+			return new Object[] { result };
+		}
+	}
 
-			return result;
+	private Object invoke(Method method, Object... allArgs) throws Exception {
+		if ((method.getModifiers() & Modifier.STATIC) == Modifier.STATIC) {
+			return method.invoke(null, allArgs);
 		} else {
-			Object result;
-			if ((method.getModifiers() & Modifier.STATIC) == Modifier.STATIC) {
-				result = method.invoke(null, allArgs);
-			} else {
-				result = method.invoke(declaringClass.newInstance(), allArgs);
+			return method.invoke(declaringClass.getDeclaredConstructor().newInstance(), allArgs);
+		}
+	}
+
+	/**
+	 * Thrown by a part of a partitioned execution, to pass the exception of
+	 * the method through the parallel loop.
+	 */
+	private static class PartFailedException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		private PartFailedException(Exception cause) {
+			super(cause);
+		}
+	}
+
+	/**
+	 * Executes the given method on the parts of the input selected by the
+	 * given annotation in parallel, each in a child context of the given
+	 * context, and merges the results.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Object executePartitioned(PluginContext context, final Method method, Partitioned partitioned,
+			final Object... allArgs) throws Exception {
+		final int index = partitioned.parameter() + 1;
+		int maxParts = partitioned.partitions() > 0 ? partitioned.partitions() : Runtime.getRuntime()
+				.availableProcessors();
+		InputPartitioner partitioner = partitioned.partitioner().getDeclaredConstructor().newInstance();
+		final List<Object> parts = partitioner.split(allArgs[index], maxParts);
+		for (Object part : parts) {
+			if (!method.getParameterTypes()[index].isInstance(part)) {
+				context.log("Cannot partition the input of plugin " + getName() + ", as its parts are of type "
+						+ part.getClass().getName(), MessageLevel.WARNING);
+				return invoke(method, allArgs);
 			}
+		}
+		if (parts.size() <= 1) {
+			return invoke(method, allArgs);
+		}
 
-			return new Object[] { result };
+		final PluginContext[] children = new PluginContext[parts.size()];
+		for (int i = 0; i < children.length; i++) {
+			children[i] = context.createChildContext(context.getLabel() + " (part " + (i + 1) + " of "
+					+ children.length + ")");
+		}
+		final Object[] results = new Object[parts.size()];
+		try {
+			context.parallelFor(0, parts.size(), new IntConsumer() {
+				public void accept(int i) {
+					Object[] args = allArgs.clone();
+					args[0] = children[i];
+					args[index] = parts.get(i);
+					try {
+						results[i] = invoke(method, args);
+					} catch (Exception e) {
+						throw new PartFailedException(e);
+					}
+				}
+			});
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof PartFailedException) {
+				throw (Exception) e.getCause().getCause();
+			}
+			throw e;
+		} finally {
+			for (PluginContext child : children) {
+				context.deleteChild(child);
+			}
 		}
+		ResultMerger merger = partitioned.merger().getDeclaredConstructor().newInstance();
+		return merger.merge(Arrays.asList(results));
 	}
 
 	protected Method findMethod(Object[] allArgs) {
@@ -368,33 +537,28 @@ public class PluginDescriptorImpl extends AbstractPluginDescriptor {
 	 * @return
 	 */
 	public List<Class<? extends Object>> getReturnTypes() {
-		return Collections.unmodifiableList(returnTypes);
+		return returnTypesView;
 	}
 
 	public List<Class<?>> getParameterTypes(int methodIndex) {
-		return Collections.unmodifiableList(getParameterTypes().get(methodIndex));
+		return parameterTypesView.get(methodIndex);
 	}
 
 	public Class<?> getPluginParameterType(int methodIndex, int parameterIndex) {
-		if (methods.get(methodIndex).isAnnotationPresent(PluginVariant.class)) {
-			int[] req = methods.get(methodIndex).getAnnotation(PluginVariant.class).requiredParameterLabels();
-			for (int j = 0; j < req.length; j++) {
-				if (req[j] == parameterIndex) {
-					return parameterTypes.get(methodIndex).get(j);
-				}
-			}
-			return null;
+		if (requiredParameterLabels[methodIndex] != null) {
+			int j = getIndexInMethod(methodIndex, parameterIndex);
+			return j < 0 ? null : parameterTypeArrays[methodIndex][j];
 		} else {
 			return parameterTypes.get(methodIndex).get(parameterIndex);
 		}
 	}
 
 	public List<List<Class<?>>> getParameterTypes() {
-		return Collections.unmodifiableList(parameterTypes);
+		return parameterTypesView;
 	}
 
 	public List<String> getParameterNames() {
-		return Collections.unmodifiableList(parameterNames);
+		return parameterNamesView;
 	}
 
 	public Set<Class<?>> getTypesAtParameterIndex(int index) {
@@ -419,27 +583,12 @@ public class PluginDescriptorImpl extends AbstractPluginDescriptor {
 	}
 
 	public List<String> getParameterNames(int methodIndex) {
-		if (methods.get(methodIndex).isAnnotationPresent(PluginVariant.class)) {
-			ArrayList<String> list = new ArrayList<String>();
-			int[] req = methods.get(methodIndex).getAnnotation(PluginVariant.class).requiredParameterLabels();
-			for (int i : req) {
-				list.add(parameterNames.get(i));
-			}
-			return Collections.unmodifiableList(list);
-		} else {
-			return Collections.unmodifiableList(parameterNames);
-		}
+		return methodParameterNames.get(methodIndex);
 	}
 
 	public String getPluginParameterName(int methodIndex, int parameterIndex) {
-		if (methods.get(methodIndex).isAnnotationPresent(PluginVariant.class)) {
-			int[] req = methods.get(methodIndex).getAnnotation(PluginVariant.class).requiredParameterLabels();
-			for (int j = 0; j < req.length; j++) {
-				if (req[j] == parameterIndex) {
-					return parameterNames.get(parameterIndex);
-				}
-			}
-			return null;
+		if (requiredParameterLabels[methodIndex] != null) {
+			return getIndexInMethod(methodIndex, parameterIndex) < 0 ? null : parameterNames.get(parameterIndex);
 		} else {
 			return parameterNames.get(parameterIndex);
 		}
@@ -452,7 +601,7 @@ public class PluginDescriptorImpl extends AbstractPluginDescriptor {
 	 * @return
 	 */
 	public List<String> getReturnNames() {
-		return Collections.unmodifiableList(returnNames);
+		return returnNamesView;
 	}
 
 	public PluginDescriptorID getID() {
@@ -481,8 +630,8 @@ public class PluginDescriptorImpl extends AbstractPluginDescriptor {
 	}
 
 	public int getIndexInParameterNames(int methodIndex, int methodParameterIndex) {
-		if (methods.get(methodIndex).isAnnotationPresent(PluginVariant.class)) {
-			int[] req = methods.get(methodIndex).getAnnotation(PluginVariant.class).requiredParameterLabels();
+		int[] req = requiredParameterLabels[methodIndex];
+		if (req != null) {
 			return req[methodParameterIndex];
 		} else {
 			return methodParameterIndex;
@@ -490,26 +639,19 @@ public class PluginDescriptorImpl extends AbstractPluginDescriptor {
 	}
 
 	public int getIndexInMethod(int methodIndex, int parameterIndex) {
-		if (methods.get(methodIndex).isAnnotationPresent(PluginVariant.class)) {
-			int[] req = methods.get(methodIndex).getAnnotation(PluginVariant.class).requiredParameterLabels();
-			for (int i = 0; i < req.length; i++) {
-				if (req[i] == parameterIndex) {
-					return i;
-				}
+		if (requiredParameterLabels[methodIndex] != null) {
+			int[] indices = indicesInMethod[methodIndex];
+			if ((parameterIndex < 0) || (parameterIndex >= indices.length)) {
+				return -1;
 			}
-			return -1;
+			return indices[parameterIndex];
 		} else {
 			return parameterIndex;
 		}
 	}
 
 	public String getMethodLabel(int methodIndex) {
-		if (methods.get(methodIndex).isAnnotationPresent(PluginVariant.class)
-				&& !methods.get(methodIndex).getAnnotation(PluginVariant.class).variantLabel().equals("")) {
-			return methods.get(methodIndex).getAnnotation(PluginVariant.class).variantLabel();
-		} else {
-			return name;
-		}
+		return methodLabels[methodIndex];
 	}
 
 	public boolean isUserAccessible() {
@@ -520,6 +662,22 @@ public class PluginDescriptorImpl extends AbstractPluginDescriptor {
 		return getAnnotation(Plugin.class).handlesCancel();
 	}
 
+	public PluginWorkload getWorkload() {
+		return getAnnotation(Plugin.class).workload();
+	}
+
+	public boolean isDeterministic() {
+		return getAnnotation(Plugin.class).deterministic();
+	}
+
+	public int getMemoryHint() {
+		return getAnnotation(Plugin.class).memoryHint();
+	}
+
+	public boolean isSpeculative() {
+		return getAnnotation(Plugin.class).speculative();
+	}
+
 	public <T extends Annotation> T getAnnotation(Class<T> annotationClass, int methodIndex) {
 		return getMethod(methodIndex).getAnnotation(annotationClass);
 	}
@@ -538,12 +696,7 @@ public class PluginDescriptorImpl extends AbstractPluginDescriptor {
 	}
 
 	public String getMethodHelp(int methodIndex) {
-		if (methods.get(methodIndex).isAnnotationPresent(PluginVariant.class)
-				&& !methods.get(methodIndex).getAnnotation(PluginVariant.class).help().equals("")) {
-			return methods.get(methodIndex).getAnnotation(PluginVariant.class).help();
-		} else {
-			return name;
-		}
+		return methodHelps[methodIndex];
 	}
 
 	public String[] getKeywords() {
@@ -0,0 +1,691 @@
+package org.processmining.framework.plugin.impl;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.processmining.framework.boot.Boot;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginDescriptorID;
+
+/**
+ * Keeps a history of all plugin executions, across sessions. Every execution
+ * is appended as one tab-separated line to a file in the workspace folder,
+ * holding the time the plugin finished, the ID of the plugin, the index and
+ * label of the invoked method, the types and sizes of the inputs, the
+ * duration, the outcome, and the CPU time and heap allocation of the plugin.
+ * The history is enabled by Boot.EXECUTION_HISTORY, which is off by default.
+ * The history of the whole session is returned by getInstance(); the plugins
+ * of a tenant are recorded in the history of that tenant instead.
+ * 
+ * The memory use of an execution is recorded as the number of bytes it
+ * allocated, rather than its peak memory: as plugins run concurrently, the
+ * heap in use cannot be attributed to a single execution.
+ * 
+ * Executions are queued by the executing threads, and written in batches by a
+ * background thread, which also reads the existing history once at startup.
+ * From the history, statistics on the runtimes of each plugin can be
+ * obtained, for example to predict the cost of an invocation. Statistics
+ * cover the last MAX_SAMPLES executions of a plugin method, and include
+ * executions of this session once they are written. Only these executions are
+ * kept: when reading the history, older ones are removed from the file.
+ */
+public class PluginExecutionHistory {
+
+	public static final String FILE_NAME = "execution-history.tsv";
+
+	/**
+	 * The maximal number of executions per plugin method kept for statistics.
+	 */
+	public static final int MAX_SAMPLES = 1000;
+
+	private static final long FLUSH_INTERVAL = 1000;
+
+	private static PluginExecutionHistory instance = null;
+
+	/**
+	 * The outcome of an execution.
+	 */
+	public static enum Outcome {
+		COMPLETED, FAILED, CANCELLED
+	}
+
+	/**
+	 * One execution of a plugin method.
+	 */
+	public static class Execution {
+
+		private final long time;
+		private final String plugin;
+		private final int methodIndex;
+		private final String method;
+		private final String[] inputTypes;
+		private final long[] inputSizes;
+		private final long duration;
+		private final Outcome outcome;
+		private final long cpuTime;
+		private final long allocatedBytes;
+
+		private Execution(long time, String plugin, int methodIndex, String method, String[] inputTypes,
+				long[] inputSizes, long duration, Outcome outcome, long cpuTime, long allocatedBytes) {
+			this.time = time;
+			this.plugin = plugin;
+			this.methodIndex = methodIndex;
+			this.method = method;
+			this.inputTypes = inputTypes;
+			this.inputSizes = inputSizes;
+			this.duration = duration;
+			this.outcome = outcome;
+			this.cpuTime = cpuTime;
+			this.allocatedBytes = allocatedBytes;
+		}
+
+		/**
+		 * Returns the time the execution ended, in milliseconds since the
+		 * epoch.
+		 * 
+		 * @return
+		 */
+		public long getTime() {
+			return time;
+		}
+
+		/**
+		 * Returns the ID of the plugin, as a string.
+		 * 
+		 * @return
+		 */
+		public String getPlugin() {
+			return plugin;
+		}
+
+		public int getMethodIndex() {
+			return methodIndex;
+		}
+
+		public String getMethodLabel() {
+			return method;
+		}
+
+		public String[] getInputTypes() {
+			return inputTypes.clone();
+		}
+
+		/**
+		 * Returns the sizes of the inputs, see getSize(). Inputs without a
+		 * size have size -1.
+		 * 
+		 * @return
+		 */
+		public long[] getInputSizes() {
+			return inputSizes.clone();
+		}
+
+		/**
+		 * Returns the sum of the known input sizes.
+		 * 
+		 * @return
+		 */
+		public long getTotalInputSize() {
+			long total = 0;
+			for (long size : inputSizes) {
+				if (size > 0) {
+					total += size;
+				}
+			}
+			return total;
+		}
+
+		/**
+		 * Returns the wall-clock duration of the execution, in milliseconds.
+		 * 
+		 * @return
+		 */
+		public long getDuration() {
+			return duration;
+		}
+
+		public Outcome getOutcome() {
+			return outcome;
+		}
+
+		/**
+		 * Returns the CPU time in nanoseconds, or 0 if it was not measured.
+		 * 
+		 * @return
+		 */
+		public long getCpuTime() {
+			return cpuTime;
+		}
+
+		/**
+		 * Returns the number of bytes allocated by the execution, or 0 if it
+		 * was not measured.
+		 * 
+		 * @return
+		 */
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+
+		private String format() {
+			StringBuilder builder = new StringBuilder();
+			builder.append(time).append('\t').append(clean(plugin)).append('\t').append(methodIndex).append('\t');
+			builder.append(clean(method)).append('\t');
+			for (int i = 0; i < inputTypes.length; i++) {
+				builder.append(i == 0 ? "" : ",").append(clean(inputTypes[i]));
+			}
+			builder.append('\t');
+			for (int i = 0; i < inputSizes.length; i++) {
+				builder.append(i == 0 ? "" : ",").append(inputSizes[i]);
+			}
+			builder.append('\t').append(duration).append('\t').append(outcome).append('\t').append(cpuTime);
+			builder.append('\t').append(allocatedBytes);
+			return builder.toString();
+		}
+
+		private static String clean(String s) {
+			return s == null ? "" : s.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+		}
+
+		/**
+		 * Parses a line written by format(), or returns null if the line is
+		 * malformed.
+		 */
+		private static Execution parse(String line) {
+			String[] fields = line.split("\t", -1);
+			if (fields.length != 10) {
+				return null;
+			}
+			try {
+				String[] types = fields[4].length() == 0 ? new String[0] : fields[4].split(",");
+				String[] sizeFields = fields[5].length() == 0 ? new String[0] : fields[5].split(",");
+				long[] sizes = new long[sizeFields.length];
+				for (int i = 0; i < sizes.length; i++) {
+					sizes[i] = Long.parseLong(sizeFields[i]);
+				}
+				return new Execution(Long.parseLong(fields[0]), fields[1], Integer.parseInt(fields[2]), fields[3],
+						types, sizes, Long.parseLong(fields[6]), Outcome.valueOf(fields[7]),
+						Long.parseLong(fields[8]), Long.parseLong(fields[9]));
+			} catch (IllegalArgumentException e) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Statistics on the recent executions of a plugin method, or of all
+	 * methods of a plugin.
+	 */
+	public static class Statistics {
+
+		private final int executions;
+		private final int failures;
+		private final long[] durations;
+		private final List<Execution> completed;
+
+		private Statistics(List<Execution> executions) {
+			this.executions = executions.size();
+			completed = new ArrayList<Execution>(executions.size());
+			int failed = 0;
+			for (Execution execution : executions) {
+				if (execution.getOutcome() == Outcome.COMPLETED) {
+					completed.add(execution);
+				} else if (execution.getOutcome() == Outcome.FAILED) {
+					failed++;
+				}
+			}
+			failures = failed;
+			durations = new long[completed.size()];
+			for (int i = 0; i < durations.length; i++) {
+				durations[i] = completed.get(i).getDuration();
+			}
+			Arrays.sort(durations);
+		}
+
+		public int getExecutionCount() {
+			return executions;
+		}
+
+		public int getFailureCount() {
+			return failures;
+		}
+
+		/**
+		 * Returns the number of executions that completed successfully. Only
+		 * these are taken into account for runtimes.
+		 * 
+		 * @return
+		 */
+		public int getCompletedCount() {
+			return durations.length;
+		}
+
+		/**
+		 * Returns the given percentile of the runtimes, in milliseconds, or -1
+		 * if no execution completed.
+		 * 
+		 * @param percentile
+		 *            between 0 and 100.
+		 * @return
+		 */
+		public long getRuntimePercentile(double percentile) {
+			if (durations.length == 0) {
+				return -1;
+			}
+			// Nearest rank
+			int rank = (int) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100.0 * durations.length);
+			return durations[Math.max(0, rank - 1)];
+		}
+
+		/**
+		 * Returns the mean runtime, in milliseconds, or -1 if no execution
+		 * completed.
+		 * 
+		 * @return
+		 */
+		public double getMeanRuntime() {
+			if (durations.length == 0) {
+				return -1;
+			}
+			double sum = 0;
+			for (long duration : durations) {
+				sum += duration;
+			}
+			return sum / durations.length;
+		}
+
+		/**
+		 * Returns the executions that completed successfully, oldest first.
+		 * 
+		 * @return
+		 */
+		public List<Execution> getCompletedExecutions() {
+			return new ArrayList<Execution>(completed);
+		}
+
+		public String toString() {
+			return executions + " executions, " + failures + " failed, median " + getRuntimePercentile(50)
+					+ " ms, 90th percentile " + getRuntimePercentile(90) + " ms";
+		}
+	}
+
+	private final File file;
+	private final boolean enabled;
+	// Released once the file is read, such that no execution is written before
+	private final CountDownLatch loaded = new CountDownLatch(1);
+	private final ConcurrentLinkedQueue<Execution> pending = new ConcurrentLinkedQueue<Execution>();
+	// The recent executions per plugin, and per method of that plugin
+	private final Map<String, Map<Integer, List<Execution>>> history;
+	private Writer writer = null;
+	private ScheduledExecutorService flusher = null;
+	private Thread shutdownHook = null;
+	private volatile boolean closed = false;
+
+	/**
+	 * Creates a history kept in the given file, which is enabled if
+	 * Boot.EXECUTION_HISTORY is set.
+	 * 
+	 * @param file
+	 */
+	public PluginExecutionHistory(File file) {
+		this(file, Boot.EXECUTION_HISTORY);
+	}
+
+	/**
+	 * Creates a history kept in the given file. If enabled, the file is read
+	 * in the background, and executions recorded hereafter are written to it.
+	 * Otherwise, executions are not recorded at all.
+	 * 
+	 * @param file
+	 * @param enabled
+	 */
+	public PluginExecutionHistory(File file, boolean enabled) {
+		this.file = file;
+		this.enabled = enabled;
+		history = new HashMap<String, Map<Integer, List<Execution>>>();
+		if (!enabled) {
+			loaded.countDown();
+			return;
+		}
+		flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "ProM execution history writer");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		flusher.execute(new Runnable() {
+			public void run() {
+				load();
+			}
+		});
+		flusher.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				flush();
+			}
+		}, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+		shutdownHook = new Thread() {
+			public void run() {
+				flush();
+			}
+		};
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+	}
+
+	/**
+	 * Writes the pending executions, and stops writing the history. Executions
+	 * recorded hereafter are ignored.
+	 */
+	public void close() {
+		closed = true;
+		if (flusher == null) {
+			return;
+		}
+		flusher.shutdown();
+		try {
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		} catch (IllegalStateException e) {
+			// The JVM is shutting down, and the hook flushes anyway
+		}
+		flush();
+		synchronized (this) {
+			closeWriter();
+		}
+	}
+
+	/**
+	 * Returns the singleton instance of the history.
+	 * 
+	 * @return
+	 */
+	public static synchronized PluginExecutionHistory getInstance() {
+		if (instance == null) {
+			instance = new PluginExecutionHistory(new File(Boot.WORKSPACE_FOLDER, FILE_NAME));
+		}
+		return instance;
+	}
+
+	/**
+	 * Returns the size of the given input, i.e. the number of elements of a
+	 * collection, map, or array, or the length of a string. Returns -1 for
+	 * other objects.
+	 * 
+	 * @param input
+	 * @return
+	 */
+	public static long getSize(Object input) {
+		if (input instanceof Collection<?>) {
+			return ((Collection<?>) input).size();
+		} else if (input instanceof Map<?, ?>) {
+			return ((Map<?, ?>) input).size();
+		} else if ((input != null) && input.getClass().isArray()) {
+			return Array.getLength(input);
+		} else if (input instanceof CharSequence) {
+			return ((CharSequence) input).length();
+		}
+		return -1;
+	}
+
+	/**
+	 * Adds an execution of the given plugin method to the history. The
+	 * execution is written in the background.
+	 * 
+	 * @param plugin
+	 * @param methodIndex
+	 * @param inputs
+	 *            the inputs of the plugin, without the context.
+	 * @param duration
+	 *            in milliseconds.
+	 * @param outcome
+	 * @param cpuTime
+	 *            in nanoseconds.
+	 * @param allocatedBytes
+	 */
+	public void record(PluginDescriptor plugin, int methodIndex, Object[] inputs, long duration, Outcome outcome,
+			long cpuTime, long allocatedBytes) {
+		if (!enabled || closed) {
+			return;
+		}
+		String[] types = new String[inputs.length];
+		long[] sizes = new long[inputs.length];
+		for (int i = 0; i < inputs.length; i++) {
+			types[i] = inputs[i] == null ? "null" : inputs[i].getClass().getName();
+			sizes[i] = getSize(inputs[i]);
+		}
+		pending.add(new Execution(System.currentTimeMillis(), plugin.getID().toString(), methodIndex,
+				plugin.getMethodLabel(methodIndex), types, sizes, duration, outcome, cpuTime, allocatedBytes));
+	}
+
+	/**
+	 * Returns statistics on the recent executions of the given plugin method.
+	 * 
+	 * @param plugin
+	 * @param methodIndex
+	 * @return
+	 */
+	public Statistics getStatistics(PluginDescriptorID plugin, int methodIndex) {
+		synchronized (history) {
+			Map<Integer, List<Execution>> methods = history.get(plugin.toString());
+			List<Execution> executions = methods == null ? null : methods.get(methodIndex);
+			return new Statistics(executions == null ? new ArrayList<Execution>(0) : executions);
+		}
+	}
+
+	/**
+	 * Returns statistics on the recent executions of all methods of the given
+	 * plugin.
+	 * 
+	 * @param plugin
+	 * @return
+	 */
+	public Statistics getStatistics(PluginDescriptorID plugin) {
+		List<Execution> executions = new ArrayList<Execution>();
+		synchronized (history) {
+			Map<Integer, List<Execution>> methods = history.get(plugin.toString());
+			if (methods != null) {
+				for (List<Execution> list : methods.values()) {
+					executions.addAll(list);
+				}
+			}
+		}
+		return new Statistics(executions);
+	}
+
+	/**
+	 * Returns the given percentile of the runtimes of the given plugin method,
+	 * in milliseconds, or -1 if it never completed.
+	 * 
+	 * @param plugin
+	 * @param methodIndex
+	 * @param percentile
+	 *            between 0 and 100.
+	 * @return
+	 */
+	public long getRuntimePercentile(PluginDescriptorID plugin, int methodIndex, double percentile) {
+		return getStatistics(plugin, methodIndex).getRuntimePercentile(percentile);
+	}
+
+	private void add(Execution execution) {
+		synchronized (history) {
+			Map<Integer, List<Execution>> methods = history.get(execution.getPlugin());
+			if (methods == null) {
+				methods = new HashMap<Integer, List<Execution>>();
+				history.put(execution.getPlugin(), methods);
+			}
+			List<Execution> executions = methods.get(execution.getMethodIndex());
+			if (executions == null) {
+				executions = new ArrayList<Execution>();
+				methods.put(execution.getMethodIndex(), executions);
+			}
+			executions.add(execution);
+			if (executions.size() > MAX_SAMPLES) {
+				executions.remove(0);
+			}
+		}
+	}
+
+	/**
+	 * Reads the executions of earlier sessions, and removes the ones that are
+	 * no longer kept from the file.
+	 */
+	private void load() {
+		try {
+			synchronized (this) {
+				if (file.exists()) {
+					read();
+				}
+			}
+		} finally {
+			loaded.countDown();
+		}
+	}
+
+	private void read() {
+		int lines = 0;
+		try {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					lines++;
+					Execution execution = Execution.parse(line);
+					if (execution != null) {
+						add(execution);
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (IOException e) {
+			System.err.println("Cannot read execution history from " + file + ": " + e.getMessage());
+			return;
+		}
+		List<Execution> kept = new ArrayList<Execution>();
+		synchronized (history) {
+			for (Map<Integer, List<Execution>> methods : history.values()) {
+				for (List<Execution> executions : methods.values()) {
+					kept.addAll(executions);
+				}
+			}
+		}
+		if (kept.size() < lines) {
+			compact(kept);
+		}
+	}
+
+	/**
+	 * Replaces the file by one holding only the given executions, in the order
+	 * in which they ended.
+	 */
+	private void compact(List<Execution> kept) {
+		Collections.sort(kept, new Comparator<Execution>() {
+			public int compare(Execution e1, Execution e2) {
+				return Long.compare(e1.getTime(), e2.getTime());
+			}
+		});
+		File compacted = new File(file.getPath() + ".tmp");
+		// The file is replaced, so later executions are appended to the new one
+		closeWriter();
+		try {
+			Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(compacted), "UTF-8"));
+			try {
+				for (Execution execution : kept) {
+					out.write(execution.format());
+					out.write('\n');
+				}
+			} finally {
+				out.close();
+			}
+			Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			System.err.println("Cannot compact execution history in " + file + ": " + e.getMessage());
+			compacted.delete();
+		}
+	}
+
+	private void closeWriter() {
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				System.err.println("Cannot close execution history in " + file + ": " + e.getMessage());
+			}
+			writer = null;
+		}
+	}
+
+	/**
+	 * Writes all pending executions to the history, and makes them available
+	 * for statistics. Waits until the file is read first.
+	 */
+	public void flush() {
+		try {
+			loaded.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		synchronized (this) {
+			write();
+		}
+	}
+
+	private void write() {
+		if (pending.isEmpty()) {
+			return;
+		}
+		try {
+			if (writer == null) {
+				file.getParentFile().mkdirs();
+				writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), "UTF-8"));
+			}
+		} catch (IOException e) {
+			System.err.println("Cannot write execution history to " + file + ": " + e.getMessage());
+		}
+		Execution execution;
+		while ((execution = pending.poll()) != null) {
+			add(execution);
+			if (writer != null) {
+				try {
+					writer.write(execution.format());
+					writer.write('\n');
+				} catch (IOException e) {
+					System.err.println("Cannot write execution history to " + file + ": " + e.getMessage());
+					closeWriter();
+				}
+			}
+		}
+		if (writer != null) {
+			try {
+				writer.flush();
+			} catch (IOException e) {
+				System.err.println("Cannot write execution history to " + file + ": " + e.getMessage());
+				closeWriter();
+			}
+		}
+	}
+}
@@ -8,6 +8,7 @@ import org.processmining.framework.plugin.IncorrectReturnTypeException;
 import org.processmining.framework.plugin.PluginDescriptor;
 import org.processmining.framework.plugin.PluginExecutionResult;
 import org.processmining.framework.plugin.ProMFuture;
+import org.processmining.framework.plugin.ResourceUsage;
 import org.processmining.framework.plugin.events.NameChangeListener;
 import org.processmining.framework.providedobjects.ProvidedObjectID;
 import org.processmining.framework.util.Cast;
@@ -22,6 +23,7 @@ public class PluginExecutionResultImpl implements PluginExecutionResult {
 	private final ProvidedObjectID[] ids;
 	private Object[] parameters;
 	private final PluginDescriptor plugin;
+	private ResourceUsage usage = new ResourceUsage();
 
 	public PluginExecutionResultImpl(Class<?>[] returnTypes, String[] returnNames, PluginDescriptor plugin) {
 		this.returnNames = returnNames;
@@ -123,6 +125,14 @@ public class PluginExecutionResultImpl implements PluginExecutionResult {
 		return ids[i];
 	}
 
+	/**
+	 * Returns the array holding the IDs of the provided objects for the
+	 * results, which is filled in as the provided objects are created.
+	 */
+	ProvidedObjectID[] getProvidedObjectIDs() {
+		return ids;
+	}
+
 	public void setInput(Object[] parameters) {
 		this.parameters = parameters;
 	}
@@ -131,6 +141,14 @@ public class PluginExecutionResultImpl implements PluginExecutionResult {
 		return parameters;
 	}
 
+	public void setResourceUsage(ResourceUsage usage) {
+		this.usage = usage;
+	}
+
+	public ResourceUsage getResourceUsage() {
+		return usage;
+	}
+
 	@SuppressWarnings("unchecked")
 	public <T> Class<? super T> getType(int i) {
 		return (Class<? super T>) returnTypes[i];
@@ -0,0 +1,154 @@
+package org.processmining.framework.plugin.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.ResourceUsage;
+
+/**
+ * Collects the resources used by each plugin during this session. For every
+ * plugin, the report holds the number of completed invocations and the CPU
+ * time and heap allocation spent by the plugin itself, i.e. excluding the
+ * plugins it invoked, which are accounted for separately. Hence, the totals of
+ * all plugins add up to the resources used by all plugins together.
+ * 
+ * The report of the whole session is returned by getInstance(). Separate
+ * reports can be created as well: the plugins of a tenant are recorded in the
+ * report of that tenant instead.
+ * Plugins cancelled before they started are not recorded.
+ */
+public class PluginResourceReport {
+
+	private static PluginResourceReport instance = null;
+
+	/**
+	 * The resources used by one plugin.
+	 */
+	public static class Entry {
+
+		private final PluginDescriptor plugin;
+		private long invocations = 0;
+		private long cpuTime = 0;
+		private long allocatedBytes = 0;
+
+		private Entry(PluginDescriptor plugin) {
+			this.plugin = plugin;
+		}
+
+		private Entry(Entry entry) {
+			plugin = entry.plugin;
+			invocations = entry.invocations;
+			cpuTime = entry.cpuTime;
+			allocatedBytes = entry.allocatedBytes;
+		}
+
+		public PluginDescriptor getPlugin() {
+			return plugin;
+		}
+
+		public long getInvocationCount() {
+			return invocations;
+		}
+
+		/**
+		 * Returns the CPU time in nanoseconds.
+		 * 
+		 * @return
+		 */
+		public long getCpuTime() {
+			return cpuTime;
+		}
+
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+	}
+
+	private final Map<PluginDescriptor, Entry> entries = new LinkedHashMap<PluginDescriptor, Entry>();
+
+	public PluginResourceReport() {
+	}
+
+	/**
+	 * Returns the singleton instance of the report.
+	 * 
+	 * @return
+	 */
+	public static synchronized PluginResourceReport getInstance() {
+		if (instance == null) {
+			instance = new PluginResourceReport();
+		}
+		return instance;
+	}
+
+	/**
+	 * Adds an invocation of the given plugin, which used the given resources.
+	 * 
+	 * @param plugin
+	 * @param usage
+	 */
+	public synchronized void record(PluginDescriptor plugin, ResourceUsage usage) {
+		Entry entry = entries.get(plugin);
+		if (entry == null) {
+			entry = new Entry(plugin);
+			entries.put(plugin, entry);
+		}
+		entry.invocations++;
+		entry.cpuTime += usage.getOwnCpuTime();
+		entry.allocatedBytes += usage.getOwnAllocatedBytes();
+	}
+
+	/**
+	 * Returns the resources used by the given plugin, or null if the plugin
+	 * was not invoked yet.
+	 * 
+	 * @param plugin
+	 * @return
+	 */
+	public synchronized Entry getEntry(PluginDescriptor plugin) {
+		Entry entry = entries.get(plugin);
+		return entry == null ? null : new Entry(entry);
+	}
+
+	/**
+	 * Returns the resources used by all plugins invoked so far, in descending
+	 * order of CPU time.
+	 * 
+	 * @return
+	 */
+	public synchronized List<Entry> getEntries() {
+		List<Entry> list = new ArrayList<Entry>(entries.size());
+		for (Entry entry : entries.values()) {
+			list.add(new Entry(entry));
+		}
+		Collections.sort(list, new Comparator<Entry>() {
+			public int compare(Entry e1, Entry e2) {
+				return Long.compare(e2.cpuTime, e1.cpuTime);
+			}
+		});
+		return list;
+	}
+
+	/**
+	 * Forgets all invocations recorded so far.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append(String.format("%-50s %12s %14s %16s%n", "Plug-in", "Invocations", "CPU time (ms)",
+				"Allocated (KB)"));
+		for (Entry entry : getEntries()) {
+			builder.append(String.format("%-50s %12d %14d %16d%n", entry.plugin.getName(), entry.invocations,
+					entry.cpuTime / 1000000, entry.allocatedBytes / 1024));
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,310 @@
+package org.processmining.framework.plugin.impl;
+
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.processmining.framework.boot.Boot;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginDescriptorID;
+import org.processmining.framework.plugin.ProMFuture;
+import org.processmining.framework.providedobjects.ProvidedObjectID;
+
+/**
+ * Cache for the results of deterministic plugins, i.e. plugins annotated with
+ * <code>@Plugin(deterministic = true)</code>.
+ * 
+ * Results are keyed by the global context they were computed in, the plugin,
+ * the method index and the identity of the input objects. The cache is bounded
+ * in size (see Boot.RESULT_CACHE_SIZE), in which case the least recently used
+ * result is evicted, and in memory, as results are only softly referenced.
+ * Global contexts and input objects are weakly referenced by the keys, such
+ * that caching does not keep them alive.
+ * 
+ * Note that a cached result is shared between all invocations that hit it.
+ * Along with a result, the cache keeps the IDs of the provided objects created
+ * for it, such that an invocation that hits the result reuses these provided
+ * objects, and the connections between them, rather than providing the same
+ * objects again.
+ */
+public class PluginResultCache {
+
+	private static PluginResultCache instance = null;
+
+	private static class CachedResult {
+		private final SoftReference<Object[]> result;
+		private final ProvidedObjectID[] providedObjectIDs;
+
+		private CachedResult(Object[] result, ProvidedObjectID[] providedObjectIDs) {
+			this.result = new SoftReference<Object[]>(result);
+			this.providedObjectIDs = providedObjectIDs;
+		}
+	}
+
+	private final Map<Key, CachedResult> cache;
+
+	private PluginResultCache(final int maxSize) {
+		cache = new LinkedHashMap<Key, CachedResult>(16, 0.75f, true) {
+			private static final long serialVersionUID = -4470187412867302316L;
+
+			protected boolean removeEldestEntry(Map.Entry<Key, CachedResult> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Returns the singleton instance of the cache.
+	 * 
+	 * @return
+	 */
+	public static synchronized PluginResultCache getInstance() {
+		if (instance == null) {
+			instance = new PluginResultCache(Boot.RESULT_CACHE_SIZE);
+		}
+		return instance;
+	}
+
+	/**
+	 * Creates the cache key for invoking the given method of the given plugin
+	 * on the given arguments in the given context. As keys are based on the
+	 * identity of the inputs, no key can be created if some input is a future
+	 * which is not done yet, or which did not complete normally.
+	 * 
+	 * @param context
+	 *            the context the plugin is invoked in. Results are only
+	 *            reused within the global context they were computed in, as
+	 *            identified by its provided object manager.
+	 * @param plugin
+	 * @param methodIndex
+	 * @param args
+	 *            the arguments as passed to PluginDescriptor.invoke().
+	 * @return the key, or null if no key can be created.
+	 */
+	public static Key createKey(PluginContext context, PluginDescriptor plugin, int methodIndex, Object... args) {
+		List<Object> inputs = new ArrayList<Object>(args.length);
+		int[] shape = new int[args.length];
+		for (int i = 0; i < args.length; i++) {
+			if (args[i] instanceof Object[]) {
+				Object[] array = (Object[]) args[i];
+				shape[i] = array.length;
+				for (Object element : array) {
+					Object input = resolve(element);
+					if (input == null) {
+						return null;
+					}
+					inputs.add(input);
+				}
+			} else {
+				shape[i] = -1;
+				Object input = resolve(args[i]);
+				if (input == null) {
+					return null;
+				}
+				inputs.add(input);
+			}
+		}
+		return new Key(context.getProvidedObjectManager(), plugin.getID(), methodIndex, shape, inputs);
+	}
+
+	private static Object resolve(Object object) {
+		if (object instanceof ProMFuture<?>) {
+			ProMFuture<?> future = (ProMFuture<?>) object;
+			if (!future.isDone() || future.isCancelled()) {
+				return null;
+			}
+			try {
+				return future.get();
+			} catch (Exception e) {
+				return null;
+			}
+		}
+		return object;
+	}
+
+	/**
+	 * Returns the cached results for the given key, or null if there are none.
+	 * The returned array should not be modified.
+	 * 
+	 * @param key
+	 * @return
+	 */
+	public synchronized Object[] get(Key key) {
+		CachedResult entry = cache.get(key);
+		if (entry == null) {
+			return null;
+		}
+		Object[] result = entry.result.get();
+		if ((result == null) || key.isStale()) {
+			cache.remove(key);
+			return null;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the IDs of the provided objects created for the cached results
+	 * for the given key, or null if there are no such results. An ID is null
+	 * if no provided object was created for the corresponding result. The
+	 * returned array should not be modified.
+	 * 
+	 * @param key
+	 * @return
+	 */
+	public synchronized ProvidedObjectID[] getProvidedObjectIDs(Key key) {
+		CachedResult entry = cache.get(key);
+		return entry == null ? null : entry.providedObjectIDs;
+	}
+
+	/**
+	 * Stores the given results under the given key. The results should be
+	 * complete, i.e. they should not contain any futures.
+	 * 
+	 * @param key
+	 * @param result
+	 * @param providedObjectIDs
+	 *            the IDs of the provided objects for the results, which may
+	 *            still be filled in by the caller after the results are
+	 *            stored.
+	 */
+	public synchronized void put(Key key, Object[] result, ProvidedObjectID[] providedObjectIDs) {
+		purge();
+		cache.put(key, new CachedResult(result, providedObjectIDs));
+	}
+
+	/**
+	 * Removes all results that were computed from, or that contain, the given
+	 * object. This method should be called whenever an object is changed.
+	 * 
+	 * @param object
+	 */
+	public synchronized void invalidate(Object object) {
+		Iterator<Map.Entry<Key, CachedResult>> it = cache.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Key, CachedResult> entry = it.next();
+			Object[] result = entry.getValue().result.get();
+			if ((result == null) || entry.getKey().isStale() || entry.getKey().contains(object)) {
+				it.remove();
+				continue;
+			}
+			for (Object o : result) {
+				if (o == object) {
+					it.remove();
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all results from the cache.
+	 */
+	public synchronized void clear() {
+		cache.clear();
+	}
+
+	/**
+	 * Returns the number of results in the cache.
+	 * 
+	 * @return
+	 */
+	public synchronized int size() {
+		return cache.size();
+	}
+
+	/**
+	 * Removes all results that have been garbage collected, or of which one of
+	 * the inputs has been garbage collected.
+	 */
+	private void purge() {
+		Iterator<Map.Entry<Key, CachedResult>> it = cache.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Key, CachedResult> entry = it.next();
+			if ((entry.getValue().result.get() == null) || entry.getKey().isStale()) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Key of a cached result. Two keys are equal if they refer to the same
+	 * global context, the same plugin method, and to identical inputs.
+	 */
+	public static class Key {
+
+		private final WeakReference<Object> scope;
+		private final PluginDescriptorID plugin;
+		private final int methodIndex;
+		private final int[] shape;
+		private final List<WeakReference<Object>> inputs;
+		private final int hash;
+
+		private Key(Object scope, PluginDescriptorID plugin, int methodIndex, int[] shape, List<Object> inputs) {
+			this.scope = new WeakReference<Object>(scope);
+			this.plugin = plugin;
+			this.methodIndex = methodIndex;
+			this.shape = shape;
+			this.inputs = new ArrayList<WeakReference<Object>>(inputs.size());
+			int h = 31 * System.identityHashCode(scope) + plugin.hashCode();
+			h = 31 * h + methodIndex;
+			h = 31 * h + Arrays.hashCode(shape);
+			for (Object input : inputs) {
+				this.inputs.add(new WeakReference<Object>(input));
+				h = 31 * h + System.identityHashCode(input);
+			}
+			hash = h;
+		}
+
+		boolean isStale() {
+			if (scope.get() == null) {
+				return true;
+			}
+			for (WeakReference<Object> input : inputs) {
+				if (input.get() == null) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		boolean contains(Object object) {
+			for (WeakReference<Object> input : inputs) {
+				if (input.get() == object) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) o;
+			if ((hash != key.hash) || (methodIndex != key.methodIndex) || !plugin.equals(key.plugin)
+					|| !Arrays.equals(shape, key.shape) || (inputs.size() != key.inputs.size())) {
+				return false;
+			}
+			if ((scope.get() == null) || (scope.get() != key.scope.get())) {
+				return false;
+			}
+			for (int i = 0; i < inputs.size(); i++) {
+				Object input = inputs.get(i).get();
+				if ((input == null) || (input != key.inputs.get(i).get())) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
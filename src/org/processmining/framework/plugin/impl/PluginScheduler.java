@@ -0,0 +1,500 @@
+package org.processmining.framework.plugin.impl;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.processmining.framework.boot.Boot;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginPriority;
+import org.processmining.framework.plugin.Progress;
+import org.processmining.framework.plugin.annotations.PluginWorkload;
+
+/**
+ * The plugin scheduler decides on which executor a plugin is run.
+ * 
+ * Plugins declaring an I/O-bound workload are run on virtual threads if the
+ * Java runtime supports them, and on an unbounded pool of cached threads
+ * otherwise. Plugins declaring a CPU-bound workload are run on a work-stealing
+ * pool with as many threads as there are processors. All other plugins, and
+ * all plugins of tenants, are run on the executor of the context they are
+ * invoked from, such that tenants do not compete for the shared pools.
+ * 
+ * Furthermore, the scheduler keeps track of the running plugins, such that
+ * plugins up to a given priority can be suspended in favour of plugins of
+ * higher priority, and resumed later on.
+ * 
+ * Plugins that are not invoked from within a running plugin are queued by
+ * priority. At most as many of them run on a pool at the same time as the pool
+ * has threads, such that plugins waiting for a busy pool (like the one for
+ * CPU-bound plugins) are started in the order of their priority, rather than
+ * in the order of the pool. Moreover, at most Boot.MAX_RUNNING_PLUGINS of them
+ * run at the same time (if positive). Plugins of suspended priorities remain
+ * queued. To avoid starvation, a queued plugin is raised one priority level for
+ * every AGING_INTERVAL it waits. Plugins of equal (raised) priority are started
+ * in the order in which they were queued.
+ * 
+ * Progresses are suspended and resumed without holding any lock of the
+ * scheduler, as they notify their listeners.
+ */
+public class PluginScheduler {
+
+	private static final long AGING_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+	private static PluginScheduler instance = null;
+
+	private static class Queued {
+		private final PluginPriority priority;
+		private final Executor executor;
+		private final Executor pool;
+		private final Runnable runnable;
+		private final long queued = System.nanoTime();
+
+		private Queued(PluginPriority priority, Executor executor, Executor pool, Runnable runnable) {
+			this.priority = priority;
+			this.executor = executor;
+			this.pool = pool;
+			this.runnable = runnable;
+		}
+	}
+
+	private final ExecutorService ioExecutor;
+	private final ForkJoinPool cpuExecutor;
+	private final Set<PluginContext> running = new HashSet<PluginContext>();
+	private final boolean[] suspended = new boolean[PluginPriority.values().length];
+
+	private final int maxRunning = Boot.MAX_RUNNING_PLUGINS;
+	private final LinkedList<Queued> queue = new LinkedList<Queued>();
+	private int dispatched = 0;
+	private final Map<Executor, Integer> dispatchedOn = new IdentityHashMap<Executor, Integer>();
+	private final long[] startedCount = new long[PluginPriority.values().length];
+	private final long[] totalWaitingTime = new long[PluginPriority.values().length];
+	private final long[] maximumWaitingTime = new long[PluginPriority.values().length];
+
+	private PluginScheduler() {
+		ioExecutor = createIOExecutor();
+		cpuExecutor = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+				ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+	}
+
+	/**
+	 * Returns the singleton instance of the scheduler.
+	 * 
+	 * @return
+	 */
+	public static synchronized PluginScheduler getInstance() {
+		if (instance == null) {
+			instance = new PluginScheduler();
+		}
+		return instance;
+	}
+
+	/**
+	 * Returns the executor on which the given plugin should be run, when
+	 * invoked in a child of the given context.
+	 * 
+	 * @param plugin
+	 * @param parentContext
+	 *            the context the plugin is invoked from.
+	 * @return
+	 */
+	public Executor getExecutor(PluginDescriptor plugin, PluginContext parentContext) {
+		if (parentContext instanceof TenantPluginContext) {
+			return parentContext.getExecutor();
+		}
+		return getExecutor(plugin.getWorkload(), parentContext.getExecutor());
+	}
+
+	/**
+	 * Returns the executor for the given workload.
+	 * 
+	 * @param workload
+	 * @param defaultExecutor
+	 *            the executor to use for PluginWorkload.Default.
+	 * @return
+	 */
+	public Executor getExecutor(PluginWorkload workload, Executor defaultExecutor) {
+		switch (workload) {
+			case IO :
+				return ioExecutor;
+			case CPU :
+				return cpuExecutor;
+			default :
+				return defaultExecutor;
+		}
+	}
+
+	/**
+	 * Returns an executor that executes tasks on the given executor, once they
+	 * are the first in the queue to be started with the given priority.
+	 * 
+	 * @param priority
+	 * @param executor
+	 * @return
+	 */
+	public Executor getPriorityExecutor(PluginPriority priority, Executor executor) {
+		return getPriorityExecutor(priority, executor, executor);
+	}
+
+	/**
+	 * Returns an executor that executes tasks on the given executor, once they
+	 * are the first in the queue to be started with the given priority, and
+	 * the given pool has a thread available for them.
+	 * 
+	 * @param priority
+	 * @param executor
+	 * @param pool
+	 *            the pool the given executor eventually runs the tasks on,
+	 *            which may be the executor itself.
+	 * @return
+	 */
+	public Executor getPriorityExecutor(final PluginPriority priority, final Executor executor,
+			final Executor pool) {
+		return new Executor() {
+			public void execute(Runnable runnable) {
+				synchronized (queue) {
+					queue.add(new Queued(priority, executor, pool, runnable));
+				}
+				dispatch();
+			}
+		};
+	}
+
+	/**
+	 * Starts queued plugins, as long as fewer than the maximum are running.
+	 */
+	private void dispatch() {
+		while (true) {
+			// The flags are copied first, such that the running lock is never
+			// taken while holding the queue
+			boolean[] suspendedNow;
+			synchronized (running) {
+				suspendedNow = suspended.clone();
+			}
+			Queued next;
+			synchronized (queue) {
+				if ((maxRunning > 0) && (dispatched >= maxRunning)) {
+					return;
+				}
+				next = poll(suspendedNow);
+				if (next == null) {
+					return;
+				}
+				dispatched++;
+				Integer count = dispatchedOn.get(next.pool);
+				dispatchedOn.put(next.pool, count == null ? 1 : count + 1);
+				int p = next.priority.ordinal();
+				long waitingTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - next.queued);
+				startedCount[p]++;
+				totalWaitingTime[p] += waitingTime;
+				maximumWaitingTime[p] = Math.max(maximumWaitingTime[p], waitingTime);
+			}
+			final Runnable runnable = next.runnable;
+			final Executor pool = next.pool;
+			try {
+				next.executor.execute(new Runnable() {
+					public void run() {
+						try {
+							runnable.run();
+						} finally {
+							finishedRunning(pool);
+						}
+					}
+				});
+			} catch (RuntimeException e) {
+				finishedRunning(pool);
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Removes and returns the queued plugin with the highest priority, after
+	 * aging, which is not suspended and of which the pool has a thread
+	 * available.
+	 */
+	private Queued poll(boolean[] suspendedNow) {
+		long now = System.nanoTime();
+		int highest = PluginPriority.values().length - 1;
+		Queued best = null;
+		int bestPriority = -1;
+		for (Queued queued : queue) {
+			if (suspendedNow[queued.priority.ordinal()] || isBusy(queued.pool)) {
+				continue;
+			}
+			int priority = (int) Math.min(highest, queued.priority.ordinal() + (now - queued.queued) / AGING_INTERVAL);
+			if (priority > bestPriority) {
+				best = queued;
+				bestPriority = priority;
+			}
+		}
+		if (best != null) {
+			for (Iterator<Queued> it = queue.iterator(); it.hasNext();) {
+				if (it.next() == best) {
+					it.remove();
+					break;
+				}
+			}
+		}
+		return best;
+	}
+
+	private boolean isBusy(Executor pool) {
+		Integer count = dispatchedOn.get(pool);
+		return (count != null) && (count >= getPoolSize(pool));
+	}
+
+	/**
+	 * Returns the number of threads of the given pool, as far as known.
+	 */
+	private static int getPoolSize(Executor pool) {
+		if (pool instanceof ForkJoinPool) {
+			return ((ForkJoinPool) pool).getParallelism();
+		} else if (pool instanceof ThreadPoolExecutor) {
+			return ((ThreadPoolExecutor) pool).getMaximumPoolSize();
+		}
+		return Integer.MAX_VALUE;
+	}
+
+	private void finishedRunning(Executor pool) {
+		synchronized (queue) {
+			dispatched--;
+			Integer count = dispatchedOn.get(pool);
+			if (count == 1) {
+				dispatchedOn.remove(pool);
+			} else {
+				dispatchedOn.put(pool, count - 1);
+			}
+		}
+		dispatch();
+	}
+
+	/**
+	 * Returns the number of plugins of the given priority waiting to be
+	 * started.
+	 * 
+	 * @param priority
+	 * @return
+	 */
+	public int getQueueLength(PluginPriority priority) {
+		synchronized (queue) {
+			int length = 0;
+			for (Queued queued : queue) {
+				if (queued.priority == priority) {
+					length++;
+				}
+			}
+			return length;
+		}
+	}
+
+	/**
+	 * Returns the number of plugins of the given priority started so far.
+	 * 
+	 * @param priority
+	 * @return
+	 */
+	public long getStartedCount(PluginPriority priority) {
+		synchronized (queue) {
+			return startedCount[priority.ordinal()];
+		}
+	}
+
+	/**
+	 * Returns the average time in milliseconds plugins of the given priority
+	 * waited in the queue.
+	 * 
+	 * @param priority
+	 * @return
+	 */
+	public long getAverageWaitingTime(PluginPriority priority) {
+		synchronized (queue) {
+			int p = priority.ordinal();
+			return startedCount[p] == 0 ? 0 : totalWaitingTime[p] / startedCount[p];
+		}
+	}
+
+	/**
+	 * Returns the maximal time in milliseconds a plugin of the given priority
+	 * waited in the queue.
+	 * 
+	 * @param priority
+	 * @return
+	 */
+	public long getMaximumWaitingTime(PluginPriority priority) {
+		synchronized (queue) {
+			return maximumWaitingTime[priority.ordinal()];
+		}
+	}
+
+	/**
+	 * Returns the number of queued plugins that are started and still running.
+	 * 
+	 * @return
+	 */
+	public int getRunningCount() {
+		synchronized (queue) {
+			return dispatched;
+		}
+	}
+
+	/**
+	 * Returns the executor used for I/O-bound plugins.
+	 * 
+	 * @return
+	 */
+	public Executor getIOExecutor() {
+		return ioExecutor;
+	}
+
+	/**
+	 * Returns the executor used for CPU-bound plugins.
+	 * 
+	 * @return
+	 */
+	public ForkJoinPool getCPUExecutor() {
+		return cpuExecutor;
+	}
+
+	/**
+	 * Registers the given context, in which a plugin starts. If the priority
+	 * of the context is suspended, the plugin is suspended right away.
+	 * 
+	 * @param context
+	 */
+	public void started(PluginContext context) {
+		boolean suspend;
+		synchronized (running) {
+			running.add(context);
+			suspend = suspended[context.getPriority().ordinal()];
+		}
+		if (suspend) {
+			update(context);
+		}
+	}
+
+	/**
+	 * Unregisters the given context, in which a plugin finished.
+	 * 
+	 * @param context
+	 */
+	public void finished(PluginContext context) {
+		synchronized (running) {
+			running.remove(context);
+		}
+	}
+
+	/**
+	 * Suspends all running plugins with the given priority or lower, as well
+	 * as such plugins that start hereafter, until they are resumed.
+	 * 
+	 * @param priority
+	 */
+	public void suspend(PluginPriority priority) {
+		for (PluginContext context : setSuspended(priority, true)) {
+			update(context);
+		}
+	}
+
+	/**
+	 * Resumes all suspended plugins with the given priority or lower.
+	 * 
+	 * @param priority
+	 */
+	public void resume(PluginPriority priority) {
+		for (PluginContext context : setSuspended(priority, false)) {
+			update(context);
+		}
+		// Start the plugins that remained queued
+		dispatch();
+	}
+
+	/**
+	 * Sets the flags of the given priority and lower, and returns the running
+	 * contexts they apply to.
+	 */
+	private List<PluginContext> setSuspended(PluginPriority priority, boolean suspend) {
+		List<PluginContext> contexts = new ArrayList<PluginContext>();
+		synchronized (running) {
+			for (int i = 0; i <= priority.ordinal(); i++) {
+				suspended[i] = suspend;
+			}
+			for (PluginContext context : running) {
+				if (context.getPriority().compareTo(priority) <= 0) {
+					contexts.add(context);
+				}
+			}
+		}
+		return contexts;
+	}
+
+	/**
+	 * Suspends or resumes the progress of the given context, according to the
+	 * flag of its priority. As the flag may change while the progress notifies
+	 * its listeners, it is checked again until the progress agrees with it (or
+	 * does not change anymore).
+	 */
+	private void update(PluginContext context) {
+		Progress progress = context.getProgress();
+		while (true) {
+			boolean suspend = isSuspended(context.getPriority());
+			boolean wasSuspended = progress.isSuspended();
+			if (suspend == wasSuspended) {
+				return;
+			}
+			if (suspend) {
+				progress.suspend();
+			} else {
+				progress.resume();
+			}
+			if (progress.isSuspended() == wasSuspended) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns whether plugins of the given priority are suspended.
+	 * 
+	 * @param priority
+	 * @return
+	 */
+	public boolean isSuspended(PluginPriority priority) {
+		synchronized (running) {
+			return suspended[priority.ordinal()];
+		}
+	}
+
+	private static ExecutorService createIOExecutor() {
+		try {
+			// Virtual threads are only available as of Java 21.
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (Exception e) {
+			return Executors.newCachedThreadPool(new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger(0);
+
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "ProM I/O plugin thread " + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,308 @@
+package org.processmining.framework.plugin.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.Progress;
+import org.processmining.framework.plugin.ResourceUsage;
+
+/**
+ * Implements the structured concurrency of a plugin context, i.e. the parallel
+ * loops and forked subtasks of the plugin running in that context.
+ * 
+ * A parallel loop is executed in a child context, whose progress counts the
+ * completed iterations and which is cancelled with the context. The iterations
+ * are divided into chunks, which are claimed one by one by the calling thread
+ * and by helpers on the executor of the context, such that threads that are
+ * done early take over the remaining work. The calling thread only waits for
+ * helpers that actually started, so a loop completes even if the executor has
+ * no thread to spare.
+ * 
+ * Forked subtasks run on the executor of the context. Waiting for a subtask
+ * that has not started yet executes it in the waiting thread.
+ */
+class PluginTaskScope {
+
+	// The number of chunks per thread, such that threads can balance the load
+	private static final int CHUNKS_PER_THREAD = 8;
+
+	private final PluginContext context;
+	private final List<ForkedTask<?>> forked = Collections.synchronizedList(new ArrayList<ForkedTask<?>>(0));
+
+	PluginTaskScope(PluginContext context) {
+		this.context = context;
+	}
+
+	private class ForkedTask<T> extends FutureTask<T> {
+
+		private ForkedTask(Callable<T> task) {
+			super(task);
+		}
+
+		public void run() {
+			if (context.getProgress().isCancelled()) {
+				cancel(false);
+			}
+			ResourceUsage usage = context.getResourceUsage();
+			usage.begin();
+			PluginWatchdog.getInstance().enter(context);
+			try {
+				super.run();
+			} finally {
+				PluginWatchdog.getInstance().exit(context);
+				usage.end();
+			}
+		}
+
+		public T get() throws InterruptedException, ExecutionException {
+			// Execute the task here if no other thread started it yet
+			run();
+			return super.get();
+		}
+
+		public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+				TimeoutException {
+			run();
+			return super.get(timeout, unit);
+		}
+
+		protected void done() {
+			forked.remove(this);
+		}
+	}
+
+	<T> Future<T> fork(Callable<T> task) {
+		ForkedTask<T> future = new ForkedTask<T>(task);
+		forked.add(future);
+		try {
+			context.getExecutor().execute(future);
+		} catch (RejectedExecutionException e) {
+			// The task is executed when it is joined
+		}
+		return future;
+	}
+
+	void join() throws InterruptedException {
+		while (true) {
+			ForkedTask<?> future;
+			synchronized (forked) {
+				if (forked.isEmpty()) {
+					return;
+				}
+				future = forked.get(0);
+			}
+			future.run();
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				// Failures are reported to whoever asks for the result
+			} catch (CancellationException e) {
+				// Idem
+			}
+			forked.remove(future);
+		}
+	}
+
+	/**
+	 * The body of a loop, executed for a chunk of consecutive iterations.
+	 */
+	private static interface Chunk {
+		void run(int chunk, int from, int to);
+	}
+
+	void parallelFor(int from, int to, final IntConsumer body) throws InterruptedException, ExecutionException {
+		run("Parallel loop", from, to, new Chunk() {
+			public void run(int chunk, int from, int to) {
+				for (int i = from; i < to; i++) {
+					body.accept(i);
+				}
+			}
+		});
+	}
+
+	<T, R> R mapReduce(Collection<? extends T> items, final Function<? super T, ? extends R> mapper,
+			final R identity, final BinaryOperator<R> reducer) throws InterruptedException, ExecutionException {
+		final List<? extends T> list = new ArrayList<T>(items);
+		final Object[] partials = new Object[getChunkCount(list.size())];
+		run("Map-reduce", 0, list.size(), new Chunk() {
+			public void run(int chunk, int from, int to) {
+				R partial = identity;
+				for (int i = from; i < to; i++) {
+					partial = reducer.apply(partial, mapper.apply(list.get(i)));
+				}
+				partials[chunk] = partial;
+			}
+		});
+		// Combine the chunks in order, so the reducer need not be commutative
+		R result = identity;
+		for (Object partial : partials) {
+			@SuppressWarnings("unchecked")
+			R r = (R) partial;
+			result = reducer.apply(result, r);
+		}
+		return result;
+	}
+
+	private static int getChunkCount(int size) {
+		return Math.min(size, Runtime.getRuntime().availableProcessors() * CHUNKS_PER_THREAD);
+	}
+
+	private void run(String label, final int from, final int to, final Chunk body) throws InterruptedException,
+			ExecutionException {
+		if (from >= to) {
+			return;
+		}
+		final int size = to - from;
+		final int chunks = getChunkCount(size);
+		final AtomicInteger next = new AtomicInteger(0);
+		final AtomicBoolean stop = new AtomicBoolean(false);
+		final Throwable[] failure = new Throwable[1];
+
+		final PluginContext loop = context.createChildContext(context.getLabel() + ": " + label);
+		final Progress progress = loop.getProgress();
+		progress.setMinimum(0);
+		progress.setMaximum(size);
+		progress.setValue(0);
+		progress.setIndeterminate(false);
+
+		final Runnable work = new Runnable() {
+			public void run() {
+				ResourceUsage usage = context.getResourceUsage();
+				usage.begin();
+				PluginWatchdog.getInstance().enter(context);
+				try {
+					runChunks();
+				} finally {
+					PluginWatchdog.getInstance().exit(context);
+					usage.end();
+				}
+			}
+
+			private void runChunks() {
+				int chunk;
+				while (!stop.get() && !isCancelled(progress) && ((chunk = next.getAndIncrement()) < chunks)) {
+					// Chunks differ in size by at most one iteration
+					int start = from + (int) ((long) chunk * size / chunks);
+					int end = from + (int) ((long) (chunk + 1) * size / chunks);
+					try {
+						body.run(chunk, start, end);
+					} catch (Throwable t) {
+						synchronized (failure) {
+							if (failure[0] == null) {
+								failure[0] = t;
+							}
+						}
+						stop.set(true);
+						return;
+					}
+					for (int i = start; i < end; i++) {
+						progress.inc();
+					}
+				}
+			}
+		};
+
+		int helperCount = Math.min(chunks, Runtime.getRuntime().availableProcessors()) - 1;
+		List<Helper> helpers = new ArrayList<Helper>(helperCount);
+		try {
+			for (int i = 0; i < helperCount; i++) {
+				Helper helper = new Helper(work);
+				helpers.add(helper);
+				try {
+					context.getExecutor().execute(helper);
+				} catch (RejectedExecutionException e) {
+					// The calling thread does the work
+				}
+			}
+			work.run();
+		} finally {
+			boolean interrupted = false;
+			for (Helper helper : helpers) {
+				while (true) {
+					try {
+						helper.join();
+						break;
+					} catch (InterruptedException e) {
+						// Stop as soon as possible, but do not leave helpers behind
+						interrupted = true;
+						stop.set(true);
+					}
+				}
+			}
+			context.deleteChild(loop);
+			if (interrupted) {
+				throw new InterruptedException();
+			}
+		}
+
+		if (failure[0] != null) {
+			throw new ExecutionException(failure[0]);
+		}
+		if (progress.isCancelled() && (next.get() < chunks)) {
+			throw new CancellationException();
+		}
+	}
+
+	/**
+	 * Waits while the given progress is suspended, and returns whether it is
+	 * cancelled. An interrupted thread stops as if cancelled.
+	 */
+	private static boolean isCancelled(Progress progress) {
+		try {
+			return progress.awaitResumed();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return true;
+		}
+	}
+
+	/**
+	 * Executes the given work on another thread, unless the work is joined
+	 * before that thread started.
+	 */
+	private static class Helper implements Runnable {
+
+		private final Runnable work;
+		private final AtomicBoolean claimed = new AtomicBoolean(false);
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		private Helper(Runnable work) {
+			this.work = work;
+		}
+
+		public void run() {
+			if (!claimed.compareAndSet(false, true)) {
+				return;
+			}
+			try {
+				work.run();
+			} finally {
+				done.countDown();
+			}
+		}
+
+		private void join() throws InterruptedException {
+			if (claimed.compareAndSet(false, true)) {
+				done.countDown();
+			}
+			done.await();
+		}
+	}
+}
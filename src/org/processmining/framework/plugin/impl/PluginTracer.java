@@ -0,0 +1,275 @@
+package org.processmining.framework.plugin.impl;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.processmining.framework.boot.Boot;
+import org.processmining.framework.plugin.PluginContext;
+
+/**
+ * Records the execution of plugins as spans in the Trace Event Format, which
+ * can be loaded in chrome://tracing or Perfetto. Tracing is enabled by setting
+ * Boot.TRACE_FILE to the file the trace should be written to, or by calling
+ * <code>open()</code>.
+ * 
+ * Each plugin context is an asynchronous span with the ID of the context,
+ * from its creation until the completion of its plugin. Work done on a thread
+ * on behalf of a context is a complete span on that thread. All spans carry
+ * the IDs of their context and of its parent context as arguments.
+ * 
+ * When tracing is disabled, every method of this class returns immediately.
+ * Callers should obtain start times through <code>start()</code>, which does
+ * not read the clock if tracing is disabled, and should only build span names
+ * if <code>isEnabled()</code> holds. Tracing is disabled as soon as the trace
+ * cannot be written, or is closed, such that no events pile up.
+ */
+public class PluginTracer {
+
+	/**
+	 * Whether tracing is configured. Use <code>isEnabled()</code> to check
+	 * whether events are recorded.
+	 */
+	public static final boolean ENABLED = (Boot.TRACE_FILE != null) && (Boot.TRACE_FILE.length() > 0);
+
+	private static final long FLUSH_INTERVAL = 1000;
+
+	private static final long origin = System.nanoTime();
+	private static final ConcurrentLinkedQueue<String> events = new ConcurrentLinkedQueue<String>();
+	private static ScheduledExecutorService flusher = null;
+	private static File file = null;
+	private static Writer writer = null;
+	private static boolean first = true;
+	private static volatile boolean enabled = false;
+
+	static {
+		if (ENABLED) {
+			open(new File(Boot.TRACE_FILE));
+		}
+	}
+
+	private PluginTracer() {
+	}
+
+	/**
+	 * Starts writing the trace to the given file, which is overwritten, unless
+	 * a trace is written already. The trace is completed by
+	 * <code>close()</code>, or when the JVM shuts down.
+	 * 
+	 * @param traceFile
+	 * @return whether the trace is written to the given file.
+	 */
+	public static synchronized boolean open(File traceFile) {
+		if (writer != null) {
+			return false;
+		}
+		file = traceFile;
+		first = true;
+		// Events recorded while the previous trace was closed are dropped
+		events.clear();
+		try {
+			writer = new BufferedWriter(new FileWriter(traceFile));
+			writer.write("[\n");
+		} catch (IOException e) {
+			System.err.println("Cannot write trace to " + file + ": " + e.getMessage());
+			disable();
+			return false;
+		}
+		if (flusher == null) {
+			flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "ProM trace writer");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			flusher.scheduleWithFixedDelay(new Runnable() {
+				public void run() {
+					flush(false);
+				}
+			}, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				public void run() {
+					flush(true);
+				}
+			});
+		}
+		enabled = true;
+		return true;
+	}
+
+	/**
+	 * Writes the pending events, completes the trace, and stops recording
+	 * events.
+	 */
+	public static void close() {
+		flush(true);
+	}
+
+	/**
+	 * Returns whether events are recorded.
+	 * 
+	 * @return
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Returns the start time for a span, or 0 if tracing is disabled.
+	 * 
+	 * @return
+	 */
+	public static long start() {
+		return enabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records a span from the given start time until now, on the current
+	 * thread.
+	 * 
+	 * @param name
+	 * @param context
+	 *            the context on behalf of which the work was done, or null.
+	 * @param start
+	 *            as returned by <code>start()</code>.
+	 */
+	public static void complete(String name, PluginContext context, long start) {
+		if (!enabled) {
+			return;
+		}
+		long now = System.nanoTime();
+		events.add("{\"name\":\"" + escape(name) + "\",\"cat\":\"plugin\",\"ph\":\"X\",\"ts\":"
+				+ micros(start) + ",\"dur\":" + ((now - start) / 1000) + ",\"pid\":1,\"tid\":"
+				+ Thread.currentThread().getId() + ",\"args\":" + args(context) + "}");
+	}
+
+	/**
+	 * Records a span from the given start time until now, on the track of the
+	 * given context rather than on the current thread. This is meant for
+	 * waiting, which does not occupy a thread.
+	 * 
+	 * @param name
+	 * @param context
+	 * @param start
+	 *            as returned by <code>start()</code>.
+	 */
+	public static void completeAsync(String name, PluginContext context, long start) {
+		if (!enabled) {
+			return;
+		}
+		long now = System.nanoTime();
+		events.add(async(name, "b", context, start));
+		events.add(async(name, "e", context, now));
+	}
+
+	/**
+	 * Marks the beginning of the span of the given context.
+	 * 
+	 * @param context
+	 */
+	public static void beginContext(PluginContext context) {
+		if (!enabled) {
+			return;
+		}
+		events.add(async(context.getLabel(), "b", context, System.nanoTime()));
+	}
+
+	/**
+	 * Marks the end of the span of the given context.
+	 * 
+	 * @param context
+	 */
+	public static void endContext(PluginContext context) {
+		if (!enabled) {
+			return;
+		}
+		events.add(async(context.getLabel(), "e", context, System.nanoTime()));
+	}
+
+	private static String async(String name, String phase, PluginContext context, long time) {
+		return "{\"name\":\"" + escape(name) + "\",\"cat\":\"context\",\"ph\":\"" + phase + "\",\"id\":\""
+				+ escape(context.getID().toString()) + "\",\"ts\":" + micros(time) + ",\"pid\":1,\"tid\":0,\"args\":"
+				+ args(context) + "}";
+	}
+
+	private static String args(PluginContext context) {
+		if (context == null) {
+			return "{}";
+		}
+		PluginContext parent = context.getParentContext();
+		return "{\"context\":\"" + escape(context.getID().toString()) + "\",\"parent\":\""
+				+ (parent == null ? "" : escape(parent.getID().toString())) + "\"}";
+	}
+
+	private static long micros(long time) {
+		return (time - origin) / 1000;
+	}
+
+	private static String escape(String s) {
+		if (s == null) {
+			return "";
+		}
+		StringBuilder builder = new StringBuilder(s.length());
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if ((c == '"') || (c == '\\')) {
+				builder.append('\\').append(c);
+			} else if (c < ' ') {
+				builder.append(String.format("\\u%04x", (int) c));
+			} else {
+				builder.append(c);
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Stops recording events, closes the trace, and drops the events that are
+	 * not written. Should be called with the lock of this class held.
+	 */
+	private static void disable() {
+		enabled = false;
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				// The trace is abandoned anyway
+			}
+			writer = null;
+		}
+		events.clear();
+	}
+
+	private static synchronized void flush(boolean close) {
+		if (writer == null) {
+			return;
+		}
+		try {
+			String event;
+			while ((event = events.poll()) != null) {
+				if (!first) {
+					writer.write(",\n");
+				}
+				first = false;
+				writer.write(event);
+			}
+			if (close) {
+				writer.write("\n]\n");
+				disable();
+			} else {
+				writer.flush();
+			}
+		} catch (IOException e) {
+			System.err.println("Cannot write trace to " + file + ": " + e.getMessage());
+			disable();
+		}
+	}
+}
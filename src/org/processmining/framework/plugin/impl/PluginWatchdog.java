@@ -0,0 +1,347 @@
+package org.processmining.framework.plugin.impl;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.processmining.framework.boot.Boot;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.events.Logger.MessageLevel;
+import org.processmining.framework.plugin.events.PluginLifeCycleEventListener;
+
+/**
+ * Watches running plugins against the time budgets Boot.SOFT_TIME_BUDGET and
+ * Boot.HARD_TIME_BUDGET, given in seconds, where 0 disables a budget. The
+ * watchdog only runs once a plugin starts while at least one budget is set.
+ * 
+ * When a plugin exceeds a budget, a warning (for the soft budget) or an error
+ * (for the hard budget) is logged in its context, with a dump of the threads
+ * working for the plugin, of the threads holding the locks these threads wait
+ * for, and of any deadlocked threads. Each budget is reported once per
+ * execution. If Boot.CANCEL_ON_HARD_TIME_BUDGET is set, a plugin exceeding the
+ * hard budget is cancelled through its progress.
+ * 
+ * The time a plugin is suspended does not count towards its budgets.
+ * 
+ * The watchdog of the session is returned by getInstance(). Separate
+ * watchdogs, with their own clock, can be created as well.
+ */
+public class PluginWatchdog {
+
+	private static final long CHECK_INTERVAL = 1000;
+
+	private static PluginWatchdog instance = null;
+
+	private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	private final LongSupplier clock;
+	private final long checkInterval;
+
+	/**
+	 * A running plugin, with the threads currently working for it. It listens
+	 * to the plugin to measure the time it is suspended.
+	 */
+	private static class Watched implements PluginLifeCycleEventListener {
+		private final PluginContext context;
+		private final LongSupplier clock;
+		private final long start;
+		private final ArrayList<Thread> threads = new ArrayList<Thread>(1);
+		private long suspendedSince = -1;
+		private long suspendedTime = 0;
+		private boolean softReported = false;
+		private boolean hardReported = false;
+
+		private Watched(PluginContext context, LongSupplier clock) {
+			this.context = context;
+			this.clock = clock;
+			start = clock.getAsLong();
+			if (context.getProgress().isSuspended()) {
+				suspendedSince = start;
+			}
+		}
+
+		/**
+		 * Returns the time the plugin ran until the given time, excluding the
+		 * time it was suspended.
+		 */
+		private synchronized long getRunningTime(long now) {
+			long suspended = suspendedTime + (suspendedSince < 0 ? 0 : now - suspendedSince);
+			return now - start - suspended;
+		}
+
+		public synchronized void pluginSuspended(PluginContext context) {
+			if ((context == this.context) && (suspendedSince < 0)) {
+				suspendedSince = clock.getAsLong();
+			}
+		}
+
+		public synchronized void pluginResumed(PluginContext context) {
+			if ((context == this.context) && (suspendedSince >= 0)) {
+				suspendedTime += clock.getAsLong() - suspendedSince;
+				suspendedSince = -1;
+			}
+		}
+
+		public void pluginCreated(PluginContext context) {
+		}
+
+		public void pluginStarted(PluginContext context) {
+		}
+
+		public void pluginCompleted(PluginContext context) {
+		}
+
+		public void pluginCancelled(PluginContext context) {
+		}
+
+		public void pluginTerminatedWithError(PluginContext context, Throwable t) {
+		}
+
+		public void pluginFutureCreated(PluginContext context) {
+		}
+
+		public void pluginDeleted(PluginContext context) {
+		}
+	}
+
+	private final Map<PluginContext, Watched> running = new HashMap<PluginContext, Watched>();
+	private ScheduledExecutorService checker = null;
+
+	/**
+	 * Creates a watchdog.
+	 * 
+	 * @param clock
+	 *            returns the current time in milliseconds.
+	 * @param checkInterval
+	 *            the milliseconds between checks of the running plugins, or 0
+	 *            if the running plugins are only checked by calling
+	 *            <code>check()</code>.
+	 */
+	public PluginWatchdog(LongSupplier clock, long checkInterval) {
+		this.clock = clock;
+		this.checkInterval = checkInterval;
+	}
+
+	/**
+	 * Starts checking the running plugins, unless already started.
+	 */
+	private synchronized void startChecking() {
+		if ((checker != null) || (checkInterval <= 0)) {
+			return;
+		}
+		checker = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "ProM plug-in watchdog");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		checker.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				check();
+			}
+		}, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns the singleton instance of the watchdog.
+	 * 
+	 * @return
+	 */
+	public static synchronized PluginWatchdog getInstance() {
+		if (instance == null) {
+			instance = new PluginWatchdog(new LongSupplier() {
+				public long getAsLong() {
+					return System.currentTimeMillis();
+				}
+			}, CHECK_INTERVAL);
+		}
+		return instance;
+	}
+
+	private static boolean isEnabled() {
+		return (Boot.SOFT_TIME_BUDGET > 0) || (Boot.HARD_TIME_BUDGET > 0);
+	}
+
+	/**
+	 * Starts watching the plugin running in the given context on the current
+	 * thread.
+	 * 
+	 * @param context
+	 */
+	public void started(PluginContext context) {
+		if (!isEnabled()) {
+			return;
+		}
+		startChecking();
+		Watched watched = new Watched(context, clock);
+		watched.threads.add(Thread.currentThread());
+		// The listeners are held weakly, such that the watched plugin stops
+		// listening once it is no longer watched
+		context.getPluginLifeCycleEventListeners().add(watched);
+		synchronized (running) {
+			running.put(context, watched);
+		}
+	}
+
+	/**
+	 * Stops watching the plugin running in the given context.
+	 * 
+	 * @param context
+	 */
+	public void finished(PluginContext context) {
+		if (!isEnabled()) {
+			return;
+		}
+		synchronized (running) {
+			running.remove(context);
+		}
+	}
+
+	/**
+	 * Marks the current thread as working for the plugin in the given context,
+	 * for example on a subtask, until <code>exit()</code> is called.
+	 * 
+	 * @param context
+	 */
+	public void enter(PluginContext context) {
+		if (!isEnabled()) {
+			return;
+		}
+		synchronized (running) {
+			Watched watched = running.get(context);
+			if (watched != null) {
+				watched.threads.add(Thread.currentThread());
+			}
+		}
+	}
+
+	/**
+	 * Ends a call to <code>enter()</code> on the current thread.
+	 * 
+	 * @param context
+	 */
+	public void exit(PluginContext context) {
+		if (!isEnabled()) {
+			return;
+		}
+		synchronized (running) {
+			Watched watched = running.get(context);
+			if (watched != null) {
+				watched.threads.remove(Thread.currentThread());
+			}
+		}
+	}
+
+	/**
+	 * Checks the running plugins against the budgets, and reports the plugins
+	 * that exceeded a budget.
+	 */
+	public void check() {
+		long now = clock.getAsLong();
+		Map<PluginContext, List<Thread>> soft = new HashMap<PluginContext, List<Thread>>();
+		Map<PluginContext, List<Thread>> hard = new HashMap<PluginContext, List<Thread>>();
+		synchronized (running) {
+			for (Map.Entry<PluginContext, Watched> entry : running.entrySet()) {
+				Watched watched = entry.getValue();
+				if (entry.getKey().getProgress().isSuspended()) {
+					continue;
+				}
+				long elapsed = watched.getRunningTime(now);
+				if ((Boot.HARD_TIME_BUDGET > 0) && !watched.hardReported
+						&& (elapsed > Boot.HARD_TIME_BUDGET * 1000L)) {
+					watched.hardReported = true;
+					watched.softReported = true;
+					hard.put(entry.getKey(), new ArrayList<Thread>(watched.threads));
+				} else if ((Boot.SOFT_TIME_BUDGET > 0) && !watched.softReported
+						&& (elapsed > Boot.SOFT_TIME_BUDGET * 1000L)) {
+					watched.softReported = true;
+					soft.put(entry.getKey(), new ArrayList<Thread>(watched.threads));
+				}
+			}
+		}
+		// Report outside the lock, as loggers may take their time
+		for (Map.Entry<PluginContext, List<Thread>> entry : soft.entrySet()) {
+			report(entry.getKey(), entry.getValue(), "soft", Boot.SOFT_TIME_BUDGET, MessageLevel.WARNING);
+		}
+		for (Map.Entry<PluginContext, List<Thread>> entry : hard.entrySet()) {
+			report(entry.getKey(), entry.getValue(), "hard", Boot.HARD_TIME_BUDGET, MessageLevel.ERROR);
+			if (Boot.CANCEL_ON_HARD_TIME_BUDGET) {
+				entry.getKey().getProgress().cancel();
+			}
+		}
+	}
+
+	private void report(PluginContext context, List<Thread> working, String budget, int seconds,
+			MessageLevel level) {
+		String message = "Plug-in " + context.getLabel() + " exceeded its " + budget + " time budget of " + seconds
+				+ " seconds";
+		if ((level == MessageLevel.ERROR) && Boot.CANCEL_ON_HARD_TIME_BUDGET) {
+			message += " and is cancelled";
+		}
+		message += ". Involved threads:\n" + dumpThreads(working);
+		context.log(message, level);
+	}
+
+	/**
+	 * Returns the stacks of the given threads, of the threads holding the
+	 * locks they wait for, and of all deadlocked threads.
+	 */
+	private String dumpThreads(List<Thread> working) {
+		Set<Long> ids = new LinkedHashSet<Long>();
+		for (Thread thread : working) {
+			ids.add(thread.getId());
+		}
+		long[] deadlocked = null;
+		try {
+			deadlocked = threads.findDeadlockedThreads();
+		} catch (UnsupportedOperationException e) {
+			// Not reported
+		}
+		StringBuilder builder = new StringBuilder();
+		List<Long> todo = new ArrayList<Long>(ids);
+		for (int i = 0; i < todo.size(); i++) {
+			ThreadInfo info = threads.getThreadInfo(todo.get(i), Integer.MAX_VALUE);
+			if (info == null) {
+				continue;
+			}
+			append(builder, info);
+			if ((info.getLockOwnerId() >= 0) && ids.add(info.getLockOwnerId())) {
+				todo.add(info.getLockOwnerId());
+			}
+		}
+		if (deadlocked != null) {
+			builder.append("Deadlocked threads:\n");
+			for (ThreadInfo info : threads.getThreadInfo(deadlocked, Integer.MAX_VALUE)) {
+				if (info != null) {
+					append(builder, info);
+				}
+			}
+		}
+		return builder.toString();
+	}
+
+	private static void append(StringBuilder builder, ThreadInfo info) {
+		builder.append('"').append(info.getThreadName()).append("\" ").append(info.getThreadState());
+		if (info.getLockName() != null) {
+			builder.append(" on ").append(info.getLockName());
+		}
+		if (info.getLockOwnerName() != null) {
+			builder.append(" owned by \"").append(info.getLockOwnerName()).append('"');
+		}
+		builder.append('\n');
+		for (StackTraceElement element : info.getStackTrace()) {
+			builder.append("\tat ").append(element).append('\n');
+		}
+	}
+}
@@ -2,15 +2,26 @@ package org.processmining.framework.plugin.impl;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.processmining.framework.plugin.PluginContext;
 import org.processmining.framework.plugin.PluginExecutionResult;
 import org.processmining.framework.plugin.ProMFuture;
 import org.processmining.framework.plugin.Progress;
 
+/**
+ * Progress of a plugin context. Changes of the value are not fired to the
+ * listeners right away, but are published by the ProgressPublisher, which
+ * limits the number of updates per second. Hence, <code>inc()</code> and
+ * <code>setValue()</code> are cheap enough to be called in inner loops.
+ */
 public class ProgressBarImpl implements Progress {
 
-	private int value = 0;
+	private volatile int value = 0;
+	private final LongAdder increments = new LongAdder();
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
+	private final ProgressPublisher publisher = ProgressPublisher.getInstance();
 	private int min = 0;
 	private int max = 1;
 	private boolean indeterminate = true;
@@ -18,10 +29,18 @@ public class ProgressBarImpl implements Progress {
 
 	private static final long serialVersionUID = -3950799546173352932L;
 	private final PluginContext context;
-	private boolean canceled = false;
+	private final AtomicBoolean canceled = new AtomicBoolean(false);
+	private final AtomicBoolean suspended = new AtomicBoolean(false);
 
 	public ProgressBarImpl(PluginContext context) {
 		this.context = context;
+		// A context created in a cancelled or suspended context is cancelled
+		// or suspended as well
+		PluginContext parent = context.getParentContext();
+		if ((parent != null) && (parent.getProgress() != null)) {
+			canceled.set(parent.getProgress().isCancelled());
+			suspended.set(parent.getProgress().isSuspended());
+		}
 	}
 
 	public void setCaption(String message) {
@@ -30,8 +49,8 @@ public class ProgressBarImpl implements Progress {
 	}
 
 	public void inc() {
-		context.getProgressEventListeners().fireProgressChanged(++value);
-		// Thread.yield();
+		increments.increment();
+		valueChanged();
 	}
 
 	public void setMinimum(int value) {
@@ -45,13 +64,44 @@ public class ProgressBarImpl implements Progress {
 	}
 
 	public void setValue(int value) {
+		increments.reset();
 		this.value = value;
-		context.getProgressEventListeners().fireProgressChanged(value);
-		// Thread.yield();
+		valueChanged();
 	}
 
 	public int getValue() {
-		return value;
+		return value + increments.intValue();
+	}
+
+	private void valueChanged() {
+		if (publisher == null) {
+			publish();
+		} else if (!scheduled.get() && scheduled.compareAndSet(false, true)) {
+			publisher.schedule(this);
+		}
+	}
+
+	/**
+	 * Fires the current value to the listeners. If the value changes after
+	 * this, it is published again.
+	 */
+	void publish() {
+		scheduled.set(false);
+		context.getProgressEventListeners().fireProgressChanged(getValue());
+	}
+
+	PluginContext getContext() {
+		return context;
+	}
+
+	/**
+	 * Fires the current value to the listeners right away, if there is a
+	 * change that is not published yet.
+	 */
+	public void flush() {
+		if (scheduled.get()) {
+			publish();
+		}
 	}
 
 	public void setIndeterminate(boolean makeIndeterminate) {
@@ -75,28 +125,25 @@ public class ProgressBarImpl implements Progress {
 		return min;
 	}
 
+	/**
+	 * Returns whether this progress is cancelled. This is a single read, as
+	 * the cancellation is pushed to this progress, either by calling
+	 * <code>cancel()</code> on it or on the progress of an ancestor context, or
+	 * by cancelling one of the futures of the context.
+	 */
 	public boolean isCancelled() {
-		PluginExecutionResult results = context.getResult();
-		// [HV] To be safe, check the following:
-		if (results == null) {
-			return false;
-		}
-		for (int i = 0; !canceled && (i < results.getSize()); i++) {
-			try {
-				Object o = results.getResult(i);
-				if (o instanceof ProMFuture<?>) {
-					return results.<ProMFuture<?>>getResult(i).isCancelled();
-				}
-			} catch (Exception e) {
-				// cancel on fail;
-				return true;
-			}
-		}
-		return canceled;
+		return canceled.get();
 	}
 
 	public void cancel() {
-		canceled = true;
+		if (!canceled.compareAndSet(false, true)) {
+			// Already cancelled, including all children.
+			return;
+		}
+		synchronized (suspended) {
+			// A cancelled plugin does not wait to be resumed
+			suspended.notifyAll();
+		}
 		// BVD: Cancel all children too!
 		List<PluginContext> children = new ArrayList<>(context.getChildContexts());
 		for (PluginContext child : children) {
@@ -106,6 +153,10 @@ public class ProgressBarImpl implements Progress {
 		}
 		// Now cancel ProMFutures
 		PluginExecutionResult results = context.getResult();
+		if (results == null) {
+			// The futures are cancelled once they are set on the context.
+			return;
+		}
 		for (int i = 0; i < results.getSize(); i++) {
 			Object o = results.getResult(i);
 			if (o instanceof ProMFuture<?>) {
@@ -114,4 +165,46 @@ public class ProgressBarImpl implements Progress {
 		}
 	}
 
+	public boolean isSuspended() {
+		return suspended.get();
+	}
+
+	public void suspend() {
+		if (!suspended.compareAndSet(false, true)) {
+			return;
+		}
+		for (PluginContext child : new ArrayList<>(context.getChildContexts())) {
+			if (child != null && child.getProgress() != null) {
+				child.getProgress().suspend();
+			}
+		}
+		context.getPluginLifeCycleEventListeners().firePluginSuspended(context);
+	}
+
+	public void resume() {
+		synchronized (suspended) {
+			if (!suspended.compareAndSet(true, false)) {
+				return;
+			}
+			suspended.notifyAll();
+		}
+		for (PluginContext child : new ArrayList<>(context.getChildContexts())) {
+			if (child != null && child.getProgress() != null) {
+				child.getProgress().resume();
+			}
+		}
+		context.getPluginLifeCycleEventListeners().firePluginResumed(context);
+	}
+
+	public boolean awaitResumed() throws InterruptedException {
+		if (suspended.get()) {
+			synchronized (suspended) {
+				while (suspended.get() && !canceled.get()) {
+					suspended.wait();
+				}
+			}
+		}
+		return canceled.get();
+	}
+
 }
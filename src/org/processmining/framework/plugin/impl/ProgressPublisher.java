@@ -0,0 +1,79 @@
+package org.processmining.framework.plugin.impl;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.processmining.framework.boot.Boot;
+
+/**
+ * Publishes changed progress values at a fixed rate (see
+ * Boot.PROGRESS_UPDATES_PER_SECOND), such that the listeners of a progress
+ * receive at most that many updates per second, however often the value is
+ * changed. Each publication carries the value at the time of publication, so
+ * the last publication after a change is always exact.
+ */
+class ProgressPublisher {
+
+	private static ProgressPublisher instance = null;
+
+	private final ConcurrentLinkedQueue<ProgressBarImpl> changed = new ConcurrentLinkedQueue<ProgressBarImpl>();
+
+	private ProgressPublisher(int updatesPerSecond) {
+		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "ProM progress publisher");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		long period = TimeUnit.SECONDS.toNanos(1) / updatesPerSecond;
+		executor.scheduleAtFixedRate(new Runnable() {
+			public void run() {
+				publish();
+			}
+		}, period, period, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Returns the publisher, or null if progress updates should be published
+	 * immediately.
+	 * 
+	 * @return
+	 */
+	static synchronized ProgressPublisher getInstance() {
+		if ((instance == null) && (Boot.PROGRESS_UPDATES_PER_SECOND > 0)) {
+			instance = new ProgressPublisher(Boot.PROGRESS_UPDATES_PER_SECOND);
+		}
+		return instance;
+	}
+
+	/**
+	 * Schedules the value of the given progress for publication. The progress
+	 * should make sure it is scheduled only once until it is published.
+	 * 
+	 * @param progress
+	 */
+	void schedule(ProgressBarImpl progress) {
+		changed.add(progress);
+	}
+
+	private void publish() {
+		// Only publish the progresses that are scheduled right now, later ones
+		// are published in the next round.
+		for (int i = changed.size(); i > 0; i--) {
+			ProgressBarImpl progress = changed.poll();
+			if (progress == null) {
+				break;
+			}
+			try {
+				progress.publish();
+			} catch (Exception e) {
+				// A failing listener should not stop the publication of others
+				progress.getContext().log(e);
+			}
+		}
+	}
+}
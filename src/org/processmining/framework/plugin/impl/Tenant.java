@@ -0,0 +1,345 @@
+package org.processmining.framework.plugin.impl;
+
+import java.io.File;
+import java.util.LinkedList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.processmining.framework.boot.Boot;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.ResourceUsage;
+
+/**
+ * A tenant is one of many users served by the same JVM. Each tenant works in
+ * its own TenantGlobalContext, with its own provided objects and connections,
+ * while all tenants share the plugin registry and the class loaders of the
+ * plugins.
+ * 
+ * A tenant has its own pool of threads, on which its plugins and their
+ * subtasks are executed, whatever their workload. The pool grows as needed,
+ * such that a plugin waiting for the plugins or subtasks it started never keeps
+ * them from running. Instead, the plugins invoked through the global context
+ * are limited: at most the given number of threads of them run at the same
+ * time. Furthermore, there are quotas on these plugins: at most maxRunning
+ * plugins, and at most memoryQuota megabytes of memory, as declared by
+ * <code>@Plugin(memoryHint = ...)</code>. A value of 0 disables a quota. The
+ * memory quota only sees declared hints: plugins without a hint count as the
+ * default memory hint of the tenant, which is 0 unless set by
+ * setDefaultMemoryHint(). Plugins that exceed a limit are queued in FIFO
+ * order, and started when running plugins of the tenant finish. If no plugin
+ * of the tenant is running, the first queued plugin is started regardless, as
+ * waiting would not help. Plugins invoked by a running plugin are not limited,
+ * as the running plugin may wait for them.
+ * 
+ * The tenant keeps metrics on the plugins it ran, and on the resources they
+ * used. The resources used by each plugin are recorded in the resource report
+ * of the tenant, and its executions in the execution history of the tenant,
+ * instead of in those of the whole session. Admission control and the
+ * watchdog are not separated per tenant: the former guards the heap, which
+ * all tenants share, and the latter reports to the context of each plugin.
+ */
+public class Tenant {
+
+	private static class Pending {
+		private final long memoryHint;
+		private final Future<?> future;
+		private final Executor executor;
+		private final Runnable runnable;
+
+		private Pending(long memoryHint, Future<?> future, Executor executor, Runnable runnable) {
+			this.memoryHint = memoryHint;
+			this.future = future;
+			this.executor = executor;
+			this.runnable = runnable;
+		}
+	}
+
+	private final String name;
+	private final int threads;
+	private final int memoryQuota;
+	private final int maxRunning;
+	private final ExecutorService executor;
+	private final PluginResourceReport resourceReport = new PluginResourceReport();
+	private final PluginExecutionHistory executionHistory;
+	private final boolean ownsExecutionHistory;
+	private final LinkedList<Pending> queue = new LinkedList<Pending>();
+	private ResourceUsage resourceUsage = new ResourceUsage();
+	private int running = 0;
+	private long reservedMemory = 0;
+	private long defaultMemoryHint = 0;
+	private long started = 0;
+	private long completed = 0;
+	private long failed = 0;
+	private long cancelled = 0;
+
+	/**
+	 * Creates a tenant, of which the execution history is kept in a file of
+	 * its own in the workspace folder.
+	 * 
+	 * @param name
+	 * @param threads
+	 *            the maximal number of plugins invoked through the global
+	 *            context running at the same time.
+	 * @param maxRunning
+	 *            the maximal number of plugins running at the same time, or 0.
+	 * @param memoryQuota
+	 *            the maximal memory in megabytes declared by the plugins
+	 *            running at the same time, or 0.
+	 */
+	public Tenant(String name, int threads, int maxRunning, int memoryQuota) {
+		this(name, threads, maxRunning, memoryQuota, new PluginExecutionHistory(new File(Boot.WORKSPACE_FOLDER,
+				"execution-history-" + name.replaceAll("[^A-Za-z0-9_-]", "_") + ".tsv")), true);
+	}
+
+	/**
+	 * Creates a tenant with the given execution history, which is not closed
+	 * when the tenant is shut down.
+	 * 
+	 * @param name
+	 * @param threads
+	 *            the maximal number of plugins invoked through the global
+	 *            context running at the same time.
+	 * @param maxRunning
+	 *            the maximal number of plugins running at the same time, or 0.
+	 * @param memoryQuota
+	 *            the maximal memory in megabytes declared by the plugins
+	 *            running at the same time, or 0.
+	 * @param executionHistory
+	 */
+	public Tenant(String name, int threads, int maxRunning, int memoryQuota,
+			PluginExecutionHistory executionHistory) {
+		this(name, threads, maxRunning, memoryQuota, executionHistory, false);
+	}
+
+	private Tenant(final String name, int threads, int maxRunning, int memoryQuota,
+			PluginExecutionHistory executionHistory, boolean ownsExecutionHistory) {
+		this.name = name;
+		this.threads = Math.max(1, threads);
+		this.maxRunning = maxRunning;
+		this.memoryQuota = memoryQuota;
+		this.executionHistory = executionHistory;
+		this.ownsExecutionHistory = ownsExecutionHistory;
+		executor = Executors.newCachedThreadPool(new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger(0);
+
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "ProM tenant " + name + " worker " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the executor on which the plugins of this tenant and their
+	 * subtasks are executed.
+	 * 
+	 * @return
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Returns an executor that executes the task of the given plugin, which
+	 * computes the given future, on the given executor as soon as the quotas
+	 * of this tenant allow.
+	 * 
+	 * @param plugin
+	 * @param future
+	 * @param executor
+	 * @return
+	 */
+	public Executor getExecutor(final PluginDescriptor plugin, final Future<?> future, final Executor executor) {
+		return new Executor() {
+			public void execute(Runnable runnable) {
+				synchronized (Tenant.this) {
+					long memoryHint = plugin.getMemoryHint() > 0 ? plugin.getMemoryHint() : defaultMemoryHint;
+					queue.add(new Pending(memoryHint, future, executor, runnable));
+				}
+				start();
+			}
+		};
+	}
+
+	/**
+	 * Sets the memory in megabytes counted towards the memory quota for
+	 * plugins that do not declare a memory hint. Applies to plugins queued
+	 * hereafter.
+	 * 
+	 * @param megabytes
+	 */
+	public synchronized void setDefaultMemoryHint(long megabytes) {
+		defaultMemoryHint = megabytes;
+	}
+
+	public synchronized long getDefaultMemoryHint() {
+		return defaultMemoryHint;
+	}
+
+	/**
+	 * Starts queued plugins, as long as the quotas allow.
+	 */
+	private void start() {
+		while (true) {
+			final Pending next;
+			synchronized (this) {
+				next = queue.peek();
+				if (next == null) {
+					return;
+				}
+				boolean full = (running >= threads) || ((maxRunning > 0) && (running >= maxRunning))
+						|| ((memoryQuota > 0) && (reservedMemory + next.memoryHint > memoryQuota));
+				if ((running > 0) && full) {
+					return;
+				}
+				queue.poll();
+				running++;
+				reservedMemory += next.memoryHint;
+				started++;
+			}
+			try {
+				next.executor.execute(new Runnable() {
+					public void run() {
+						try {
+							next.runnable.run();
+						} finally {
+							finished(next);
+						}
+					}
+				});
+			} catch (RuntimeException e) {
+				finished(next);
+				throw e;
+			}
+		}
+	}
+
+	private void finished(Pending pending) {
+		synchronized (this) {
+			running--;
+			reservedMemory -= pending.memoryHint;
+			if (pending.future.isCancelled()) {
+				cancelled++;
+			} else if (pending.future.isDone()) {
+				try {
+					pending.future.get();
+					completed++;
+				} catch (ExecutionException e) {
+					failed++;
+				} catch (InterruptedException e) {
+					// Cannot happen, as the future is done
+				}
+			}
+		}
+		start();
+	}
+
+	/**
+	 * Sets the resource usage to report for this tenant, i.e. that of the
+	 * main context of its global context.
+	 * 
+	 * @param resourceUsage
+	 */
+	void setResourceUsage(ResourceUsage resourceUsage) {
+		this.resourceUsage = resourceUsage;
+	}
+
+	/**
+	 * Returns the CPU time and heap allocation of all plugins of this tenant
+	 * that are done.
+	 * 
+	 * @return
+	 */
+	public ResourceUsage getResourceUsage() {
+		return resourceUsage;
+	}
+
+	/**
+	 * Returns the report on the resources used by each plugin of this tenant.
+	 * 
+	 * @return
+	 */
+	public PluginResourceReport getResourceReport() {
+		return resourceReport;
+	}
+
+	/**
+	 * Returns the history of the executions of plugins of this tenant.
+	 * 
+	 * @return
+	 */
+	public PluginExecutionHistory getExecutionHistory() {
+		return executionHistory;
+	}
+
+	/**
+	 * Returns the number of plugins waiting for the quotas of this tenant.
+	 * 
+	 * @return
+	 */
+	public synchronized int getQueueLength() {
+		return queue.size();
+	}
+
+	/**
+	 * Returns the number of plugins of this tenant that are started and not
+	 * done yet.
+	 * 
+	 * @return
+	 */
+	public synchronized int getRunningCount() {
+		return running;
+	}
+
+	/**
+	 * Returns the memory in megabytes declared by the running plugins.
+	 * 
+	 * @return
+	 */
+	public synchronized long getReservedMemory() {
+		return reservedMemory;
+	}
+
+	public synchronized long getStartedCount() {
+		return started;
+	}
+
+	public synchronized long getCompletedCount() {
+		return completed;
+	}
+
+	public synchronized long getFailedCount() {
+		return failed;
+	}
+
+	public synchronized long getCancelledCount() {
+		return cancelled;
+	}
+
+	/**
+	 * Stops the threads of this tenant once the plugins it runs are done, and
+	 * closes its execution history, unless that was given to this tenant.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+		if (ownsExecutionHistory) {
+			executionHistory.close();
+		}
+	}
+
+	public synchronized String toString() {
+		return "Tenant " + name + ": " + running + " running, " + queue.size() + " queued, " + started
+				+ " started, " + completed + " completed, " + failed + " failed, " + cancelled + " cancelled, "
+				+ resourceUsage;
+	}
+}
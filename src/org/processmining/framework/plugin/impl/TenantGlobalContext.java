@@ -0,0 +1,36 @@
+package org.processmining.framework.plugin.impl;
+
+import org.processmining.framework.plugin.PluginContext;
+
+/**
+ * A global context for one of many tenants served by the same JVM (see
+ * Tenant). Global contexts are lightweight: each has its own provided objects
+ * and connections, but all share the plugin manager, which has to be
+ * initialized for HeadlessPluginContext (or a super type) once. Results of
+ * deterministic plugins are only reused within the same global context, so
+ * tenants never share result objects.
+ */
+public class TenantGlobalContext extends AbstractGlobalContext {
+
+	private final Tenant tenant;
+	private final TenantPluginContext mainPluginContext;
+
+	public TenantGlobalContext(Tenant tenant) {
+		this.tenant = tenant;
+		mainPluginContext = new TenantPluginContext(this, "Main Plugin Context of " + tenant.getName());
+		// All plugins of the tenant account their usage to the main context
+		tenant.setResourceUsage(mainPluginContext.getResourceUsage());
+	}
+
+	public Tenant getTenant() {
+		return tenant;
+	}
+
+	protected PluginContext getMainPluginContext() {
+		return mainPluginContext;
+	}
+
+	public Class<? extends PluginContext> getPluginContextType() {
+		return TenantPluginContext.class;
+	}
+}
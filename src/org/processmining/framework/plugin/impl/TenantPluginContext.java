@@ -0,0 +1,37 @@
+package org.processmining.framework.plugin.impl;
+
+import java.util.concurrent.Executor;
+
+import org.processmining.framework.plugin.PluginContext;
+
+/**
+ * A plugin context of a tenant (see TenantGlobalContext). Plugins are executed
+ * on the threads of the tenant, and messages logged by plugins are printed to
+ * the console.
+ */
+public class TenantPluginContext extends HeadlessPluginContext {
+
+	private final Tenant tenant;
+
+	public TenantPluginContext(TenantGlobalContext context, String label) {
+		super(context, label);
+		tenant = context.getTenant();
+	}
+
+	protected TenantPluginContext(TenantPluginContext context, String label) {
+		super(context, label);
+		tenant = context.tenant;
+	}
+
+	protected PluginContext createTypedChildContext(String label) {
+		return new TenantPluginContext(this, label);
+	}
+
+	public Tenant getTenant() {
+		return tenant;
+	}
+
+	public Executor getExecutor() {
+		return tenant.getExecutor();
+	}
+}
@@ -55,11 +55,13 @@ public interface ProvidedObjectManager {
 
 	/**
 	 * This method creates a list of new providedObjectIDs for each object in
-	 * the PluginExecutionResult of the context.
+	 * the PluginExecutionResult of the context. Results that already refer to
+	 * a providedObject, as they were reused from an earlier execution, keep
+	 * that providedObject.
 	 * 
 	 * @param context
 	 *            The context of which this providedObject will be the result
-	 * @return a list of globally new ids, identifying the providedObjects
+	 * @return a list of ids, identifying the providedObjects
 	 */
 	List<ProvidedObjectID> createProvidedObjects(PluginContext context);
 
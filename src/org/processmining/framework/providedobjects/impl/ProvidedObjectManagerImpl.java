@@ -9,6 +9,8 @@ import org.processmining.framework.plugin.PluginContext;
 import org.processmining.framework.plugin.PluginExecutionResult;
 import org.processmining.framework.plugin.ProMFuture;
 import org.processmining.framework.plugin.events.ProvidedObjectLifeCycleListener;
+import org.processmining.framework.plugin.impl.PluginResultCache;
+import org.processmining.framework.plugin.impl.PluginTracer;
 import org.processmining.framework.providedobjects.ProvidedObject;
 import org.processmining.framework.providedobjects.ProvidedObjectDeletedException;
 import org.processmining.framework.providedobjects.ProvidedObjectID;
@@ -75,15 +77,22 @@ public class ProvidedObjectManagerImpl implements ProvidedObjectManager {
 	}
 
 	public List<ProvidedObjectID> createProvidedObjects(PluginContext context) {
+		long start = PluginTracer.start();
 		List<ProvidedObjectID> newIds = new ArrayList<ProvidedObjectID>();
 		PluginExecutionResult result = context.getResult();
 		for (int i = 0; i < result.getSize(); i++) {
+			if (result.getProvidedObjectID(i) != null) {
+				// The result reuses the provided object of an earlier execution
+				newIds.add(result.getProvidedObjectID(i));
+				continue;
+			}
 			ProvidedObjectID id = createProvidedObject(result.getResultName(i), result.getResult(i), result.getType(i),
 					context);
 			newIds.add(id);
 			//			ids.add(id);
 			result.setProvidedObjectID(i, id);
 		}
+		PluginTracer.complete("create provided objects", context, start);
 		return newIds;
 	}
 
@@ -113,6 +122,12 @@ public class ProvidedObjectManagerImpl implements ProvidedObjectManager {
 
 	public void changeProvidedObjectObject(ProvidedObjectID id, Object newObject) throws ProvidedObjectDeletedException {
 		ProvidedObject po = getProvidedObject(id);
+		Object oldObject = po.getObject(false);
+		if (!(oldObject instanceof ProMFuture<?>)) {
+			// Cached plugin results computed from the old object are no longer valid,
+			// as the object may have been changed in place.
+			PluginResultCache.getInstance().invalidate(oldObject);
+		}
 		po.setObject(newObject);
 	}
 
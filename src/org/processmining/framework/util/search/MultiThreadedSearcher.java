@@ -284,7 +284,7 @@ class MultiThreadedSearchWorker<N> extends SwingWorker<Object, Void> {
 
 	@Override
 	protected Object doInBackground() throws Exception {
-		while (!progress.isCancelled()) {
+		while (!progress.awaitResumed()) {
 			// First get the node to expand
 			N toExpand = getNodeToExpand(progress);
 			if (toExpand == null) {
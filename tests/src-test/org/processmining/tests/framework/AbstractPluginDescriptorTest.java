@@ -0,0 +1,106 @@
+package org.processmining.tests.framework;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginExecutionResult;
+import org.processmining.framework.plugin.ProMFuture;
+
+public class AbstractPluginDescriptorTest {
+
+	private static ProMFuture<Integer> input(final Integer value, final CountDownLatch gate) {
+		ProMFuture<Integer> future = new ProMFuture<Integer>(Integer.class, "input") {
+			protected Integer doInBackground() throws Exception {
+				gate.await();
+				if (value == null) {
+					throw new IllegalStateException("no input");
+				}
+				return value;
+			}
+		};
+		future.setDispatchOnEventThread(false);
+		return future;
+	}
+
+	private static void start(ProMFuture<?> future) {
+		Thread thread = new Thread(future.getRunnable());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@Test
+	public void test_waitsForFutureArguments() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		PluginDescriptor sum = FrameworkTestPlugins.getPlugin("Test sum");
+		CountDownLatch gate = new CountDownLatch(1);
+		ProMFuture<Integer> first = input(1, gate);
+		start(first);
+		PluginExecutionResult result = FrameworkTestPlugins.invoke(context, sum, first, 2);
+		Thread.sleep(50);
+		Assert.assertFalse(((ProMFuture<?>) result.getResults()[0]).isDone());
+		gate.countDown();
+		result.synchronize();
+		Assert.assertEquals(Integer.valueOf(3), result.<Integer>getResult(0));
+	}
+
+	@Test
+	public void test_forwardsFailedArgument() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		PluginDescriptor sum = FrameworkTestPlugins.getPlugin("Test sum");
+		ProMFuture<Integer> failing = input(null, new CountDownLatch(0));
+		// never completes, the failure is forwarded without waiting for it
+		ProMFuture<Integer> pending = input(2, new CountDownLatch(1));
+		start(failing);
+		PluginExecutionResult result = FrameworkTestPlugins.invoke(context, sum, pending, failing);
+		try {
+			((ProMFuture<?>) result.getResults()[0]).get(5, TimeUnit.SECONDS);
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Throwable cause = e;
+			while (cause.getCause() != null) {
+				cause = cause.getCause();
+			}
+			Assert.assertTrue(String.valueOf(e.getCause()), cause instanceof IllegalStateException);
+		}
+	}
+
+	@Test
+	public void test_completesSecondaryResults() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		PluginDescriptor divide = FrameworkTestPlugins.getPlugin("Test divide");
+		CountDownLatch gate = new CountDownLatch(1);
+		ProMFuture<Integer> dividend = input(7, gate);
+		start(dividend);
+		PluginExecutionResult result = FrameworkTestPlugins.invoke(context, divide, dividend, 2);
+		ProMFuture<?> remainder = (ProMFuture<?>) result.getResults()[1];
+		Assert.assertFalse(remainder.isDone());
+		gate.countDown();
+		Assert.assertEquals(Integer.valueOf(1), remainder.get(5, TimeUnit.SECONDS));
+		result.synchronize();
+		Assert.assertEquals(Integer.valueOf(3), result.<Integer>getResult(0));
+	}
+
+	@Test
+	public void test_failsSecondaryResults() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		PluginDescriptor divide = FrameworkTestPlugins.getPlugin("Test divide");
+		PluginExecutionResult result = FrameworkTestPlugins.invoke(context, divide, 7, 0);
+		try {
+			((ProMFuture<?>) result.getResults()[1]).get(5, TimeUnit.SECONDS);
+			Assert.fail("the remainder should not be available");
+		} catch (ExecutionException e) {
+			Throwable cause = e;
+			while ((cause.getCause() != null) && !(cause instanceof ArithmeticException)) {
+				cause = cause.getCause();
+			}
+			Assert.assertTrue(cause instanceof ArithmeticException);
+		}
+	}
+}
+
+
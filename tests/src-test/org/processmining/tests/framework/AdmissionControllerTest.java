@@ -0,0 +1,31 @@
+package org.processmining.tests.framework;
+
+import java.util.concurrent.Executor;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.boot.Boot;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.impl.AdmissionController;
+
+public class AdmissionControllerTest {
+
+	@Test
+	public void test_disabledByDefault() {
+		Assert.assertEquals(0, Boot.MIN_FREE_HEAP_PERCENTAGE);
+		PluginDescriptor sum = FrameworkTestPlugins.getPlugin("Test sum");
+		Executor executor = new Executor() {
+			public void execute(Runnable command) {
+				command.run();
+			}
+		};
+		Assert.assertSame(executor, AdmissionController.getInstance().getExecutor(sum, executor));
+		Assert.assertEquals(0, AdmissionController.getInstance().getQueueLength());
+	}
+
+	@Test
+	public void test_memoryHintDefaultsToZero() {
+		Assert.assertEquals(0, FrameworkTestPlugins.getPlugin("Test sum").getMemoryHint());
+	}
+}
+
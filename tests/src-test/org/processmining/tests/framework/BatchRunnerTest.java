@@ -0,0 +1,86 @@
+package org.processmining.tests.framework;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.boot.BatchRunner;
+import org.processmining.framework.plugin.impl.HeadlessGlobalContext;
+
+public class BatchRunnerTest {
+
+	private File directory;
+	private String errors;
+
+	private int run(String... lines) throws Exception {
+		directory = Files.createTempDirectory("batch").toFile();
+		directory.deleteOnExit();
+		File script = new File(directory, "script.txt");
+		script.deleteOnExit();
+		Writer writer = new FileWriter(script);
+		try {
+			for (String line : lines) {
+				writer.write(line.replace("$DIR", directory.getPath().replace("\\", "\\\\")) + "\n");
+			}
+		} finally {
+			writer.close();
+		}
+		FrameworkTestPlugins.getPluginManager();
+		PrintStream err = System.err;
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		System.setErr(new PrintStream(buffer, true));
+		try {
+			return new BatchRunner().run(new HeadlessGlobalContext(), script);
+		} finally {
+			System.setErr(err);
+			errors = buffer.toString();
+		}
+	}
+
+	private String read(String name) throws IOException {
+		File file = new File(directory, name);
+		file.deleteOnExit();
+		return new String(Files.readAllBytes(file.toPath()), "UTF-8");
+	}
+
+	@Test
+	public void test_writesWithExporter() throws Exception {
+		Assert.assertEquals(BatchRunner.EXIT_OK, run("# sums", "a = sum(1, 2)", "b = sum(a, 3)",
+				"write(b, \"$DIR/b.num\")"));
+		Assert.assertEquals("6", read("b.num"));
+	}
+
+	@Test
+	public void test_rejectsWriteWithoutExporter() throws Exception {
+		Assert.assertEquals(BatchRunner.EXIT_INVALID_SCRIPT, run("a = sum(1, 2)", "write(a, \"$DIR/a.txt\")"));
+		Assert.assertTrue(errors, errors.contains(":2: No exporter"));
+	}
+
+	@Test
+	public void test_reportsParseErrorLine() throws Exception {
+		Assert.assertEquals(BatchRunner.EXIT_INVALID_SCRIPT, run("a = sum(1, 2)", "", "b = sum(a, \"3)"));
+		Assert.assertTrue(errors, errors.contains(":3: Unterminated string"));
+	}
+
+	@Test
+	public void test_reportsUnknownNames() throws Exception {
+		Assert.assertEquals(BatchRunner.EXIT_INVALID_SCRIPT, run("b = sum(a, 3)"));
+		Assert.assertTrue(errors, errors.contains(":1: Unknown name a"));
+	}
+
+	@Test
+	public void test_reportsEveryFailure() throws Exception {
+		Assert.assertEquals(BatchRunner.EXIT_EXECUTION_FAILED, run("q, r = divide(1, 0)", "p = divide(2, 0)",
+				"s = sum(3, 4)"));
+		Assert.assertTrue(errors, errors.contains("divide (line 1) failed"));
+		Assert.assertTrue(errors, errors.contains("divide (line 2) failed"));
+		Assert.assertFalse(errors, errors.contains("sum (line 3) failed"));
+	}
+}
+
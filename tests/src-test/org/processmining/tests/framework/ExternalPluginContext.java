@@ -0,0 +1,183 @@
+package org.processmining.tests.framework;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.processmining.framework.connections.Connection;
+import org.processmining.framework.connections.ConnectionCannotBeObtained;
+import org.processmining.framework.connections.ConnectionManager;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginContextID;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginExecutionResult;
+import org.processmining.framework.plugin.PluginManager;
+import org.processmining.framework.plugin.PluginParameterBinding;
+import org.processmining.framework.plugin.ProMFuture;
+import org.processmining.framework.plugin.RecursiveCallException;
+import org.processmining.framework.plugin.Progress;
+import org.processmining.framework.plugin.events.Logger;
+import org.processmining.framework.plugin.events.Logger.MessageLevel;
+import org.processmining.framework.plugin.events.PluginLifeCycleEventListener;
+import org.processmining.framework.plugin.events.ProgressEventListener;
+import org.processmining.framework.plugin.impl.FieldSetException;
+import org.processmining.framework.providedobjects.ProvidedObjectManager;
+import org.processmining.framework.util.Pair;
+
+/**
+ * A context implemented outside of the framework, which only implements the
+ * methods without a default, by delegating them to a framework context.
+ */
+class ExternalPluginContext implements PluginContext {
+
+	private final PluginContext delegate;
+
+	ExternalPluginContext() {
+		this(FrameworkTestPlugins.createContext());
+	}
+
+	ExternalPluginContext(PluginContext delegate) {
+		this.delegate = delegate;
+	}
+
+	public PluginManager getPluginManager() {
+		return delegate.getPluginManager();
+	}
+
+	public ProvidedObjectManager getProvidedObjectManager() {
+		return delegate.getProvidedObjectManager();
+	}
+
+	public ConnectionManager getConnectionManager() {
+		return delegate.getConnectionManager();
+	}
+
+	public PluginContextID createNewPluginContextID() {
+		return delegate.createNewPluginContextID();
+	}
+
+	public void invokePlugin(PluginDescriptor plugin, int index, Object... objects) {
+		delegate.invokePlugin(plugin, index, objects);
+	}
+
+	public void invokeBinding(PluginParameterBinding binding, Object... objects) {
+		delegate.invokeBinding(binding, objects);
+	}
+
+	public Class<? extends PluginContext> getPluginContextType() {
+		return delegate.getPluginContextType();
+	}
+
+	public <T, C extends Connection> Collection<T> tryToFindOrConstructAllObjects(Class<T> type,
+			Class<C> connectionType, String role, Object... input) throws ConnectionCannotBeObtained {
+		return delegate.tryToFindOrConstructAllObjects(type, connectionType, role, input);
+	}
+
+	public <T, C extends Connection> T tryToFindOrConstructFirstObject(Class<T> type, Class<C> connectionType,
+			String role, Object... input) throws ConnectionCannotBeObtained {
+		return delegate.tryToFindOrConstructFirstObject(type, connectionType, role, input);
+	}
+
+	public <T, C extends Connection> T tryToFindOrConstructFirstNamedObject(Class<T> type, String name,
+			Class<C> connectionType, String role, Object... input) throws ConnectionCannotBeObtained {
+		return delegate.tryToFindOrConstructFirstNamedObject(type, name, connectionType, role, input);
+	}
+
+	public PluginContext createChildContext(String label) {
+		return delegate.createChildContext(label);
+	}
+
+	public Progress getProgress() {
+		return delegate.getProgress();
+	}
+
+	public ProgressEventListener.ListenerList getProgressEventListeners() {
+		return delegate.getProgressEventListeners();
+	}
+
+	public PluginLifeCycleEventListener.List getPluginLifeCycleEventListeners() {
+		return delegate.getPluginLifeCycleEventListeners();
+	}
+
+	public PluginContextID getID() {
+		return delegate.getID();
+	}
+
+	public String getLabel() {
+		return delegate.getLabel();
+	}
+
+	public Pair<PluginDescriptor, Integer> getPluginDescriptor() {
+		return delegate.getPluginDescriptor();
+	}
+
+	public PluginContext getParentContext() {
+		return delegate.getParentContext();
+	}
+
+	public List<PluginContext> getChildContexts() {
+		return delegate.getChildContexts();
+	}
+
+	public PluginExecutionResult getResult() {
+		return delegate.getResult();
+	}
+
+	public ProMFuture<?> getFutureResult(int i) {
+		return delegate.getFutureResult(i);
+	}
+
+	public Executor getExecutor() {
+		return delegate.getExecutor();
+	}
+
+	public boolean isDistantChildOf(PluginContext context) {
+		return delegate.isDistantChildOf(context);
+	}
+
+	public void setFuture(PluginExecutionResult resultToBe) {
+		delegate.setFuture(resultToBe);
+	}
+
+	public void setPluginDescriptor(PluginDescriptor descriptor, int methodIndex) throws FieldSetException,
+			RecursiveCallException {
+		delegate.setPluginDescriptor(descriptor, methodIndex);
+	}
+
+	public boolean hasPluginDescriptorInPath(PluginDescriptor descriptor, int methodIndex) {
+		return delegate.hasPluginDescriptorInPath(descriptor, methodIndex);
+	}
+
+	public void log(String message, MessageLevel level) {
+		delegate.log(message, level);
+	}
+
+	public void log(String message) {
+		delegate.log(message);
+	}
+
+	public void log(Throwable exception) {
+		delegate.log(exception);
+	}
+
+	public Logger.ListenerList getLoggingListeners() {
+		return delegate.getLoggingListeners();
+	}
+
+	public PluginContext getRootContext() {
+		return delegate.getRootContext();
+	}
+
+	public boolean deleteChild(PluginContext child) {
+		return delegate.deleteChild(child);
+	}
+
+	public <T extends Connection> T addConnection(T c) {
+		return delegate.addConnection(c);
+	}
+
+	public void clear() {
+		delegate.clear();
+	}
+}
+
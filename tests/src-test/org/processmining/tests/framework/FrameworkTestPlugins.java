@@ -0,0 +1,318 @@
+package org.processmining.tests.framework;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginExecutionResult;
+import org.processmining.framework.plugin.PluginManager;
+import org.processmining.framework.plugin.ProMFuture;
+import org.processmining.framework.plugin.ResultMerger;
+import org.processmining.framework.plugin.annotations.CLI;
+import org.processmining.framework.plugin.annotations.Partitioned;
+import org.processmining.framework.plugin.annotations.Plugin;
+import org.processmining.framework.plugin.annotations.PluginVariant;
+import org.processmining.framework.plugin.annotations.PluginWorkload;
+import org.processmining.framework.plugin.impl.HeadlessGlobalContext;
+import org.processmining.framework.plugin.impl.HeadlessPluginContext;
+import org.processmining.framework.plugin.impl.PluginManagerImpl;
+import org.processmining.framework.plugin.impl.PluginScheduler;
+
+/**
+ * The plugins used by the framework tests. All plugins in the test classes are
+ * registered with the plugin manager the first time one of them is requested.
+ */
+public class FrameworkTestPlugins {
+
+	private static boolean registered = false;
+
+	private FrameworkTestPlugins() {
+	}
+
+	static synchronized PluginManager getPluginManager() {
+		if (!registered) {
+			ProMFuture.setDefaultDispatchOnEventThread(false);
+			PluginManagerImpl.initialize(HeadlessPluginContext.class);
+			PluginManager manager = PluginManagerImpl.getInstance();
+			URL url = FrameworkTestPlugins.class.getProtectionDomain().getCodeSource().getLocation();
+			manager.register(url, null, FrameworkTestPlugins.class.getClassLoader());
+			registered = true;
+		}
+		return PluginManagerImpl.getInstance();
+	}
+
+	/**
+	 * Returns the test plugin with the given name, or null if it could not be
+	 * registered.
+	 */
+	static PluginDescriptor getPlugin(String name) {
+		for (PluginDescriptor plugin : getPluginManager().getAllPlugins()) {
+			if (plugin.getName().equals(name)) {
+				return plugin;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a new root context, in which plugins can be invoked.
+	 */
+	static PluginContext createContext() {
+		getPluginManager();
+		return new HeadlessPluginContext(new HeadlessGlobalContext(), "Test");
+	}
+
+	/**
+	 * Invokes the first method of the given plugin in a new child of the given
+	 * context.
+	 */
+	static PluginExecutionResult invoke(PluginContext context, PluginDescriptor plugin, Object... args) {
+		return plugin.invoke(0, context.createChildContext(plugin.getName()), args);
+	}
+
+	@Plugin(name = "Test sum", parameterLabels = { "First", "Second" }, returnLabels = { "Sum" }, returnTypes = { Integer.class })
+	@CLI(functionName = "sum")
+	public static Integer sum(PluginContext context, Integer first, Integer second) {
+		return first + second;
+	}
+
+	@Plugin(name = "Test nested sum", parameterLabels = { "First", "Second" }, returnLabels = { "Sum" }, returnTypes = { Integer.class })
+	public static Integer nestedSum(PluginContext context, Integer first, Integer second) throws Exception {
+		PluginExecutionResult result = invoke(context, getPlugin("Test sum"), first, second);
+		result.synchronize();
+		return result.<Integer>getResult(0);
+	}
+
+	@Plugin(name = "Test CPU workload", parameterLabels = {}, returnLabels = { "On CPU pool" }, returnTypes = { Boolean.class }, workload = PluginWorkload.CPU)
+	public static Boolean onCPUPool(PluginContext context) {
+		return ForkJoinTask.getPool() == PluginScheduler.getInstance().getCPUExecutor();
+	}
+
+	/**
+	 * The number of times the "Test deterministic copy" plugin was executed.
+	 */
+	static final AtomicInteger copies = new AtomicInteger();
+
+	@Plugin(name = "Test deterministic copy", parameterLabels = { "Text" }, returnLabels = { "Copy" }, returnTypes = { String.class }, deterministic = true)
+	public static String copy(PluginContext context, String text) {
+		copies.incrementAndGet();
+		return new String(text);
+	}
+
+	@Plugin(name = "Test divide", parameterLabels = { "Dividend", "Divisor" }, returnLabels = { "Quotient",
+			"Remainder" }, returnTypes = { Integer.class, Integer.class })
+	@CLI(functionName = "divide")
+	public static Object[] divide(PluginContext context, Integer dividend, Integer divisor) {
+		return new Object[] { dividend / divisor, dividend % divisor };
+	}
+
+	@Plugin(name = "Test concatenate", parameterLabels = { "Parts" }, returnLabels = { "Text" }, returnTypes = { String.class })
+	public static String concatenate(PluginContext context, String[] parts) {
+		StringBuilder builder = new StringBuilder();
+		for (String part : parts) {
+			builder.append(part);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * The number of parts the partitioned test plugins were executed on.
+	 */
+	static final AtomicInteger partsExecuted = new AtomicInteger();
+
+	public static class TotalMerger implements ResultMerger<Integer> {
+		public Integer merge(List<Integer> results) {
+			int total = 0;
+			for (Integer result : results) {
+				total += result;
+			}
+			return total;
+		}
+	}
+
+	@Plugin(name = "Test partitioned total", parameterLabels = { "Numbers" }, returnLabels = { "Total" }, returnTypes = { Integer.class })
+	@Partitioned(parameter = 0, merger = TotalMerger.class, partitions = 3)
+	public static Integer total(PluginContext context, Integer[] numbers) {
+		partsExecuted.incrementAndGet();
+		int total = 0;
+		for (Integer number : numbers) {
+			total += number;
+		}
+		return total;
+	}
+
+	/**
+	 * A list of numbers, of which the sublists are not of this type.
+	 */
+	public static class Numbers extends ArrayList<Integer> {
+		private static final long serialVersionUID = 1L;
+	}
+
+	@Plugin(name = "Test partitioned numbers", parameterLabels = { "Numbers" }, returnLabels = { "Total" }, returnTypes = { Integer.class })
+	@Partitioned(parameter = 0, merger = TotalMerger.class, partitions = 3)
+	public static Integer total(PluginContext context, Numbers numbers) {
+		partsExecuted.incrementAndGet();
+		int total = 0;
+		for (Integer number : numbers) {
+			total += number;
+		}
+		return total;
+	}
+
+	/**
+	 * Merges the minimum and maximum of the parts, which are returned as one
+	 * array per part.
+	 */
+	public static class BoundsMerger implements ResultMerger<Object[]> {
+		public Object[] merge(List<Object[]> results) {
+			int min = Integer.MAX_VALUE;
+			int max = Integer.MIN_VALUE;
+			for (Object[] result : results) {
+				min = Math.min(min, (Integer) result[0]);
+				max = Math.max(max, (Integer) result[1]);
+			}
+			return new Object[] { min, max };
+		}
+	}
+
+	@Plugin(name = "Test partitioned bounds", parameterLabels = { "Numbers" }, returnLabels = { "Minimum", "Maximum" }, returnTypes = {
+			Integer.class, Integer.class })
+	@Partitioned(parameter = 0, merger = BoundsMerger.class, partitions = 2)
+	public static Object[] bounds(PluginContext context, Integer[] numbers) {
+		partsExecuted.incrementAndGet();
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+		for (Integer number : numbers) {
+			min = Math.min(min, number);
+			max = Math.max(max, number);
+		}
+		return new Object[] { min, max };
+	}
+
+	@Plugin(name = "Test export number", parameterLabels = { "Number", "File" }, returnLabels = {}, returnTypes = {})
+	@CLI(functionName = "export_number", exportExtensions = { "num" })
+	public static void exportNumber(PluginContext context, Integer number, File file) throws IOException {
+		Writer writer = new FileWriter(file);
+		try {
+			writer.write(number.toString());
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * An object constructed by the "Test construct ..." plugins.
+	 */
+	public static class Constructed {
+		private final String by;
+
+		public Constructed(String by) {
+			this.by = by;
+		}
+
+		public String getConstructor() {
+			return by;
+		}
+	}
+
+	/**
+	 * Counted down when "Test construct 1 slowly" notices it is cancelled.
+	 */
+	static volatile CountDownLatch slowConstructionCancelled = new CountDownLatch(1);
+
+	@Plugin(name = "Test construct 3", parameterLabels = { "Text" }, returnLabels = { "Constructed" }, returnTypes = { Constructed.class })
+	public static Constructed construct(PluginContext context, String text) {
+		return new Constructed("Test construct 3");
+	}
+
+	@Plugin(name = "Test construct 1 slowly", parameterLabels = { "Text" }, returnLabels = { "Constructed" }, returnTypes = { Constructed.class })
+	public static Constructed constructSlowly(PluginContext context, String text) {
+		long end = System.currentTimeMillis() + 10000;
+		try {
+			while (!context.getProgress().isCancelled() && (System.currentTimeMillis() < end)) {
+				Thread.sleep(10);
+			}
+		} catch (InterruptedException e) {
+			// Cancelling the plugin interrupts it
+		}
+		if (context.getProgress().isCancelled()) {
+			slowConstructionCancelled.countDown();
+		}
+		return new Constructed("Test construct 1 slowly");
+	}
+
+	@Plugin(name = "Test construct 2 failing", parameterLabels = { "Text" }, returnLabels = { "Constructed" }, returnTypes = { Constructed.class })
+	public static Constructed constructFailing(PluginContext context, String text) {
+		throw new IllegalStateException("cannot construct");
+	}
+
+	/**
+	 * Returns the index of the method of the given plugin with the given
+	 * label.
+	 */
+	static int getMethodIndex(PluginDescriptor plugin, String label) {
+		for (int i = 0; i < plugin.getNumberOfMethods(); i++) {
+			if (plugin.getMethodLabel(i).equals(label)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
+
+/**
+ * A plugin with two variants, which require its parameters in different
+ * orders.
+ */
+@Plugin(name = "Test variants", parameterLabels = { "Text", "Number" }, returnLabels = { "Text" }, returnTypes = { String.class })
+class VariantsPlugin {
+
+	@PluginVariant(variantLabel = "Text only", requiredParameterLabels = { 0 })
+	public static String text(PluginContext context, String text) {
+		return text;
+	}
+
+	@PluginVariant(variantLabel = "Number and text", requiredParameterLabels = { 1, 0 })
+	public static String both(PluginContext context, Integer number, String text) {
+		return number + text;
+	}
+}
+
+/**
+ * A plugin with a valid variant, and a variant requiring a parameter label
+ * that does not exist.
+ */
+@Plugin(name = "Test invalid label index", parameterLabels = { "Text" }, returnLabels = { "Text" }, returnTypes = { String.class })
+class InvalidLabelIndexPlugin {
+
+	@PluginVariant(variantLabel = "Valid", requiredParameterLabels = { 0 })
+	public static String valid(PluginContext context, String text) {
+		return text;
+	}
+
+	@PluginVariant(variantLabel = "Invalid", requiredParameterLabels = { -1 })
+	public static String invalid(PluginContext context, String text) {
+		return text;
+	}
+}
+
+
+
+
+
+
+
+
+
+
+
+
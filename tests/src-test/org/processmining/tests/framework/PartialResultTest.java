@@ -0,0 +1,192 @@
+package org.processmining.tests.framework;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.ProMFuture;
+import org.processmining.framework.plugin.ProMFuture.PartialResult;
+import org.processmining.framework.plugin.events.PartialResultListener;
+
+public class PartialResultTest {
+
+	private static final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@AfterClass
+	public static void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Collects the partial results it receives, requesting the given number
+	 * up front.
+	 */
+	private static class Collector implements Flow.Subscriber<PartialResult> {
+		private final long initialRequest;
+		private final List<Object> values = new CopyOnWriteArrayList<Object>();
+		private final List<Boolean> deltas = new CopyOnWriteArrayList<Boolean>();
+		private final CountDownLatch closed = new CountDownLatch(1);
+		private volatile Flow.Subscription subscription;
+		private volatile Throwable error = null;
+
+		private Collector(long initialRequest) {
+			this.initialRequest = initialRequest;
+		}
+
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			if (initialRequest > 0) {
+				subscription.request(initialRequest);
+			}
+		}
+
+		public void onNext(PartialResult item) {
+			values.add(item.getValue());
+			deltas.add(item.isDelta());
+		}
+
+		public void onError(Throwable throwable) {
+			error = throwable;
+			closed.countDown();
+		}
+
+		public void onComplete() {
+			closed.countDown();
+		}
+	}
+
+	/**
+	 * Returns a future that publishes the given number of partial results,
+	 * alternating deltas and snapshots, once the gate opens.
+	 */
+	private static ProMFuture<Integer> publishing(final int count, final CountDownLatch gate,
+			final AtomicInteger published) {
+		ProMFuture<Integer> future = new ProMFuture<Integer>(Integer.class, "publishing") {
+			protected Integer doInBackground() throws Exception {
+				gate.await();
+				for (int i = 0; i < count; i++) {
+					publishPartialResult(i, i % 2 == 0);
+					published.incrementAndGet();
+				}
+				return count;
+			}
+		};
+		future.setDispatchOnEventThread(false);
+		return future;
+	}
+
+	@Test
+	public void test_subscribersReceiveAllInOrder() throws Exception {
+		CountDownLatch gate = new CountDownLatch(1);
+		ProMFuture<Integer> future = publishing(10, gate, new AtomicInteger());
+		Collector collector = new Collector(Long.MAX_VALUE);
+		future.getPartialResultPublisher().subscribe(collector);
+		future.start(executor);
+		gate.countDown();
+		Assert.assertEquals(Integer.valueOf(10), future.get(5, TimeUnit.SECONDS));
+		Assert.assertTrue(collector.closed.await(5, TimeUnit.SECONDS));
+		Assert.assertNull(collector.error);
+		Assert.assertEquals(Arrays.<Object>asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), collector.values);
+		Assert.assertEquals(Boolean.TRUE, collector.deltas.get(0));
+		Assert.assertEquals(Boolean.FALSE, collector.deltas.get(1));
+		Assert.assertEquals(Integer.valueOf(9), future.getLatestPartialResult());
+	}
+
+	@Test
+	public void test_slowSubscriberHoldsUpComputation() throws Exception {
+		int count = Flow.defaultBufferSize() * 4;
+		AtomicInteger published = new AtomicInteger();
+		CountDownLatch gate = new CountDownLatch(1);
+		ProMFuture<Integer> future = publishing(count, gate, published);
+		Collector collector = new Collector(0);
+		future.getPartialResultPublisher().subscribe(collector);
+		future.start(executor);
+		gate.countDown();
+		Thread.sleep(500);
+		// The subscriber requested nothing, so the computation waits once
+		// the buffer is full
+		Assert.assertFalse(future.isDone());
+		Assert.assertTrue(published.get() < count);
+		collector.subscription.request(Long.MAX_VALUE);
+		Assert.assertEquals(Integer.valueOf(count), future.get(5, TimeUnit.SECONDS));
+		Assert.assertTrue(collector.closed.await(5, TimeUnit.SECONDS));
+		Assert.assertEquals(count, collector.values.size());
+	}
+
+	@Test
+	public void test_publisherClosedExceptionally() throws Exception {
+		ProMFuture<Integer> failing = new ProMFuture<Integer>(Integer.class, "failing") {
+			protected Integer doInBackground() throws Exception {
+				throw new IllegalStateException("failed");
+			}
+		};
+		failing.setDispatchOnEventThread(false);
+		Collector collector = new Collector(1);
+		failing.getPartialResultPublisher().subscribe(collector);
+		failing.getRunnable().run();
+		Assert.assertTrue(collector.closed.await(5, TimeUnit.SECONDS));
+		Assert.assertTrue(collector.error instanceof IllegalStateException);
+
+		ProMFuture<Integer> cancelled = publishing(1, new CountDownLatch(1), new AtomicInteger());
+		collector = new Collector(1);
+		cancelled.getPartialResultPublisher().subscribe(collector);
+		cancelled.cancel(true);
+		Assert.assertTrue(collector.closed.await(5, TimeUnit.SECONDS));
+		Assert.assertTrue(collector.error instanceof CancellationException);
+	}
+
+	@Test
+	public void test_publisherOfDoneFutureCompletes() throws Exception {
+		ProMFuture<Integer> future = publishing(3, new CountDownLatch(0), new AtomicInteger());
+		future.getRunnable().run();
+		Collector collector = new Collector(1);
+		future.getPartialResultPublisher().subscribe(collector);
+		Assert.assertTrue(collector.closed.await(5, TimeUnit.SECONDS));
+		Assert.assertNull(collector.error);
+		Assert.assertTrue(collector.values.isEmpty());
+	}
+
+	@Test
+	public void test_listenersSkipSupersededSnapshots() throws Exception {
+		ProMFuture<Integer> future = publishing(0, new CountDownLatch(0), new AtomicInteger());
+		final List<Object> received = new ArrayList<Object>();
+		PartialResultListener listener = new PartialResultListener() {
+			public void partialResultPublished(ProMFuture<? extends Object> f, Object partialResult, boolean delta) {
+				received.add(partialResult);
+			}
+		};
+		future.getPartialResultListeners().add(listener);
+		future.publishPartialResult("a", false);
+		future.publishPartialResult("b", true);
+		Assert.assertEquals(Arrays.<Object>asList("a", "b"), received);
+		future.getRunnable().run();
+		// Ignored once done
+		future.publishPartialResult("c", true);
+		Assert.assertEquals(Arrays.<Object>asList("a", "b"), received);
+	}
+
+	@Test
+	public void test_defaultPublishesOnFuture() throws Exception {
+		final ProMFuture<Integer> future = publishing(0, new CountDownLatch(0), new AtomicInteger());
+		PluginContext context = new ExternalPluginContext() {
+			public ProMFuture<?> getFutureResult(int i) {
+				return future;
+			}
+		};
+		context.publishPartialResult(0, "partial", false);
+		Assert.assertEquals("partial", future.getLatestPartialResult());
+	}
+}
+
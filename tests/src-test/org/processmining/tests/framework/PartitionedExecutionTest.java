@@ -0,0 +1,103 @@
+package org.processmining.tests.framework;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.plugin.InputPartitioner;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginExecutionResult;
+
+public class PartitionedExecutionTest {
+
+	private static List<Integer> numbers(int count) {
+		List<Integer> numbers = new ArrayList<Integer>(count);
+		for (int i = 0; i < count; i++) {
+			numbers.add(i);
+		}
+		return numbers;
+	}
+
+	@Test
+	public void test_listSplitIntoConsecutiveRanges() {
+		List<Object> parts = new InputPartitioner.Default().split(numbers(10), 3);
+		Assert.assertEquals(3, parts.size());
+		Assert.assertEquals(Arrays.asList(0, 1, 2), parts.get(0));
+		Assert.assertEquals(Arrays.asList(3, 4, 5), parts.get(1));
+		Assert.assertEquals(Arrays.asList(6, 7, 8, 9), parts.get(2));
+	}
+
+	@Test
+	public void test_arraySplitIntoArraysOfSameType() {
+		List<Object> parts = new InputPartitioner.Default().split(new String[] { "a", "b", "c", "d", "e" }, 2);
+		Assert.assertEquals(2, parts.size());
+		Assert.assertArrayEquals(new String[] { "a", "b" }, (String[]) parts.get(0));
+		Assert.assertArrayEquals(new String[] { "c", "d", "e" }, (String[]) parts.get(1));
+	}
+
+	@Test
+	public void test_collectionSplitInIterationOrder() {
+		List<Object> parts = new InputPartitioner.Default().split(new LinkedHashSet<Integer>(Arrays.asList(5, 3, 1)),
+				2);
+		Assert.assertEquals(Arrays.asList(Arrays.asList(5), Arrays.asList(3, 1)), parts);
+	}
+
+	@Test
+	public void test_atMostOneElementPerPart() {
+		List<Object> parts = new InputPartitioner.Default().split(numbers(2), 8);
+		Assert.assertEquals(Arrays.asList(Arrays.asList(0), Arrays.asList(1)), parts);
+	}
+
+	@Test
+	public void test_unsplittableInputs() {
+		List<Integer> empty = Collections.emptyList();
+		Assert.assertEquals(Arrays.<Object>asList(empty), new InputPartitioner.Default().split(empty, 4));
+		Assert.assertEquals(Arrays.<Object>asList("text"), new InputPartitioner.Default().split("text", 4));
+		List<Integer> numbers = numbers(5);
+		Assert.assertSame(numbers, new InputPartitioner.Default().split(numbers, 1).get(0));
+	}
+
+	@Test
+	public void test_partsMerged() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		int before = FrameworkTestPlugins.partsExecuted.get();
+		PluginExecutionResult result = FrameworkTestPlugins.invoke(context,
+				FrameworkTestPlugins.getPlugin("Test partitioned total"), (Object) numbers(100).toArray(
+						new Integer[0]));
+		result.synchronize();
+		Assert.assertEquals(Integer.valueOf(4950), result.<Integer>getResult(0));
+		Assert.assertEquals(before + 3, FrameworkTestPlugins.partsExecuted.get());
+	}
+
+	@Test
+	public void test_wholeInputIfPartsOfOtherType() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		FrameworkTestPlugins.Numbers numbers = new FrameworkTestPlugins.Numbers();
+		numbers.addAll(numbers(10));
+		int before = FrameworkTestPlugins.partsExecuted.get();
+		PluginExecutionResult result = FrameworkTestPlugins.invoke(context,
+				FrameworkTestPlugins.getPlugin("Test partitioned numbers"), numbers);
+		result.synchronize();
+		Assert.assertEquals(Integer.valueOf(45), result.<Integer>getResult(0));
+		Assert.assertEquals(before + 1, FrameworkTestPlugins.partsExecuted.get());
+	}
+
+	@Test
+	public void test_multipleResultsMergedAsArrays() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		int before = FrameworkTestPlugins.partsExecuted.get();
+		PluginExecutionResult result = FrameworkTestPlugins.invoke(context,
+				FrameworkTestPlugins.getPlugin("Test partitioned bounds"), (Object) new Integer[] { 4, -2, 9, 7 });
+		result.synchronize();
+		Assert.assertEquals(Integer.valueOf(-2), result.<Integer>getResult(0));
+		Assert.assertEquals(Integer.valueOf(9), result.<Integer>getResult(1));
+		Assert.assertEquals(before + 2, FrameworkTestPlugins.partsExecuted.get());
+	}
+}
+
+
+
@@ -0,0 +1,72 @@
+package org.processmining.tests.framework;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.plugin.PluginBatch;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginExecutionResult;
+import org.processmining.framework.plugin.PluginParameterBinding;
+import org.processmining.framework.plugin.ProMFuture;
+
+public class PluginBatchTest {
+
+	private static PluginParameterBinding sum() {
+		PluginDescriptor plugin = FrameworkTestPlugins.getPlugin("Test sum");
+		return PluginParameterBinding.Factory.tryToBind(FrameworkTestPlugins.getPluginManager(), plugin, 0, true,
+				true, Integer.class, Integer.class).get(0);
+	}
+
+	@Test
+	public void test_returnsAllResults() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		List<Object[]> arguments = new ArrayList<Object[]>();
+		int expected = 0;
+		for (int i = 0; i < 10; i++) {
+			arguments.add(new Object[] { i, i });
+			expected += 2 * i;
+		}
+		PluginBatch batch = context.invokeBatch(sum(), 2, arguments);
+		Assert.assertSame(context, batch.getContext().getParentContext());
+		int total = 0;
+		PluginExecutionResult result;
+		while ((result = batch.take()) != null) {
+			result.synchronize();
+			total += result.<Integer>getResult(0);
+		}
+		Assert.assertEquals(expected, total);
+		Assert.assertTrue(batch.isDone());
+		Assert.assertNull(batch.take());
+	}
+
+	@Test
+	public void test_cancellingCallerCancelsBatch() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext().createChildContext("caller");
+		final CountDownLatch gate = new CountDownLatch(1);
+		ProMFuture<Integer> pending = new ProMFuture<Integer>(Integer.class, "input") {
+			protected Integer doInBackground() throws Exception {
+				gate.await();
+				return 1;
+			}
+		};
+		pending.setDispatchOnEventThread(false);
+		List<Object[]> arguments = new ArrayList<Object[]>();
+		for (int i = 0; i < 5; i++) {
+			arguments.add(new Object[] { pending, i });
+		}
+		PluginBatch batch = context.invokeBatch(sum(), 1, arguments);
+		Assert.assertFalse(batch.isDone());
+
+		context.getProgress().cancel();
+		Assert.assertTrue(batch.getContext().getProgress().isCancelled());
+		Assert.assertTrue(batch.isDone());
+		PluginExecutionResult result = batch.take();
+		Assert.assertTrue(((ProMFuture<?>) result.getResults()[0]).isCancelled());
+		Assert.assertNull(batch.take());
+	}
+}
+
@@ -0,0 +1,165 @@
+package org.processmining.tests.framework;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.processmining.framework.boot.Boot;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginParameterBinding;
+import org.processmining.framework.plugin.impl.PluginCostSelector;
+import org.processmining.framework.plugin.impl.PluginExecutionHistory;
+import org.processmining.framework.util.Pair;
+
+public class PluginCostSelectorTest {
+
+	private boolean selection;
+	private File file;
+	private final List<String> lines = new ArrayList<String>();
+
+	@Before
+	public void setUp() throws IOException {
+		selection = Boot.COST_BASED_SELECTION;
+		file = File.createTempFile("execution-history", ".tsv");
+	}
+
+	@After
+	public void tearDown() {
+		Boot.COST_BASED_SELECTION = selection;
+		file.delete();
+	}
+
+	private static PluginParameterBinding bind(String name, Class<?>... types) {
+		PluginDescriptor plugin = FrameworkTestPlugins.getPlugin(name);
+		return PluginParameterBinding.Factory.tryToBind(FrameworkTestPlugins.getPluginManager(), plugin, 0, true,
+				true, types).get(0);
+	}
+
+	private static PluginParameterBinding copy() {
+		return bind("Test deterministic copy", String.class);
+	}
+
+	private static PluginParameterBinding construct() {
+		return bind("Test construct 3", String.class);
+	}
+
+	private static PluginParameterBinding divide() {
+		return bind("Test divide", Integer.class, Integer.class);
+	}
+
+	private void executed(PluginParameterBinding binding, String outcome, long... durations) {
+		for (long duration : durations) {
+			lines.add(lines.size() + "\t" + binding.getPlugin().getID() + "\t" + binding.getMethodIndex() + "\t\t\t\t"
+					+ duration + "\t" + outcome + "\t0\t0");
+		}
+	}
+
+	/**
+	 * Writes the executions to a new history, and waits until it read them.
+	 */
+	private PluginExecutionHistory load() throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			for (String line : lines) {
+				writer.write(line);
+				writer.write('\n');
+			}
+		} finally {
+			writer.close();
+		}
+		PluginExecutionHistory history = new PluginExecutionHistory(file, true);
+		// Waits until the history read the file
+		history.flush();
+		return history;
+	}
+
+	private static List<PluginParameterBinding> rank(PluginExecutionHistory history,
+			PluginParameterBinding... bindings) {
+		List<Pair<Integer, PluginParameterBinding>> candidates = new ArrayList<Pair<Integer, PluginParameterBinding>>();
+		for (PluginParameterBinding binding : bindings) {
+			candidates.add(new Pair<Integer, PluginParameterBinding>(0, binding));
+		}
+		List<PluginParameterBinding> ranked = new ArrayList<PluginParameterBinding>();
+		for (Pair<Integer, PluginParameterBinding> candidate : PluginCostSelector.rank(candidates, history)) {
+			ranked.add(candidate.getSecond());
+		}
+		return ranked;
+	}
+
+	@Test
+	public void test_disabledKeepsOrder() throws Exception {
+		executed(copy(), "COMPLETED", 100, 100, 100);
+		executed(construct(), "COMPLETED", 1, 1, 1);
+		PluginExecutionHistory history = load();
+		Boot.COST_BASED_SELECTION = false;
+		Assert.assertEquals(Arrays.asList(divide(), copy(), construct()), rank(history, divide(), copy(),
+				construct()));
+	}
+
+	@Test
+	public void test_fewerResultsFirst() throws Exception {
+		PluginExecutionHistory history = load();
+		Boot.COST_BASED_SELECTION = true;
+		Assert.assertEquals(Arrays.asList(copy(), divide()), rank(history, divide(), copy()));
+	}
+
+	@Test
+	public void test_cheapestFirst() throws Exception {
+		executed(copy(), "COMPLETED", 100, 100, 100);
+		executed(construct(), "COMPLETED", 1, 2, 3);
+		PluginExecutionHistory history = load();
+		Boot.COST_BASED_SELECTION = true;
+		Assert.assertEquals(Arrays.asList(construct(), copy()), rank(history, copy(), construct()));
+	}
+
+	@Test
+	public void test_failuresRaiseCost() throws Exception {
+		// A median of 10 ms, always completed: cost 11
+		executed(copy(), "COMPLETED", 10, 10, 10);
+		// A median of 4 ms, but only a third completed: cost 15
+		executed(construct(), "COMPLETED", 4);
+		executed(construct(), "FAILED", 1, 1);
+		PluginExecutionHistory history = load();
+		Boot.COST_BASED_SELECTION = true;
+		Assert.assertEquals(11, PluginCostSelector.getExpectedCost(copy(), history), 0.0001);
+		Assert.assertEquals(15, PluginCostSelector.getExpectedCost(construct(), history), 0.0001);
+		Assert.assertEquals(Arrays.asList(copy(), construct()), rank(history, construct(), copy()));
+	}
+
+	@Test
+	public void test_unmeasuredFirst() throws Exception {
+		executed(copy(), "COMPLETED", 1, 1, 1);
+		// Cancelled executions do not count as measurements
+		executed(construct(), "COMPLETED", 100, 100);
+		executed(construct(), "CANCELLED", 1);
+		PluginExecutionHistory history = load();
+		Boot.COST_BASED_SELECTION = true;
+		Assert.assertEquals(0, PluginCostSelector.getExpectedCost(construct(), history), 0.0001);
+		Assert.assertEquals(Arrays.asList(construct(), copy()), rank(history, copy(), construct()));
+	}
+
+	@Test
+	public void test_tiesKeepOrder() throws Exception {
+		executed(copy(), "COMPLETED", 5, 5, 5);
+		executed(construct(), "COMPLETED", 5, 5, 5);
+		PluginExecutionHistory history = load();
+		Boot.COST_BASED_SELECTION = true;
+		Assert.assertEquals(Arrays.asList(copy(), construct()), rank(history, copy(), construct()));
+		Assert.assertEquals(Arrays.asList(construct(), copy()), rank(history, construct(), copy()));
+		// Unmeasured candidates tie as well
+		history = new PluginExecutionHistory(new File(file.getPath() + ".missing"));
+		Assert.assertEquals(Arrays.asList(copy(), construct()), rank(history, copy(), construct()));
+		Assert.assertEquals(Arrays.asList(construct(), copy()), rank(history, construct(), copy()));
+	}
+}
+
+
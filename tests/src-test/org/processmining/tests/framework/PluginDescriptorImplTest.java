@@ -0,0 +1,46 @@
+package org.processmining.tests.framework;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.plugin.PluginDescriptor;
+
+public class PluginDescriptorImplTest {
+
+	@Test
+	public void test_variantMetadata() {
+		PluginDescriptor plugin = FrameworkTestPlugins.getPlugin("Test variants");
+		Assert.assertNotNull(plugin);
+		int text = FrameworkTestPlugins.getMethodIndex(plugin, "Text only");
+		int both = FrameworkTestPlugins.getMethodIndex(plugin, "Number and text");
+		Assert.assertTrue(text >= 0 && both >= 0);
+
+		Assert.assertEquals(Arrays.asList("Number", "Text"), plugin.getParameterNames(both));
+		Assert.assertEquals(Arrays.asList("Text"), plugin.getParameterNames(text));
+
+		// global parameter index to index in the method, and back
+		Assert.assertEquals(1, plugin.getIndexInMethod(both, 0));
+		Assert.assertEquals(0, plugin.getIndexInMethod(both, 1));
+		Assert.assertEquals(-1, plugin.getIndexInMethod(text, 1));
+		Assert.assertEquals(1, plugin.getIndexInParameterNames(both, 0));
+
+		Assert.assertEquals(String.class, plugin.getPluginParameterType(both, 0));
+		Assert.assertEquals(Integer.class, plugin.getPluginParameterType(both, 1));
+		Assert.assertNull(plugin.getPluginParameterType(text, 1));
+		Assert.assertNull(plugin.getPluginParameterName(text, 1));
+		Assert.assertEquals(Collections.<Class<?>>singleton(Integer.class), plugin.getTypesAtParameterIndex(1));
+	}
+
+	@Test
+	public void test_invalidLabelIndex() {
+		// the invalid variant is left out, the valid one is kept
+		PluginDescriptor plugin = FrameworkTestPlugins.getPlugin("Test invalid label index");
+		Assert.assertNotNull(plugin);
+		Assert.assertEquals(1, plugin.getNumberOfMethods());
+		Assert.assertEquals("Valid", plugin.getMethodLabel(0));
+		Assert.assertEquals(Arrays.asList("Text"), plugin.getParameterNames(0));
+	}
+}
+
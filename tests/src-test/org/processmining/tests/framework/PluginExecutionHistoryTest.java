@@ -0,0 +1,156 @@
+package org.processmining.tests.framework;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.processmining.framework.boot.Boot;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.impl.PluginExecutionHistory;
+
+public class PluginExecutionHistoryTest {
+
+	private File file;
+	private PluginDescriptor plugin;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("execution-history", ".tsv");
+		plugin = FrameworkTestPlugins.getPlugin("Test sum");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	private String line(long time, long duration, String outcome) {
+		return time + "\t" + plugin.getID() + "\t0\tTest sum\tjava.lang.Integer,java.lang.Integer\t-1,-1\t" + duration
+				+ "\t" + outcome + "\t0\t0";
+	}
+
+	private void write(List<String> lines) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			for (String line : lines) {
+				writer.write(line);
+				writer.write('\n');
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Creates an enabled history on the file, and waits until it read the
+	 * file.
+	 */
+	private PluginExecutionHistory load() {
+		PluginExecutionHistory history = new PluginExecutionHistory(file, true);
+		history.flush();
+		return history;
+	}
+
+	@Test
+	public void test_runtimePercentiles() throws Exception {
+		List<String> lines = new ArrayList<String>();
+		long[] durations = { 7, 3, 10, 1, 5, 9, 2, 8, 4, 6 };
+		for (int i = 0; i < durations.length; i++) {
+			lines.add(line(i, durations[i], "COMPLETED"));
+		}
+		lines.add(line(10, 1000, "FAILED"));
+		lines.add(line(11, 2000, "CANCELLED"));
+		lines.add("malformed");
+		write(lines);
+
+		PluginExecutionHistory.Statistics statistics = load().getStatistics(plugin.getID(), 0);
+		Assert.assertEquals(12, statistics.getExecutionCount());
+		Assert.assertEquals(1, statistics.getFailureCount());
+		Assert.assertEquals(10, statistics.getCompletedCount());
+		Assert.assertEquals(1, statistics.getRuntimePercentile(0));
+		Assert.assertEquals(1, statistics.getRuntimePercentile(10));
+		Assert.assertEquals(5, statistics.getRuntimePercentile(50));
+		Assert.assertEquals(6, statistics.getRuntimePercentile(51));
+		Assert.assertEquals(9, statistics.getRuntimePercentile(90));
+		Assert.assertEquals(10, statistics.getRuntimePercentile(100));
+		Assert.assertEquals(5.5, statistics.getMeanRuntime(), 0.0001);
+		// Oldest first
+		Assert.assertEquals(7, statistics.getCompletedExecutions().get(0).getDuration());
+	}
+
+	@Test
+	public void test_noRuntimesWithoutCompletedExecutions() throws Exception {
+		PluginExecutionHistory.Statistics statistics = load().getStatistics(plugin.getID(), 0);
+		Assert.assertEquals(0, statistics.getExecutionCount());
+		Assert.assertEquals(-1, statistics.getRuntimePercentile(50));
+		Assert.assertEquals(-1, statistics.getMeanRuntime(), 0.0001);
+	}
+
+	@Test
+	public void test_fileCompactedOnLoad() throws Exception {
+		List<String> lines = new ArrayList<String>();
+		int extra = 10;
+		for (int i = 0; i < PluginExecutionHistory.MAX_SAMPLES + extra; i++) {
+			lines.add(line(i, i, "COMPLETED"));
+		}
+		write(lines);
+
+		PluginExecutionHistory history = load();
+		PluginExecutionHistory.Statistics statistics = history.getStatistics(plugin.getID(), 0);
+		Assert.assertEquals(PluginExecutionHistory.MAX_SAMPLES, statistics.getExecutionCount());
+		// The oldest executions are dropped
+		Assert.assertEquals(extra, statistics.getRuntimePercentile(0));
+
+		List<String> compacted = Files.readAllLines(file.toPath());
+		Assert.assertEquals(lines.subList(extra, lines.size()), compacted);
+	}
+
+	@Test
+	public void test_recordedAfterLoad() throws Exception {
+		write(Collections.singletonList(line(0, 1, "COMPLETED")));
+		PluginExecutionHistory history = new PluginExecutionHistory(file, true);
+		// Flushing right away must not count the recorded execution twice
+		history.record(plugin, 0, new Object[] { 1, 2 }, 2, PluginExecutionHistory.Outcome.COMPLETED, 0, 0);
+		history.flush();
+		Assert.assertEquals(2, history.getStatistics(plugin.getID(), 0).getExecutionCount());
+		Assert.assertEquals(2, Files.readAllLines(file.toPath()).size());
+	}
+
+	@Test
+	public void test_closeWritesPending() throws Exception {
+		file.delete();
+		PluginExecutionHistory history = new PluginExecutionHistory(file, true);
+		history.record(plugin, 0, new Object[] { 1, 2 }, 1, PluginExecutionHistory.Outcome.COMPLETED, 0, 0);
+		history.close();
+		Assert.assertEquals(1, Files.readAllLines(file.toPath()).size());
+		// Executions recorded after closing are ignored
+		history.record(plugin, 0, new Object[] { 1, 2 }, 1, PluginExecutionHistory.Outcome.COMPLETED, 0, 0);
+		history.flush();
+		Assert.assertEquals(1, Files.readAllLines(file.toPath()).size());
+		Assert.assertEquals(1, history.getStatistics(plugin.getID()).getExecutionCount());
+	}
+
+	@Test
+	public void test_disabledByDefault() throws Exception {
+		Assert.assertFalse(Boot.EXECUTION_HISTORY);
+		file.delete();
+		PluginExecutionHistory history = new PluginExecutionHistory(file);
+		history.record(plugin, 0, new Object[] { 1, 2 }, 1, PluginExecutionHistory.Outcome.COMPLETED, 0, 0);
+		history.flush();
+		Assert.assertFalse(file.exists());
+		Assert.assertEquals(0, history.getStatistics(plugin.getID()).getExecutionCount());
+	}
+}
+
+
+
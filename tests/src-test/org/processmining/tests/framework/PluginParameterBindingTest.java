@@ -0,0 +1,59 @@
+package org.processmining.tests.framework;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginExecutionResult;
+import org.processmining.framework.plugin.PluginParameterBinding;
+import org.processmining.framework.plugin.ProMFuture;
+
+public class PluginParameterBindingTest {
+
+	private static String concatenate(Object... parts) throws Exception {
+		Class<?>[] types = new Class<?>[parts.length];
+		Arrays.fill(types, String.class);
+		PluginContext context = FrameworkTestPlugins.createContext();
+		// All objects are bound to the single array parameter
+		PluginDescriptor plugin = FrameworkTestPlugins.getPlugin("Test concatenate");
+		PluginParameterBinding binding = PluginParameterBinding.Factory.tryToBind(
+				FrameworkTestPlugins.getPluginManager(), plugin, 0, true, false, types).get(0);
+		PluginExecutionResult result = binding.invoke(context.createChildContext(plugin.getName()), parts);
+		result.synchronize();
+		return result.<String>getResult(0);
+	}
+
+	@Test
+	public void test_objectsBoundToArrayInOrder() throws Exception {
+		Assert.assertEquals("abc", concatenate("a", "b", "c"));
+	}
+
+	@Test
+	public void test_futuresInArrayUnwrapped() throws Exception {
+		ProMFuture<String> future = new ProMFuture<String>(String.class, "b") {
+			protected String doInBackground() throws Exception {
+				return "b";
+			}
+		};
+		future.getRunnable().run();
+		Assert.assertEquals("abc", concatenate("a", future, "c"));
+	}
+
+	/**
+	 * Binding the objects one by one used to take quadratic time, which takes
+	 * minutes for this number of objects.
+	 */
+	@Test(timeout = 20000)
+	public void test_manyObjectsBoundToArray() throws Exception {
+		Object[] parts = new Object[200000];
+		Arrays.fill(parts, "x");
+		parts[parts.length - 1] = "y";
+		String text = concatenate(parts);
+		Assert.assertEquals(parts.length, text.length());
+		Assert.assertTrue(text.startsWith("xx"));
+		Assert.assertTrue(text.endsWith("xy"));
+	}
+}
+
@@ -0,0 +1,96 @@
+package org.processmining.tests.framework;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.plugin.GlobalContext;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginParameterBinding;
+import org.processmining.framework.plugin.PluginPipeline;
+import org.processmining.framework.plugin.impl.HeadlessGlobalContext;
+import org.processmining.framework.providedobjects.ProvidedObjectID;
+
+public class PluginPipelineTest {
+
+	private static PluginParameterBinding bind(String name, Class<?>... types) {
+		PluginDescriptor plugin = FrameworkTestPlugins.getPlugin(name);
+		return PluginParameterBinding.Factory.tryToBind(FrameworkTestPlugins.getPluginManager(), plugin, 0, true,
+				true, types).get(0);
+	}
+
+	private static PluginParameterBinding sum() {
+		return bind("Test sum", Integer.class, Integer.class);
+	}
+
+	@Test
+	public void test_ordersNodesTopologically() {
+		PluginPipeline pipeline = new PluginPipeline();
+		int last = pipeline.addNode(sum());
+		int first = pipeline.addNode(sum());
+		pipeline.setInput(first, 0, 1);
+		pipeline.setInput(first, 1, 2);
+		pipeline.connect(first, 0, last, 0);
+		pipeline.setInput(last, 1, 3);
+		Assert.assertArrayEquals(new int[] { first, last }, pipeline.validate());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_rejectsCycles() {
+		PluginPipeline pipeline = new PluginPipeline();
+		int a = pipeline.addNode(sum());
+		int b = pipeline.addNode(sum());
+		pipeline.setInput(a, 0, 1);
+		pipeline.connect(b, 0, a, 1);
+		pipeline.setInput(b, 0, 1);
+		pipeline.connect(a, 0, b, 1);
+		pipeline.validate();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_rejectsUnsetInputs() {
+		PluginPipeline pipeline = new PluginPipeline();
+		int node = pipeline.addNode(sum());
+		pipeline.setInput(node, 0, 1);
+		pipeline.validate();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_rejectsMismatchingConnections() {
+		PluginPipeline pipeline = new PluginPipeline();
+		int sum = pipeline.addNode(sum());
+		int copy = pipeline.addNode(bind("Test deterministic copy", String.class));
+		pipeline.setInput(sum, 0, 1);
+		pipeline.setInput(sum, 1, 2);
+		pipeline.connect(sum, 0, copy, 0);
+		pipeline.validate();
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void test_rejectsUnknownResults() {
+		PluginPipeline pipeline = new PluginPipeline();
+		pipeline.addOutput(pipeline.addNode(sum()), 1);
+	}
+
+	@Test
+	public void test_providesOutputAddedTwiceOnce() throws Exception {
+		FrameworkTestPlugins.getPluginManager();
+		GlobalContext context = new HeadlessGlobalContext();
+		PluginPipeline pipeline = new PluginPipeline();
+		int first = pipeline.addNode(sum());
+		int second = pipeline.addNode(sum());
+		pipeline.setInput(first, 0, 1);
+		pipeline.setInput(first, 1, 2);
+		pipeline.connect(first, 0, second, 0);
+		pipeline.setInput(second, 1, 3);
+		pipeline.addOutput(second, 0);
+		pipeline.addOutput(second, 0);
+
+		List<ProvidedObjectID> ids = context.invokePipeline(pipeline);
+		Assert.assertEquals(2, ids.size());
+		Assert.assertEquals(ids.get(0), ids.get(1));
+		Assert.assertEquals(1, context.getProvidedObjectManager().getProvidedObjects().size());
+		Assert.assertEquals(6, context.getProvidedObjectManager().getProvidedObjectObject(ids.get(0), true));
+	}
+}
+
@@ -0,0 +1,78 @@
+package org.processmining.tests.framework;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginExecutionResult;
+import org.processmining.framework.plugin.ProMFuture;
+import org.processmining.framework.plugin.ResourceUsage;
+import org.processmining.framework.plugin.impl.PluginResourceReport;
+
+public class PluginResourceReportTest {
+
+	private static long getInvocationCount(PluginDescriptor plugin) {
+		PluginResourceReport.Entry entry = PluginResourceReport.getInstance().getEntry(plugin);
+		return entry == null ? 0 : entry.getInvocationCount();
+	}
+
+	@Test
+	public void test_separateReport() {
+		PluginDescriptor sum = FrameworkTestPlugins.getPlugin("Test sum");
+		PluginDescriptor copy = FrameworkTestPlugins.getPlugin("Test deterministic copy");
+		PluginResourceReport report = new PluginResourceReport();
+		Assert.assertNull(report.getEntry(sum));
+		report.record(sum, new ResourceUsage());
+		report.record(sum, new ResourceUsage());
+		report.record(copy, new ResourceUsage());
+		Assert.assertEquals(2, report.getEntry(sum).getInvocationCount());
+		Assert.assertEquals(1, report.getEntry(copy).getInvocationCount());
+		List<PluginResourceReport.Entry> entries = report.getEntries();
+		Assert.assertEquals(2, entries.size());
+		report.clear();
+		Assert.assertNull(report.getEntry(sum));
+	}
+
+	@Test
+	public void test_completedInvocationRecorded() throws Exception {
+		PluginDescriptor sum = FrameworkTestPlugins.getPlugin("Test sum");
+		long before = getInvocationCount(sum);
+		PluginExecutionResult result = FrameworkTestPlugins.invoke(FrameworkTestPlugins.createContext(), sum, 1, 2);
+		result.synchronize();
+		// The invocation is recorded once the plugin is done, right after its
+		// result is available
+		long deadline = System.currentTimeMillis() + 10000;
+		while ((getInvocationCount(sum) == before) && (System.currentTimeMillis() < deadline)) {
+			Thread.sleep(10);
+		}
+		Assert.assertEquals(before + 1, getInvocationCount(sum));
+	}
+
+	@Test
+	public void test_cancelledBeforeStartNotRecorded() throws Exception {
+		PluginDescriptor sum = FrameworkTestPlugins.getPlugin("Test sum");
+		long before = getInvocationCount(sum);
+		// An input that never becomes available, such that the plugin never
+		// starts
+		ProMFuture<Integer> pending = new ProMFuture<Integer>(Integer.class, "Pending") {
+			protected Integer doInBackground() throws Exception {
+				return 1;
+			}
+		};
+		PluginExecutionResult result = FrameworkTestPlugins.invoke(FrameworkTestPlugins.createContext(), sum,
+				pending, 2);
+		ProMFuture<?> future = (ProMFuture<?>) result.getResults()[0];
+		Assert.assertTrue(future.cancel(true));
+		Assert.assertEquals(before, getInvocationCount(sum));
+	}
+
+	@Test
+	public void test_defaultResourceUsage() {
+		PluginContext context = new ExternalPluginContext();
+		Assert.assertEquals(0, context.getResourceUsage().getCpuTime());
+		Assert.assertEquals(0, context.getResourceUsage().getAllocatedBytes());
+	}
+}
+
@@ -0,0 +1,118 @@
+package org.processmining.tests.framework;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.processmining.framework.boot.Boot;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginExecutionResult;
+import org.processmining.framework.plugin.impl.PluginResultCache;
+import org.processmining.framework.providedobjects.ProvidedObjectID;
+
+public class PluginResultCacheTest {
+
+	@Before
+	public void clear() {
+		PluginResultCache.getInstance().clear();
+	}
+
+	private static PluginExecutionResult provide(PluginContext context, PluginDescriptor plugin, Object... args)
+			throws Exception {
+		PluginContext child = context.createChildContext(plugin.getName());
+		PluginExecutionResult result = plugin.invoke(0, child, args);
+		result.synchronize();
+		context.getProvidedObjectManager().createProvidedObjects(child);
+		return result;
+	}
+
+	@Test
+	public void test_hitReusesProvidedObjects() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		PluginDescriptor copy = FrameworkTestPlugins.getPlugin("Test deterministic copy");
+		String text = new String("text");
+		int executions = FrameworkTestPlugins.copies.get();
+
+		PluginExecutionResult first = provide(context, copy, text);
+		int provided = context.getProvidedObjectManager().getProvidedObjects().size();
+		PluginExecutionResult second = provide(context, copy, text);
+
+		Assert.assertEquals(executions + 1, FrameworkTestPlugins.copies.get());
+		Assert.assertSame(first.getResult(0), second.getResult(0));
+		ProvidedObjectID id = first.getProvidedObjectID(0);
+		Assert.assertNotNull(id);
+		Assert.assertEquals(id, second.getProvidedObjectID(0));
+		Assert.assertEquals(provided, context.getProvidedObjectManager().getProvidedObjects().size());
+	}
+
+	@Test
+	public void test_scopedPerGlobalContext() throws Exception {
+		PluginDescriptor copy = FrameworkTestPlugins.getPlugin("Test deterministic copy");
+		String text = new String("text");
+		int executions = FrameworkTestPlugins.copies.get();
+
+		PluginExecutionResult first = provide(FrameworkTestPlugins.createContext(), copy, text);
+		PluginExecutionResult second = provide(FrameworkTestPlugins.createContext(), copy, text);
+
+		Assert.assertEquals(executions + 2, FrameworkTestPlugins.copies.get());
+		Assert.assertNotSame(first.getResult(0), second.getResult(0));
+	}
+
+	@Test
+	public void test_missesOnEqualInputs() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		PluginDescriptor copy = FrameworkTestPlugins.getPlugin("Test deterministic copy");
+		int executions = FrameworkTestPlugins.copies.get();
+
+		provide(context, copy, new String("text"));
+		provide(context, copy, new String("text"));
+
+		Assert.assertEquals(executions + 2, FrameworkTestPlugins.copies.get());
+	}
+
+	@Test
+	public void test_evictsLeastRecentlyUsed() {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		PluginDescriptor copy = FrameworkTestPlugins.getPlugin("Test deterministic copy");
+		PluginResultCache cache = PluginResultCache.getInstance();
+		String[] inputs = new String[Boot.RESULT_CACHE_SIZE + 1];
+		PluginResultCache.Key[] keys = new PluginResultCache.Key[inputs.length];
+		for (int i = 0; i < inputs.length; i++) {
+			inputs[i] = "input " + i;
+			keys[i] = PluginResultCache.createKey(context, copy, 0, inputs[i]);
+			cache.put(keys[i], new Object[] { inputs[i] }, new ProvidedObjectID[1]);
+			if (i == 1) {
+				// the first result is now more recently used than the second
+				Assert.assertNotNull(cache.get(keys[0]));
+			}
+		}
+		Assert.assertEquals(Boot.RESULT_CACHE_SIZE, cache.size());
+		Assert.assertNotNull(cache.get(keys[0]));
+		Assert.assertNull(cache.get(keys[1]));
+		Assert.assertNotNull(cache.get(keys[inputs.length - 1]));
+	}
+
+	@Test
+	public void test_invalidatesInputsAndResults() {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		PluginDescriptor copy = FrameworkTestPlugins.getPlugin("Test deterministic copy");
+		PluginResultCache cache = PluginResultCache.getInstance();
+		String input = new String("input");
+		String result = new String("result");
+		String other = new String("other");
+		PluginResultCache.Key key = PluginResultCache.createKey(context, copy, 0, input);
+		PluginResultCache.Key otherKey = PluginResultCache.createKey(context, copy, 0, other);
+		cache.put(key, new Object[] { result }, new ProvidedObjectID[1]);
+		cache.put(otherKey, new Object[] { other }, new ProvidedObjectID[1]);
+
+		cache.invalidate(input);
+		Assert.assertNull(cache.get(key));
+		Assert.assertNotNull(cache.get(otherKey));
+
+		cache.put(key, new Object[] { result }, new ProvidedObjectID[1]);
+		cache.invalidate(result);
+		Assert.assertNull(cache.get(key));
+		Assert.assertNotNull(cache.get(otherKey));
+	}
+}
+
@@ -0,0 +1,195 @@
+package org.processmining.tests.framework;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginExecutionResult;
+import org.processmining.framework.plugin.PluginPriority;
+import org.processmining.framework.plugin.annotations.PluginWorkload;
+import org.processmining.framework.plugin.events.PluginLifeCycleEventListener;
+import org.processmining.framework.plugin.impl.PluginScheduler;
+
+public class PluginSchedulerTest {
+
+	@Test
+	public void test_executorPerWorkload() {
+		PluginScheduler scheduler = PluginScheduler.getInstance();
+		Executor executor = new Executor() {
+			public void execute(Runnable command) {
+				command.run();
+			}
+		};
+		Assert.assertSame(executor, scheduler.getExecutor(PluginWorkload.Default, executor));
+		Assert.assertSame(scheduler.getIOExecutor(), scheduler.getExecutor(PluginWorkload.IO, executor));
+		Assert.assertSame(scheduler.getCPUExecutor(), scheduler.getExecutor(PluginWorkload.CPU, executor));
+	}
+
+	@Test
+	public void test_cpuPluginRunsOnCPUPool() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		PluginDescriptor plugin = FrameworkTestPlugins.getPlugin("Test CPU workload");
+		Assert.assertEquals(PluginWorkload.CPU, plugin.getWorkload());
+		Assert.assertEquals(PluginWorkload.Default, FrameworkTestPlugins.getPlugin("Test sum").getWorkload());
+		PluginExecutionResult result = FrameworkTestPlugins.invoke(context, plugin);
+		result.synchronize();
+		Assert.assertEquals(Boolean.TRUE, result.<Boolean>getResult(0));
+	}
+
+	@Test
+	public void test_priorityOrderOnBusyPool() throws Exception {
+		PluginScheduler scheduler = PluginScheduler.getInstance();
+		// A pool with a single thread, such that plugins queue up without a
+		// maximum number of running plugins
+		ExecutorService pool = Executors.newFixedThreadPool(1);
+		try {
+			final CountDownLatch blocking = new CountDownLatch(1);
+			final CountDownLatch release = new CountDownLatch(1);
+			final CountDownLatch done = new CountDownLatch(2);
+			final List<String> order = new CopyOnWriteArrayList<String>();
+			scheduler.getPriorityExecutor(PluginPriority.NORMAL, pool).execute(new Runnable() {
+				public void run() {
+					blocking.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+					}
+				}
+			});
+			Assert.assertTrue(blocking.await(10, TimeUnit.SECONDS));
+			scheduler.getPriorityExecutor(PluginPriority.LOW, pool).execute(new Runnable() {
+				public void run() {
+					order.add("low");
+					done.countDown();
+				}
+			});
+			scheduler.getPriorityExecutor(PluginPriority.HIGH, pool).execute(new Runnable() {
+				public void run() {
+					order.add("high");
+					done.countDown();
+				}
+			});
+			Assert.assertEquals(1, scheduler.getQueueLength(PluginPriority.LOW));
+			Assert.assertEquals(1, scheduler.getQueueLength(PluginPriority.HIGH));
+			release.countDown();
+			Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+			Assert.assertEquals(Arrays.asList("high", "low"), order);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void test_suspendedPriorityStaysQueued() {
+		PluginScheduler scheduler = PluginScheduler.getInstance();
+		final AtomicBoolean ran = new AtomicBoolean(false);
+		Executor direct = new Executor() {
+			public void execute(Runnable command) {
+				command.run();
+			}
+		};
+		scheduler.suspend(PluginPriority.LOW);
+		try {
+			scheduler.getPriorityExecutor(PluginPriority.LOW, direct).execute(new Runnable() {
+				public void run() {
+					ran.set(true);
+				}
+			});
+			Assert.assertFalse(ran.get());
+			Assert.assertEquals(1, scheduler.getQueueLength(PluginPriority.LOW));
+		} finally {
+			scheduler.resume(PluginPriority.LOW);
+		}
+		Assert.assertTrue(ran.get());
+		Assert.assertEquals(0, scheduler.getQueueLength(PluginPriority.LOW));
+	}
+
+	@Test
+	public void test_listenersNotifiedOutsideSchedulerLocks() throws Exception {
+		final PluginScheduler scheduler = PluginScheduler.getInstance();
+		PluginContext context = FrameworkTestPlugins.createContext();
+		context.setPriority(PluginPriority.LOW);
+		final AtomicBoolean otherThreadProceeded = new AtomicBoolean(false);
+		context.getPluginLifeCycleEventListeners().add(new PluginLifeCycleEventListener() {
+			public void pluginCreated(PluginContext context) {
+			}
+
+			public void pluginStarted(PluginContext context) {
+			}
+
+			public void pluginCompleted(PluginContext context) {
+			}
+
+			public void pluginCancelled(PluginContext context) {
+			}
+
+			public void pluginTerminatedWithError(PluginContext context, Throwable t) {
+			}
+
+			public void pluginFutureCreated(PluginContext context) {
+			}
+
+			public void pluginDeleted(PluginContext context) {
+			}
+
+			public void pluginSuspended(PluginContext context) {
+				// Another thread using the scheduler would block if the
+				// scheduler held its locks while notifying
+				Thread thread = new Thread(new Runnable() {
+					public void run() {
+						scheduler.getQueueLength(PluginPriority.LOW);
+						scheduler.isSuspended(PluginPriority.LOW);
+						otherThreadProceeded.set(true);
+					}
+				});
+				thread.start();
+				try {
+					thread.join(10000);
+				} catch (InterruptedException e) {
+				}
+			}
+		});
+		scheduler.suspend(PluginPriority.LOW);
+		try {
+			scheduler.started(context);
+			Assert.assertTrue(context.getProgress().isSuspended());
+			Assert.assertTrue(otherThreadProceeded.get());
+		} finally {
+			scheduler.resume(PluginPriority.LOW);
+			scheduler.finished(context);
+		}
+		Assert.assertFalse(context.getProgress().isSuspended());
+	}
+
+	@Test
+	public void test_defaultPriority() {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		Assert.assertEquals(PluginPriority.NORMAL, context.getPriority());
+		PluginContext child = context.createChildContext("child");
+		context.setPriority(PluginPriority.HIGH);
+		Assert.assertEquals(PluginPriority.NORMAL, child.getPriority());
+		Assert.assertEquals(PluginPriority.HIGH, context.createChildContext("child").getPriority());
+	}
+
+	@Test
+	public void test_externalContextWithoutPriorities() {
+		PluginContext context = new ExternalPluginContext();
+		Assert.assertEquals(PluginPriority.NORMAL, context.getPriority());
+		try {
+			context.setPriority(PluginPriority.HIGH);
+			Assert.fail();
+		} catch (UnsupportedOperationException e) {
+		}
+	}
+}
+
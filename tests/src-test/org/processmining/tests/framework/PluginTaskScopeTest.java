@@ -0,0 +1,115 @@
+package org.processmining.tests.framework;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.plugin.PluginContext;
+
+public class PluginTaskScopeTest {
+
+	@Test
+	public void test_parallelForExecutesEveryIndexOnce() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		final AtomicIntegerArray counts = new AtomicIntegerArray(1000);
+		context.parallelFor(0, counts.length(), new IntConsumer() {
+			public void accept(int i) {
+				counts.incrementAndGet(i);
+			}
+		});
+		for (int i = 0; i < counts.length(); i++) {
+			Assert.assertEquals(1, counts.get(i));
+		}
+	}
+
+	@Test(expected = ExecutionException.class)
+	public void test_parallelForForwardsFailures() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		context.parallelFor(0, 100, new IntConsumer() {
+			public void accept(int i) {
+				if (i == 42) {
+					throw new IllegalStateException("iteration " + i);
+				}
+			}
+		});
+	}
+
+	@Test(expected = CancellationException.class)
+	public void test_parallelForStopsWhenCancelled() throws Exception {
+		final PluginContext context = FrameworkTestPlugins.createContext();
+		context.parallelFor(0, 100000, new IntConsumer() {
+			public void accept(int i) {
+				context.getProgress().cancel();
+			}
+		});
+	}
+
+	@Test
+	public void test_mapReduceKeepsItemOrder() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		List<Integer> items = new ArrayList<Integer>();
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			items.add(i);
+			expected.append(i).append(',');
+		}
+		String result = context.mapReduce(items, new Function<Integer, String>() {
+			public String apply(Integer item) {
+				return item + ",";
+			}
+		}, "", new BinaryOperator<String>() {
+			public String apply(String left, String right) {
+				return left + right;
+			}
+		});
+		Assert.assertEquals(expected.toString(), result);
+		Assert.assertEquals("", context.mapReduce(Arrays.<Integer>asList(), new Function<Integer, String>() {
+			public String apply(Integer item) {
+				return item.toString();
+			}
+		}, "", new BinaryOperator<String>() {
+			public String apply(String left, String right) {
+				return left + right;
+			}
+		}));
+	}
+
+	@Test
+	public void test_joinWaitsForForkedTasks() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		final AtomicBoolean done = new AtomicBoolean(false);
+		Future<Integer> forked = context.fork(new Callable<Integer>() {
+			public Integer call() throws Exception {
+				Thread.sleep(50);
+				done.set(true);
+				return 42;
+			}
+		});
+		context.joinSubtasks();
+		Assert.assertTrue(done.get());
+		Assert.assertEquals(Integer.valueOf(42), forked.get());
+	}
+
+	@Test(expected = CancellationException.class)
+	public void test_forkedTaskSkippedWhenCancelled() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		context.getProgress().cancel();
+		context.fork(new Callable<Integer>() {
+			public Integer call() {
+				return 42;
+			}
+		}).get();
+	}
+}
+
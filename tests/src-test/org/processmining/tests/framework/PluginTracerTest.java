@@ -0,0 +1,202 @@
+package org.processmining.tests.framework;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.boot.Boot;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginExecutionResult;
+import org.processmining.framework.plugin.impl.PluginTracer;
+
+public class PluginTracerTest {
+
+	/**
+	 * A strict parser of the JSON the tracer writes.
+	 */
+	private static class JsonParser {
+		private final String text;
+		private int position = 0;
+
+		private JsonParser(String text) {
+			this.text = text;
+		}
+
+		static Object parse(String text) {
+			JsonParser parser = new JsonParser(text);
+			Object value = parser.value();
+			parser.whitespace();
+			Assert.assertEquals("Trailing characters", text.length(), parser.position);
+			return value;
+		}
+
+		private void whitespace() {
+			while ((position < text.length()) && Character.isWhitespace(text.charAt(position))) {
+				position++;
+			}
+		}
+
+		private void expect(char c) {
+			whitespace();
+			Assert.assertTrue("Expected " + c + " at " + position, (position < text.length())
+					&& (text.charAt(position) == c));
+			position++;
+		}
+
+		private boolean next(char c) {
+			whitespace();
+			if ((position < text.length()) && (text.charAt(position) == c)) {
+				position++;
+				return true;
+			}
+			return false;
+		}
+
+		private Object value() {
+			whitespace();
+			Assert.assertTrue("Unexpected end", position < text.length());
+			char c = text.charAt(position);
+			if (c == '{') {
+				Map<String, Object> object = new LinkedHashMap<String, Object>();
+				expect('{');
+				if (!next('}')) {
+					do {
+						String key = string();
+						expect(':');
+						object.put(key, value());
+					} while (next(','));
+					expect('}');
+				}
+				return object;
+			} else if (c == '[') {
+				List<Object> array = new ArrayList<Object>();
+				expect('[');
+				if (!next(']')) {
+					do {
+						array.add(value());
+					} while (next(','));
+					expect(']');
+				}
+				return array;
+			} else if (c == '"') {
+				return string();
+			} else {
+				int start = position;
+				while ((position < text.length()) && ("-0123456789".indexOf(text.charAt(position)) >= 0)) {
+					position++;
+				}
+				Assert.assertTrue("Expected a value at " + start, position > start);
+				return Long.valueOf(text.substring(start, position));
+			}
+		}
+
+		private String string() {
+			expect('"');
+			StringBuilder builder = new StringBuilder();
+			while (true) {
+				char c = text.charAt(position++);
+				if (c == '"') {
+					return builder.toString();
+				}
+				Assert.assertTrue("Unescaped control character at " + position, c >= ' ');
+				if (c == '\\') {
+					c = text.charAt(position++);
+					if (c == 'u') {
+						builder.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+						position += 4;
+					} else {
+						Assert.assertTrue("Invalid escape at " + position, (c == '"') || (c == '\\'));
+						builder.append(c);
+					}
+				} else {
+					builder.append(c);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void test_disabledWithoutTraceFile() {
+		Assert.assertEquals("", Boot.TRACE_FILE);
+		Assert.assertFalse(PluginTracer.ENABLED);
+		Assert.assertFalse(PluginTracer.isEnabled());
+		Assert.assertEquals(0, PluginTracer.start());
+		// Recording is a no-op, also without a context
+		PluginTracer.complete("span", null, PluginTracer.start());
+		PluginTracer.completeAsync("span", FrameworkTestPlugins.createContext(), PluginTracer.start());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void test_traceOfPluginRun() throws Exception {
+		PluginDescriptor sum = FrameworkTestPlugins.getPlugin("Test sum");
+		String label = "Sum of \"one\" and \\two\\\n";
+		File file = File.createTempFile("trace", ".json");
+		file.deleteOnExit();
+		PluginContext context;
+		Assert.assertTrue(PluginTracer.open(file));
+		try {
+			Assert.assertTrue(PluginTracer.isEnabled());
+			context = FrameworkTestPlugins.createContext().createChildContext(label);
+			PluginExecutionResult result = sum.invoke(0, context, 1, 2);
+			result.synchronize();
+			// The span of the context ends right after its result is
+			// available, and the trace is written every second
+			String end = "\"ph\":\"e\",\"id\":\"" + context.getID() + "\"";
+			long deadline = System.currentTimeMillis() + 10000;
+			while (System.currentTimeMillis() < deadline) {
+				String written = new String(Files.readAllBytes(file.toPath()), Charset.forName("UTF-8"));
+				if (written.split(Pattern.quote(end), -1).length > 2) {
+					break;
+				}
+				Thread.sleep(50);
+			}
+		} finally {
+			PluginTracer.close();
+		}
+		Assert.assertFalse(PluginTracer.isEnabled());
+
+		String trace = new String(Files.readAllBytes(file.toPath()), Charset.forName("UTF-8"));
+		List<Object> events = (List<Object>) JsonParser.parse(trace);
+		String id = context.getID().toString();
+		Map<String, Integer> open = new HashMap<String, Integer>();
+		boolean labelled = false;
+		boolean executed = false;
+		for (Object object : events) {
+			Map<String, Object> event = (Map<String, Object>) object;
+			Assert.assertTrue(event.containsKey("ts"));
+			Assert.assertTrue(event.containsKey("args"));
+			if (!id.equals(event.get("id"))) {
+				executed |= ("execute " + sum.getName()).equals(event.get("name"))
+						&& id.equals(((Map<String, Object>) event.get("args")).get("context"));
+				continue;
+			}
+			String name = (String) event.get("name");
+			labelled |= label.equals(name);
+			Integer depth = open.containsKey(name) ? open.get(name) : 0;
+			if ("b".equals(event.get("ph"))) {
+				open.put(name, depth + 1);
+			} else {
+				Assert.assertEquals("e", event.get("ph"));
+				Assert.assertTrue("End without begin of " + name, depth > 0);
+				open.put(name, depth - 1);
+			}
+		}
+		Assert.assertTrue(labelled);
+		Assert.assertTrue(executed);
+		Assert.assertEquals(2, open.size());
+		for (Map.Entry<String, Integer> entry : open.entrySet()) {
+			Assert.assertEquals("Unmatched begin of " + entry.getKey(), Integer.valueOf(0), entry.getValue());
+		}
+	}
+}
+
@@ -0,0 +1,102 @@
+package org.processmining.tests.framework;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.processmining.framework.boot.Boot;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginContextID;
+import org.processmining.framework.plugin.events.Logger;
+import org.processmining.framework.plugin.impl.PluginWatchdog;
+
+public class PluginWatchdogTest {
+
+	private int softBudget;
+	private final AtomicLong now = new AtomicLong(0);
+	private final PluginWatchdog watchdog = new PluginWatchdog(new LongSupplier() {
+		public long getAsLong() {
+			return now.get();
+		}
+	}, 0);
+	private final List<String> warnings = new CopyOnWriteArrayList<String>();
+	// Held here, as contexts hold their loggers weakly
+	private final Logger logger = new Logger() {
+		public void log(String message, PluginContextID contextID, MessageLevel messageLevel) {
+			if (messageLevel == MessageLevel.WARNING) {
+				warnings.add(message);
+			}
+		}
+
+		public void log(Throwable t, PluginContextID contextID) {
+		}
+	};
+
+	@Before
+	public void setUp() {
+		softBudget = Boot.SOFT_TIME_BUDGET;
+		Boot.SOFT_TIME_BUDGET = 2;
+	}
+
+	@After
+	public void tearDown() {
+		Boot.SOFT_TIME_BUDGET = softBudget;
+	}
+
+	private PluginContext createContext() {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		context.getLoggingListeners().add(logger);
+		return context;
+	}
+
+	private void checkAt(long time) {
+		now.set(time);
+		watchdog.check();
+	}
+
+	@Test
+	public void test_softBudgetReported() {
+		PluginContext context = createContext();
+		watchdog.started(context);
+		checkAt(2000);
+		Assert.assertTrue(warnings.isEmpty());
+		checkAt(2001);
+		Assert.assertEquals(1, warnings.size());
+		Assert.assertTrue(warnings.get(0).contains("soft time budget of 2 seconds"));
+		// Each budget is reported once
+		checkAt(10000);
+		Assert.assertEquals(1, warnings.size());
+		watchdog.finished(context);
+	}
+
+	@Test
+	public void test_suspendedTimeNotCounted() {
+		PluginContext context = createContext();
+		context.getProgress().suspend();
+		watchdog.started(context);
+		checkAt(3000);
+		Assert.assertTrue(warnings.isEmpty());
+		now.set(3000);
+		context.getProgress().resume();
+		checkAt(5000);
+		Assert.assertTrue(warnings.isEmpty());
+		checkAt(5001);
+		Assert.assertEquals(1, warnings.size());
+		watchdog.finished(context);
+	}
+
+	@Test
+	public void test_finishedNotReported() {
+		PluginContext context = createContext();
+		watchdog.started(context);
+		watchdog.finished(context);
+		checkAt(10000);
+		Assert.assertTrue(warnings.isEmpty());
+	}
+}
+
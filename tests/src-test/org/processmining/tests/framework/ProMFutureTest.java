@@ -0,0 +1,115 @@
+package org.processmining.tests.framework;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.plugin.ProMFuture;
+import org.processmining.framework.plugin.events.FutureListener;
+
+public class ProMFutureTest {
+
+	private static final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@AfterClass
+	public static void shutdown() {
+		executor.shutdown();
+	}
+
+	private static ProMFuture<Integer> future(final Integer value, final CountDownLatch gate) {
+		ProMFuture<Integer> future = new ProMFuture<Integer>(Integer.class, "value") {
+			protected Integer doInBackground() throws Exception {
+				gate.await();
+				if (value == null) {
+					throw new IllegalStateException("no value");
+				}
+				return value;
+			}
+		};
+		future.setDispatchOnEventThread(false);
+		return future;
+	}
+
+	@Test
+	public void test_startAndNotify() throws Exception {
+		ProMFuture<Integer> future = future(42, new CountDownLatch(0));
+		final CountDownLatch notified = new CountDownLatch(1);
+		future.getFutureListeners().add(new FutureListener() {
+			public void futureReady(ProMFuture<?> f) {
+				notified.countDown();
+			}
+		});
+		Assert.assertEquals(Integer.valueOf(42), future.start(executor).get(5, TimeUnit.SECONDS));
+		Assert.assertTrue(notified.await(5, TimeUnit.SECONDS));
+
+		// running the computation again has no effect
+		future.getRunnable().run();
+		Assert.assertEquals(Integer.valueOf(42), future.get());
+	}
+
+	@Test
+	public void test_thenApply() throws Exception {
+		CountDownLatch gate = new CountDownLatch(1);
+		ProMFuture<Integer> future = future(20, gate);
+		ProMFuture<String> dependent = future.thenApply(String.class, "text", new Function<Integer, String>() {
+			public String apply(Integer i) {
+				return "n" + (i + 1);
+			}
+		});
+		future.start(executor);
+		// the dependent future is not computed by its own runnable
+		dependent.getRunnable().run();
+		Assert.assertFalse(dependent.isDone());
+		gate.countDown();
+		Assert.assertEquals("n21", dependent.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void test_thenComposeFailure() throws Exception {
+		ProMFuture<Integer> future = future(null, new CountDownLatch(0));
+		ProMFuture<Integer> dependent = future.thenCompose(Integer.class, "composed",
+				new Function<Integer, ProMFuture<Integer>>() {
+					public ProMFuture<Integer> apply(Integer i) {
+						return future(i, new CountDownLatch(0)).start(executor);
+					}
+				});
+		future.start(executor);
+		try {
+			dependent.get(5, TimeUnit.SECONDS);
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	@Test
+	public void test_cancel() throws Exception {
+		final CountDownLatch gate = new CountDownLatch(1);
+		ProMFuture<Integer> future = future(1, gate);
+		ProMFuture<Integer> dependent = future.thenApply(Integer.class, "copy", Function.<Integer>identity());
+		Assert.assertTrue(future.cancel(true));
+		Assert.assertTrue(future.isCancelled());
+		// a cancelled future does not start
+		Executor inline = new Executor() {
+			public void execute(Runnable command) {
+				command.run();
+			}
+		};
+		future.start(inline);
+		try {
+			dependent.get(5, TimeUnit.SECONDS);
+			Assert.fail();
+		} catch (CancellationException e) {
+			Assert.assertTrue(dependent.isCancelled());
+		}
+	}
+}
+
@@ -0,0 +1,105 @@
+package org.processmining.tests.framework;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginExecutionResult;
+import org.processmining.framework.plugin.ProMFuture;
+import org.processmining.framework.plugin.events.ProgressEventListener;
+import org.processmining.framework.plugin.impl.ProgressBarImpl;
+
+public class ProgressBarImplTest {
+
+	private static ProMFuture<Integer> pending(final CountDownLatch gate) {
+		ProMFuture<Integer> future = new ProMFuture<Integer>(Integer.class, "input") {
+			protected Integer doInBackground() throws Exception {
+				gate.await();
+				return 1;
+			}
+		};
+		future.setDispatchOnEventThread(false);
+		return future;
+	}
+
+	private static List<Integer> listen(PluginContext context) {
+		final List<Integer> values = new CopyOnWriteArrayList<Integer>();
+		context.getProgressEventListeners().add(new ProgressEventListener() {
+			public void changeProgressCaption(String newCaption) {
+			}
+
+			public void changeProgress(int progress) {
+				values.add(progress);
+			}
+
+			public void changeProgressBounds(int lowBo, int upBo) {
+			}
+
+			public void changeProgressIndeterminate(boolean indeterminate) {
+			}
+		});
+		return values;
+	}
+
+	@Test
+	public void test_coalescesValueChanges() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		List<Integer> values = listen(context);
+		for (int i = 0; i < 10000; i++) {
+			context.getProgress().inc();
+		}
+		Assert.assertEquals(10000, context.getProgress().getValue());
+		// Wait for the publisher to publish the last change
+		Thread.sleep(500);
+		Assert.assertTrue(values.size() < 10000);
+		Assert.assertEquals(Integer.valueOf(10000), values.get(values.size() - 1));
+	}
+
+	@Test
+	public void test_flushPublishesPendingValue() {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		List<Integer> values = listen(context);
+		context.getProgress().setValue(5);
+		((ProgressBarImpl) context.getProgress()).flush();
+		Assert.assertTrue(values.contains(5));
+	}
+
+	@Test
+	public void test_cancelReachesDescendants() {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		PluginContext child = context.createChildContext("child");
+		PluginContext grandChild = child.createChildContext("grand child");
+		context.getProgress().cancel();
+		Assert.assertTrue(child.getProgress().isCancelled());
+		Assert.assertTrue(grandChild.getProgress().isCancelled());
+		Assert.assertTrue(child.createChildContext("late child").getProgress().isCancelled());
+	}
+
+	@Test
+	public void test_cancelledFutureCancelsProgress() {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		PluginDescriptor sum = FrameworkTestPlugins.getPlugin("Test sum");
+		PluginContext child = context.createChildContext(sum.getName());
+		PluginExecutionResult result = sum.invoke(0, child, pending(new CountDownLatch(1)), 2);
+		Assert.assertFalse(child.getProgress().isCancelled());
+		((ProMFuture<?>) result.getResults()[0]).cancel(true);
+		Assert.assertTrue(child.getProgress().isCancelled());
+		Assert.assertFalse(context.getProgress().isCancelled());
+	}
+
+	@Test
+	public void test_cancelBeforeInvocationCancelsFutures() {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		PluginDescriptor sum = FrameworkTestPlugins.getPlugin("Test sum");
+		PluginContext child = context.createChildContext(sum.getName());
+		child.getProgress().cancel();
+		PluginExecutionResult result = sum.invoke(0, child, pending(new CountDownLatch(1)), 2);
+		Assert.assertTrue(((ProMFuture<?>) result.getResults()[0]).isCancelled());
+	}
+}
+
+
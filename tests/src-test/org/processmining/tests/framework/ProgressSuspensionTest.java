@@ -0,0 +1,163 @@
+package org.processmining.tests.framework;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.Progress;
+import org.processmining.framework.plugin.events.PluginLifeCycleEventListener;
+
+public class ProgressSuspensionTest {
+
+	/**
+	 * A listener that only implements the methods that existed before
+	 * suspension was introduced.
+	 */
+	private static class Listener implements PluginLifeCycleEventListener {
+		public void pluginCreated(PluginContext context) {
+		}
+
+		public void pluginStarted(PluginContext context) {
+		}
+
+		public void pluginCompleted(PluginContext context) {
+		}
+
+		public void pluginCancelled(PluginContext context) {
+		}
+
+		public void pluginTerminatedWithError(PluginContext context, Throwable t) {
+		}
+
+		public void pluginFutureCreated(PluginContext context) {
+		}
+
+		public void pluginDeleted(PluginContext context) {
+		}
+	}
+
+	@Test
+	public void test_suspendReachesDescendants() {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		PluginContext child = context.createChildContext("child");
+		final List<String> events = new CopyOnWriteArrayList<String>();
+		context.getPluginLifeCycleEventListeners().add(new Listener());
+		context.getPluginLifeCycleEventListeners().add(new Listener() {
+			public void pluginSuspended(PluginContext context) {
+				events.add("suspended");
+			}
+
+			public void pluginResumed(PluginContext context) {
+				events.add("resumed");
+			}
+		});
+		context.getProgress().suspend();
+		Assert.assertTrue(child.getProgress().isSuspended());
+		Assert.assertTrue(child.createChildContext("late child").getProgress().isSuspended());
+		context.getProgress().resume();
+		Assert.assertFalse(child.getProgress().isSuspended());
+		Assert.assertEquals(Arrays.asList("suspended", "resumed"), events);
+	}
+
+	@Test(timeout = 5000)
+	public void test_awaitResumedBlocksUntilResumed() throws Exception {
+		final PluginContext context = FrameworkTestPlugins.createContext();
+		context.getProgress().suspend();
+		final CountDownLatch waiting = new CountDownLatch(1);
+		final AtomicBoolean resumed = new AtomicBoolean(false);
+		Thread plugin = new Thread() {
+			public void run() {
+				try {
+					waiting.countDown();
+					resumed.set(!context.getProgress().awaitResumed());
+				} catch (InterruptedException e) {
+					// Fails the test
+				}
+			}
+		};
+		plugin.start();
+		waiting.await();
+		Thread.sleep(50);
+		Assert.assertTrue(plugin.isAlive());
+		context.getProgress().resume();
+		plugin.join();
+		Assert.assertTrue(resumed.get());
+	}
+
+	@Test(timeout = 5000)
+	public void test_cancelWakesSuspendedPlugin() throws Exception {
+		PluginContext context = FrameworkTestPlugins.createContext();
+		context.getProgress().suspend();
+		context.getProgress().cancel();
+		Assert.assertTrue(context.getProgress().awaitResumed());
+	}
+
+	@Test
+	public void test_defaultsWithoutSuspension() throws Exception {
+		final AtomicBoolean cancelled = new AtomicBoolean(false);
+		Progress progress = new Progress() {
+			public void setMinimum(int value) {
+			}
+
+			public void setMaximum(int value) {
+			}
+
+			public void setValue(int value) {
+			}
+
+			public void setCaption(String message) {
+			}
+
+			public String getCaption() {
+				return "";
+			}
+
+			public int getValue() {
+				return 0;
+			}
+
+			public void inc() {
+			}
+
+			public void setIndeterminate(boolean makeIndeterminate) {
+			}
+
+			public boolean isIndeterminate() {
+				return true;
+			}
+
+			public int getMinimum() {
+				return 0;
+			}
+
+			public int getMaximum() {
+				return 1;
+			}
+
+			public boolean isCancelled() {
+				return cancelled.get();
+			}
+
+			public void cancel() {
+				cancelled.set(true);
+			}
+		};
+		Assert.assertFalse(progress.isSuspended());
+		progress.resume();
+		Assert.assertFalse(progress.awaitResumed());
+		progress.cancel();
+		Assert.assertTrue(progress.awaitResumed());
+		try {
+			progress.suspend();
+			Assert.fail("suspension is not supported");
+		} catch (UnsupportedOperationException e) {
+			// Expected
+		}
+	}
+}
+
@@ -0,0 +1,42 @@
+package org.processmining.tests.framework;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.boot.Boot;
+import org.processmining.framework.connections.Connection;
+import org.processmining.framework.plugin.PluginContext;
+
+public class SpeculativeConstructionTest {
+
+	private final int speculativeConstructions = Boot.SPECULATIVE_CONSTRUCTIONS;
+
+	@After
+	public void restore() {
+		Boot.SPECULATIVE_CONSTRUCTIONS = speculativeConstructions;
+	}
+
+	@Test
+	public void test_pluginsAreSpeculativeByDefault() {
+		Assert.assertTrue(FrameworkTestPlugins.getPlugin("Test construct 3").isSpeculative());
+	}
+
+	/**
+	 * The slow candidate is ranked first, so without speculation the
+	 * construction would take 10 seconds.
+	 */
+	@Test(timeout = 5000)
+	public void test_firstSuccessWinsAndOthersAreCancelled() throws Exception {
+		Boot.SPECULATIVE_CONSTRUCTIONS = 3;
+		FrameworkTestPlugins.slowConstructionCancelled = new CountDownLatch(1);
+		PluginContext context = FrameworkTestPlugins.createContext();
+		FrameworkTestPlugins.Constructed constructed = context.tryToFindOrConstructFirstObject(
+				FrameworkTestPlugins.Constructed.class, Connection.class, "", "input");
+		Assert.assertEquals("Test construct 3", constructed.getConstructor());
+		Assert.assertTrue(FrameworkTestPlugins.slowConstructionCancelled.await(4, TimeUnit.SECONDS));
+	}
+}
+
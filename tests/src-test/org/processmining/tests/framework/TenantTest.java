@@ -0,0 +1,203 @@
+package org.processmining.tests.framework;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.processmining.framework.plugin.PluginDescriptor;
+import org.processmining.framework.plugin.PluginExecutionResult;
+import org.processmining.framework.plugin.impl.PluginExecutionHistory;
+import org.processmining.framework.plugin.impl.PluginResourceReport;
+import org.processmining.framework.plugin.impl.Tenant;
+import org.processmining.framework.plugin.impl.TenantGlobalContext;
+import org.processmining.framework.plugin.impl.TenantPluginContext;
+
+public class TenantTest {
+
+	/**
+	 * Collects the tasks it is given, such that the test decides when they
+	 * run.
+	 */
+	private static class ManualExecutor implements Executor {
+		private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+		public synchronized void execute(Runnable command) {
+			tasks.add(command);
+		}
+
+		synchronized int size() {
+			return tasks.size();
+		}
+
+		void run(int i) {
+			Runnable task;
+			synchronized (this) {
+				task = tasks.get(i);
+			}
+			task.run();
+		}
+	}
+
+	private static final Runnable NOTHING = new Runnable() {
+		public void run() {
+		}
+	};
+
+	private static Tenant createTenant(int maxRunning, int memoryQuota) {
+		return createTenant(4, maxRunning, memoryQuota);
+	}
+
+	private static Tenant createTenant(int threads, int maxRunning, int memoryQuota) {
+		return new Tenant("Test", threads, maxRunning, memoryQuota, new PluginExecutionHistory(null, false));
+	}
+
+	private static PluginExecutionResult invoke(Tenant tenant, String plugin, Object... args) {
+		TenantPluginContext context = new TenantPluginContext(new TenantGlobalContext(tenant), "Test");
+		return FrameworkTestPlugins.invoke(context, FrameworkTestPlugins.getPlugin(plugin), args);
+	}
+
+	private static void submit(Tenant tenant, CompletableFuture<?> future, ManualExecutor executor) {
+		PluginDescriptor sum = FrameworkTestPlugins.getPlugin("Test sum");
+		tenant.getExecutor(sum, future, executor).execute(NOTHING);
+	}
+
+	@Test
+	public void test_queuedBeyondMaxRunning() {
+		Tenant tenant = createTenant(2, 0);
+		ManualExecutor executor = new ManualExecutor();
+		List<CompletableFuture<Object>> futures = new ArrayList<CompletableFuture<Object>>();
+		for (int i = 0; i < 3; i++) {
+			futures.add(new CompletableFuture<Object>());
+			submit(tenant, futures.get(i), executor);
+		}
+		Assert.assertEquals(2, executor.size());
+		Assert.assertEquals(2, tenant.getRunningCount());
+		Assert.assertEquals(1, tenant.getQueueLength());
+
+		futures.get(0).complete(null);
+		executor.run(0);
+		Assert.assertEquals(3, executor.size());
+		Assert.assertEquals(2, tenant.getRunningCount());
+		Assert.assertEquals(0, tenant.getQueueLength());
+		Assert.assertEquals(1, tenant.getCompletedCount());
+
+		futures.get(1).completeExceptionally(new Exception());
+		executor.run(1);
+		futures.get(2).cancel(true);
+		executor.run(2);
+		Assert.assertEquals(0, tenant.getRunningCount());
+		Assert.assertEquals(3, tenant.getStartedCount());
+		Assert.assertEquals(1, tenant.getFailedCount());
+		Assert.assertEquals(1, tenant.getCancelledCount());
+	}
+
+	@Test
+	public void test_queuedBeyondThreads() {
+		Tenant tenant = createTenant(1, 0, 0);
+		ManualExecutor executor = new ManualExecutor();
+		CompletableFuture<Object> first = new CompletableFuture<Object>();
+		submit(tenant, first, executor);
+		submit(tenant, new CompletableFuture<Object>(), executor);
+		Assert.assertEquals(1, executor.size());
+		Assert.assertEquals(1, tenant.getQueueLength());
+
+		first.complete(null);
+		executor.run(0);
+		Assert.assertEquals(2, executor.size());
+	}
+
+	@Test(timeout = 20000)
+	public void test_nestedInvocationWithSingleThread() throws Exception {
+		Tenant tenant = createTenant(1, 0, 0);
+		try {
+			// The nested plugin runs while the plugin invoking it waits
+			PluginExecutionResult result = invoke(tenant, "Test nested sum", 1, 2);
+			result.synchronize();
+			Assert.assertEquals(Integer.valueOf(3), result.<Integer>getResult(0));
+		} finally {
+			tenant.shutdown();
+		}
+	}
+
+	@Test
+	public void test_workloadRunOnTenantThreads() throws Exception {
+		Tenant tenant = createTenant(1, 0, 0);
+		try {
+			PluginExecutionResult result = invoke(tenant, "Test CPU workload");
+			result.synchronize();
+			Assert.assertEquals(Boolean.FALSE, result.<Boolean>getResult(0));
+		} finally {
+			tenant.shutdown();
+		}
+	}
+
+	@Test
+	public void test_undeclaredMemoryNotCounted() {
+		Tenant tenant = createTenant(0, 100);
+		ManualExecutor executor = new ManualExecutor();
+		for (int i = 0; i < 3; i++) {
+			submit(tenant, new CompletableFuture<Object>(), executor);
+		}
+		Assert.assertEquals(0, FrameworkTestPlugins.getPlugin("Test sum").getMemoryHint());
+		Assert.assertEquals(3, executor.size());
+		Assert.assertEquals(0, tenant.getReservedMemory());
+	}
+
+	@Test
+	public void test_queuedBeyondMemoryQuota() {
+		Tenant tenant = createTenant(0, 100);
+		tenant.setDefaultMemoryHint(60);
+		ManualExecutor executor = new ManualExecutor();
+		CompletableFuture<Object> first = new CompletableFuture<Object>();
+		submit(tenant, first, executor);
+		submit(tenant, new CompletableFuture<Object>(), executor);
+		Assert.assertEquals(1, executor.size());
+		Assert.assertEquals(60, tenant.getReservedMemory());
+		Assert.assertEquals(1, tenant.getQueueLength());
+
+		first.complete(null);
+		executor.run(0);
+		Assert.assertEquals(2, executor.size());
+		Assert.assertEquals(60, tenant.getReservedMemory());
+		Assert.assertEquals(0, tenant.getQueueLength());
+	}
+
+	@Test
+	public void test_startedBeyondMemoryQuotaIfNothingRuns() {
+		Tenant tenant = createTenant(0, 100);
+		tenant.setDefaultMemoryHint(150);
+		ManualExecutor executor = new ManualExecutor();
+		submit(tenant, new CompletableFuture<Object>(), executor);
+		Assert.assertEquals(1, executor.size());
+		Assert.assertEquals(150, tenant.getReservedMemory());
+	}
+
+	@Test
+	public void test_resourcesRecordedForTenant() throws Exception {
+		PluginDescriptor sum = FrameworkTestPlugins.getPlugin("Test sum");
+		PluginResourceReport.Entry global = PluginResourceReport.getInstance().getEntry(sum);
+		long globalBefore = global == null ? 0 : global.getInvocationCount();
+		Tenant tenant = createTenant(0, 0);
+		try {
+			PluginExecutionResult result = invoke(tenant, "Test sum", 1, 2);
+			result.synchronize();
+			Assert.assertEquals(Integer.valueOf(3), result.<Integer>getResult(0));
+			// The invocation is recorded once the plugin is done, right after
+			// its result is available
+			long deadline = System.currentTimeMillis() + 10000;
+			while ((tenant.getResourceReport().getEntry(sum) == null) && (System.currentTimeMillis() < deadline)) {
+				Thread.sleep(10);
+			}
+			Assert.assertEquals(1, tenant.getResourceReport().getEntry(sum).getInvocationCount());
+			global = PluginResourceReport.getInstance().getEntry(sum);
+			Assert.assertEquals(globalBefore, global == null ? 0 : global.getInvocationCount());
+		} finally {
+			tenant.shutdown();
+		}
+	}
+}
+
+